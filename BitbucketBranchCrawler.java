@@ -0,0 +1,468 @@
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Counts the branches of every repository in Bitbucket Data Center projects and writes the same
+ * CSV reports as {@code pipeline.groovy}, fetching repositories concurrently.
+ * <p>
+ * The pages of one listing depend on each other through {@code nextPageStart}, so they are
+ * fetched in order. Everything else overlaps:
+ * <ul>
+ *     <li>Each page of the repository listing hands its repositories to the pool as soon as it
+ *         arrives, so branch pages load while later repository pages are still being fetched.</li>
+ *     <li>Each Bitbucket instance gets its own fixed pool of {@code maxConcurrencyPerInstance}
+ *         threads, which bounds the requests in flight against it.</li>
+ *     <li>Branch pages are counted as they arrive and then dropped, and rows are written as
+ *         they complete, so memory does not grow with the number of branches.</li>
+ *     <li>A single {@link HttpClient} keeps connections alive between requests.</li>
+ *     <li>Connection failures, {@code 429} and {@code 5xx} responses are retried with
+ *         exponential backoff and jitter. A {@code Retry-After} header is honored.</li>
+ * </ul>
+ * A listing that still fails stops at that page and keeps what was read, like
+ * {@code makePaginatedApiCall}. Rows follow the repository listing order whatever order the
+ * requests finish in, so the CSV matches the sequential pipeline byte for byte.
+ * </p>
+ * <p>
+ * With a cache directory, every page is requested conditionally with the {@code ETag} and
+ * {@code Last-Modified} validators from the previous run. When all branch pages of a
+ * repository come back {@code 304 Not Modified}, its row is taken from the snapshot of the
+ * previous counts without reading any page body. See {@link BitbucketResponseCache}.
+ * </p>
+ */
+public final class BitbucketBranchCrawler implements AutoCloseable {
+
+    public static final String CSV_HEADER = "BitbucketURL,Project,Repository,Main,Master,Release/*,Hotfix/*,Feature";
+    public static final String CONSOLIDATED_CSV = "branch_counts_all_projects.csv";
+    private static final int PAGE_LIMIT = 100;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+    private final int maxConcurrencyPerInstance;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final BitbucketResponseCache cache; // Null without a cache directory
+
+    /**
+     * @param maxConcurrencyPerInstance The most requests in flight against one Bitbucket instance.
+     * @param maxAttempts               Attempts per request, including the first; at least 1.
+     * @param initialBackoff            The wait before the first retry, doubled for each later one.
+     */
+    public BitbucketBranchCrawler(int maxConcurrencyPerInstance, int maxAttempts, Duration initialBackoff) {
+        this(maxConcurrencyPerInstance, maxAttempts, initialBackoff, (BitbucketResponseCache) null);
+    }
+
+    /**
+     * Like {@link #BitbucketBranchCrawler(int, int, Duration)}, keeping page validators, page
+     * bodies and the counts snapshot in {@code cacheDirectory} between runs.
+     *
+     * @throws IOException if the directory cannot be created or its snapshot cannot be read.
+     */
+    public BitbucketBranchCrawler(int maxConcurrencyPerInstance, int maxAttempts, Duration initialBackoff,
+                                  Path cacheDirectory) throws IOException {
+        this(maxConcurrencyPerInstance, maxAttempts, initialBackoff, new BitbucketResponseCache(cacheDirectory));
+    }
+
+    private BitbucketBranchCrawler(int maxConcurrencyPerInstance, int maxAttempts, Duration initialBackoff,
+                                   BitbucketResponseCache cache) {
+        if (maxConcurrencyPerInstance < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("Concurrency and attempts must be at least 1");
+        }
+        this.maxConcurrencyPerInstance = maxConcurrencyPerInstance;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.cache = cache;
+    }
+
+    /** One project on one Bitbucket instance, with the token used to read it. */
+    public static final class Target {
+        final String instanceUrl;
+        final String project;
+        final String token;
+
+        /**
+         * @param instanceUrl The instance base URL, e.g. {@code https://stash:8081}.
+         * @param project     The project key.
+         * @param token       A bearer token, or {@code null} if none was found; the target is then skipped.
+         */
+        public Target(String instanceUrl, String project, String token) {
+            this.instanceUrl = instanceUrl;
+            this.project = project;
+            this.token = token;
+        }
+
+        /** @return The per-target report name used by {@code pipeline.groovy}. */
+        String csvFileName() {
+            return "branch_counts_" + project + "_" + instanceUrl.replaceAll("[^a-zA-Z0-9]", "_") + ".csv";
+        }
+    }
+
+    /** The branches of one repository, counted by category. */
+    public static final class RepositoryCounts {
+        public final String repository;
+        int main, master, release, hotfix, feature;
+        private boolean unchanged;
+
+        RepositoryCounts(String repository) {
+            this.repository = repository;
+        }
+
+        void add(String branchName) {
+            if (branchName.equals("main")) {
+                main++;
+            } else if (branchName.equals("master")) {
+                master++;
+            } else if (branchName.startsWith("release/")) {
+                release++;
+            } else if (branchName.startsWith("hotfix/")) {
+                hotfix++;
+            } else {
+                feature++;
+            }
+        }
+
+        /** Counts the branches of one page as it arrives, without keeping them. */
+        void addAll(JSONArray branches) {
+            for (int i = 0; i < branches.length(); i++) {
+                add(branches.getJSONObject(i).getString("displayId"));
+            }
+        }
+
+        /** @return Whether the counts came from the snapshot because no branch page had changed. */
+        public boolean isUnchanged() {
+            return unchanged;
+        }
+
+        String counts() {
+            return main + "," + master + "," + release + "," + hotfix + "," + feature;
+        }
+
+        static RepositoryCounts parse(String repository, String counts) {
+            String[] fields = counts.split(",");
+            RepositoryCounts parsed = new RepositoryCounts(repository);
+            parsed.main = Integer.parseInt(fields[0]);
+            parsed.master = Integer.parseInt(fields[1]);
+            parsed.release = Integer.parseInt(fields[2]);
+            parsed.hotfix = Integer.parseInt(fields[3]);
+            parsed.feature = Integer.parseInt(fields[4]);
+            parsed.unchanged = true;
+            return parsed;
+        }
+
+        String toCsvRow(Target target) {
+            return key(target, repository) + "," + counts();
+        }
+
+        static String key(Target target, String repository) {
+            return target.instanceUrl + "," + target.project + "," + repository;
+        }
+    }
+
+    /**
+     * Crawls one target.
+     *
+     * @return The counts in repository listing order, empty if no repository could be listed.
+     */
+    public List<RepositoryCounts> crawl(Target target) {
+        List<RepositoryCounts> counts = new ArrayList<>();
+        for (CompletableFuture<RepositoryCounts> repository : start(target).join()) {
+            counts.add(repository.join());
+        }
+        return counts;
+    }
+
+    /**
+     * Crawls all targets concurrently and writes a report per target plus
+     * {@value #CONSOLIDATED_CSV} into {@code directory}, as {@code pipeline.groovy} does.
+     * Targets without a token or without repositories get no report of their own.
+     * <p>
+     * Each row is flushed to both reports as soon as its repository and all earlier ones are
+     * counted, so the reports hold every finished row if the run fails part way.
+     * </p>
+     */
+    public void writeReports(List<Target> targets, Path directory) throws IOException {
+        List<CompletableFuture<List<CompletableFuture<RepositoryCounts>>>> crawls = new ArrayList<>();
+        for (Target target : targets) {
+            crawls.add(target.token == null ? null : start(target));
+        }
+
+        try (Writer allCsv = Files.newBufferedWriter(directory.resolve(CONSOLIDATED_CSV), StandardCharsets.UTF_8)) {
+            allCsv.write(CSV_HEADER);
+            for (int i = 0; i < targets.size(); i++) {
+                Target target = targets.get(i);
+                if (crawls.get(i) == null) {
+                    System.out.println("WARNING: No access token found for project " + target.project + " on "
+                            + target.instanceUrl + ". Skipping.");
+                    continue;
+                }
+                List<CompletableFuture<RepositoryCounts>> repositories = crawls.get(i).join();
+                if (repositories.isEmpty()) {
+                    System.out.println("WARNING: No repositories found in project " + target.project + " on "
+                            + target.instanceUrl + " or failed to fetch data.");
+                    continue;
+                }
+
+                try (Writer csv = Files.newBufferedWriter(directory.resolve(target.csvFileName()), StandardCharsets.UTF_8)) {
+                    csv.write(CSV_HEADER);
+                    for (CompletableFuture<RepositoryCounts> repository : repositories) {
+                        String row = "\n" + repository.join().toCsvRow(target);
+                        csv.write(row);
+                        csv.flush();
+                        allCsv.write(row);
+                        allCsv.flush();
+                    }
+                }
+                System.out.println("CSV file '" + target.csvFileName() + "' created successfully.");
+            }
+        } finally {
+            if (cache != null) {
+                cache.writeSnapshot();
+            }
+        }
+        System.out.println("Consolidated CSV file '" + CONSOLIDATED_CSV + "' created successfully.");
+    }
+
+    /**
+     * Lists the repositories of a target on its instance's pool, submitting each repository's
+     * branch count as soon as its listing page arrives. Tasks never wait on each other, so a
+     * bounded pool cannot deadlock; only the caller joins.
+     */
+    private CompletableFuture<List<CompletableFuture<RepositoryCounts>>> start(Target target) {
+        ExecutorService executor = executor(target.instanceUrl);
+        String reposUrl = target.instanceUrl + "/rest/api/1.0/projects/" + target.project + "/repos";
+        return CompletableFuture.supplyAsync(() -> {
+            List<CompletableFuture<RepositoryCounts>> repositories = new ArrayList<>();
+            forEachPage(target, reposUrl, page -> {
+                JSONArray values = page.values();
+                for (int i = 0; i < values.length(); i++) {
+                    String slug = values.getJSONObject(i).getString("slug");
+                    repositories.add(CompletableFuture.supplyAsync(() -> countBranches(target, slug), executor));
+                }
+            });
+            return repositories;
+        }, executor);
+    }
+
+    private RepositoryCounts countBranches(Target target, String slug) {
+        String branchesUrl = target.instanceUrl + "/rest/api/1.0/projects/" + target.project + "/repos/" + slug + "/branches";
+        RepositoryCounts counts = new RepositoryCounts(slug);
+        List<Page> notModified = new ArrayList<>();
+        AtomicBoolean changed = new AtomicBoolean();
+        boolean complete = forEachPage(target, branchesUrl, page -> {
+            if (page.isNotModified()) {
+                notModified.add(page); // Only read if another page turns out to have changed
+            } else {
+                changed.set(true);
+                counts.addAll(page.values());
+            }
+        });
+
+        String key = RepositoryCounts.key(target, slug);
+        String previous = cache == null ? null : cache.snapshotCounts(key);
+        // Unchanged only if the whole listing was fetched, and every page of it was a 304
+        if (complete && !changed.get() && previous != null) {
+            return RepositoryCounts.parse(slug, previous);
+        }
+        for (Page page : notModified) {
+            counts.addAll(page.values());
+        }
+        if (cache != null) {
+            if (complete) {
+                cache.updateSnapshot(key, counts.counts());
+            } else {
+                // Like the pipeline, a failed listing counts the pages fetched before the failure.
+                // Those may have refreshed cached pages, so the old counts no longer match them.
+                cache.removeSnapshot(key);
+            }
+        }
+        return counts;
+    }
+
+    /** A fetched page, or the cached copy of one the server reported as not modified. */
+    private static final class Page {
+        private JSONObject json;
+        private final BitbucketResponseCache.Entry cached;
+
+        Page(JSONObject json, BitbucketResponseCache.Entry cached) {
+            this.json = json;
+            this.cached = cached;
+        }
+
+        boolean isNotModified() {
+            return json == null;
+        }
+
+        JSONArray values() {
+            if (json == null) {
+                try {
+                    json = cached.page();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return json.getJSONArray("values");
+        }
+
+        /** @return The start of the next page, or -1 after the last one. */
+        int nextPageStart() {
+            if (json == null) return cached.nextPageStart;
+            return json.optBoolean("isLastPage", true) ? -1 : json.optInt("nextPageStart", 0);
+        }
+    }
+
+    /**
+     * Fetches the pages of a paged resource in order, stopping at the last one or the first failure.
+     *
+     * @return {@code true} if every page was fetched, {@code false} if a failure cut the listing short.
+     */
+    private boolean forEachPage(Target target, String baseUrl, Consumer<Page> action) {
+        int start = 0;
+        while (true) {
+            String url = baseUrl + "?start=" + start + "&limit=" + PAGE_LIMIT;
+            Page page;
+            try {
+                page = get(target, url);
+            } catch (IOException e) {
+                System.out.println("ERROR: Failed to fetch data from " + url + ": " + e.getMessage());
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+
+            action.accept(page);
+            int next = page.nextPageStart();
+            if (next <= start) return true;
+            start = next;
+        }
+    }
+
+    private Page get(Target target, String url) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + target.token)
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .GET();
+        BitbucketResponseCache.Entry cached = cache == null ? null : cache.read(url);
+        if (cached != null) {
+            if (!cached.etag.isEmpty()) builder.header("If-None-Match", cached.etag);
+            if (!cached.lastModified.isEmpty()) builder.header("If-Modified-Since", cached.lastModified);
+        }
+        HttpRequest request = builder.build();
+
+        long backoff = initialBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<String> response = null;
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                if (attempt >= maxAttempts) throw e;
+            }
+
+            long wait = backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            if (response != null) {
+                int status = response.statusCode();
+                if (status == 200) {
+                    JSONObject json = new JSONObject(response.body());
+                    store(url, response, json);
+                    return new Page(json, null);
+                }
+                if (status == 304 && cached != null) {
+                    return new Page(null, cached);
+                }
+                if ((status != 429 && status < 500) || attempt >= maxAttempts) {
+                    throw new IOException("Response Code: " + status);
+                }
+                wait = Math.max(wait, response.headers().firstValue("Retry-After")
+                        .map(BitbucketBranchCrawler::retryAfterMillis).orElse(0L));
+            }
+            Thread.sleep(wait);
+            backoff *= 2;
+        }
+    }
+
+    private void store(String url, HttpResponse<String> response, JSONObject json) throws IOException {
+        if (cache == null) return;
+        String etag = response.headers().firstValue("ETag").orElse("");
+        String lastModified = response.headers().firstValue("Last-Modified").orElse("");
+        if (etag.isEmpty() && lastModified.isEmpty()) return;
+        int next = json.optBoolean("isLastPage", true) ? -1 : json.optInt("nextPageStart", 0);
+        cache.write(url, etag, lastModified, next, response.body());
+    }
+
+    private static long retryAfterMillis(String seconds) {
+        try {
+            return Long.parseLong(seconds.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            return 0; // An HTTP date; fall back to the computed backoff
+        }
+    }
+
+    private ExecutorService executor(String instanceUrl) {
+        return executors.computeIfAbsent(instanceUrl, url -> Executors.newFixedThreadPool(maxConcurrencyPerInstance, task -> {
+            Thread thread = new Thread(task, "bitbucket-crawler");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @Override
+    public void close() {
+        executors.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    /**
+     * Usage: {@code BitbucketBranchCrawler [--cache dir] proj1=https://stash:8081,https://stash:8082 proj2=https://stash:8082}
+     * <p>
+     * Tokens are read from the environment with the naming convention of {@code pipeline.groovy}:
+     * {@code BB_TOKEN_<project>} for instances on port 8081, {@code BB_TOKEN_<project>_<port>} otherwise.
+     * </p>
+     */
+    public static void main(String[] args) throws IOException {
+        List<Target> targets = new ArrayList<>();
+        Path cacheDirectory = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--cache") && i + 1 < args.length) {
+                cacheDirectory = Paths.get(args[++i]);
+                continue;
+            }
+            String project = arg.substring(0, arg.indexOf('='));
+            for (String instance : arg.substring(arg.indexOf('=') + 1).split(",")) {
+                String port = instance.substring(instance.lastIndexOf(':') + 1);
+                String tokenKey = port.equals("8081") ? "BB_TOKEN_" + project : "BB_TOKEN_" + project + "_" + port;
+                targets.add(new Target(instance, project, System.getenv(tokenKey)));
+            }
+        }
+
+        try (BitbucketBranchCrawler crawler = cacheDirectory == null
+                ? new BitbucketBranchCrawler(8, 4, Duration.ofMillis(500))
+                : new BitbucketBranchCrawler(8, 4, Duration.ofMillis(500), cacheDirectory)) {
+            crawler.writeReports(targets, Paths.get("."));
+        }
+    }
+}
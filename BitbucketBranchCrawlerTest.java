@@ -0,0 +1,278 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@code BitbucketBranchCrawler} against a local stub of the Bitbucket paged REST API.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Repository and branch listings are followed across pages.</li>
+ *     <li>The reports match the rows and layout {@code pipeline.groovy} writes.</li>
+ *     <li>Server errors are retried and requests stay within the concurrency limit.</li>
+ *     <li>Rows finished before a failure are already in the reports.</li>
+ *     <li>With a cache, unchanged repositories are answered by {@code 304} and taken from the snapshot.</li>
+ *     <li>A listing cut short by a failure is never taken from the snapshot, now or in the next run.</li>
+ * </ul>
+ * </p>
+ */
+public class BitbucketBranchCrawlerTest {
+
+    private static final int PAGE_SIZE = 3;
+    private static final List<String> REPOSITORIES = Arrays.asList("alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta");
+
+    private HttpServer server;
+    private String instanceUrl;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Map<String, Integer> failuresLeft = new ConcurrentHashMap<>();
+    private final Map<String, Integer> extraBranches = new ConcurrentHashMap<>();
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private volatile String malformedPath;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rest/api/1.0/projects/PRJ/repos", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.start();
+        instanceUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    /** Branches of the repository at {@code index}: a mix of every category, more for later repositories. */
+    private static List<String> branches(int index) {
+        List<String> branches = new ArrayList<>();
+        if (index % 2 == 0) branches.add("main");
+        if (index % 3 == 0) branches.add("master");
+        for (int i = 0; i < index; i++) branches.add("release/" + i);
+        for (int i = 0; i < index % 4; i++) branches.add("hotfix/" + i);
+        for (int i = 0; i < 2 * index + 1; i++) branches.add("feature/f" + i);
+        return branches;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            Thread.sleep(5);
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals(malformedPath)) {
+                respond(exchange, 200, "{\"values\": [");
+                return;
+            }
+            if (failuresLeft.merge(path, -1, Integer::sum) >= 0) {
+                respond(exchange, 503, "{}");
+                return;
+            }
+            String[] parts = path.split("/");
+            List<String> values = new ArrayList<>();
+            if (parts[parts.length - 1].equals("branches")) {
+                String repository = parts[parts.length - 2];
+                List<String> branches = branches(REPOSITORIES.indexOf(repository));
+                for (int i = 0; i < extraBranches.getOrDefault(repository, 0); i++) branches.add("feature/extra" + i);
+                for (String branch : branches) {
+                    values.add("{\"displayId\":\"" + branch + "\",\"id\":\"refs/heads/" + branch + "\"}");
+                }
+            } else {
+                for (String repository : REPOSITORIES) {
+                    values.add("{\"slug\":\"" + repository + "\",\"name\":\"" + repository + "\"}");
+                }
+            }
+            String body = page(values, exchange.getRequestURI().getQuery());
+            String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+            exchange.getResponseHeaders().add("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            fullResponses.incrementAndGet();
+            respond(exchange, 200, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /** Serves at most {@link #PAGE_SIZE} values from {@code start}, whatever limit was asked for. */
+    private static String page(List<String> values, String query) {
+        int start = Integer.parseInt(query.replaceAll(".*start=(\\d+).*", "$1"));
+        int end = Math.min(values.size(), start + PAGE_SIZE);
+        boolean last = end == values.size();
+        return "{\"size\":" + (end - start) + ",\"limit\":" + PAGE_SIZE + ",\"isLastPage\":" + last
+                + ",\"start\":" + start + (last ? "" : ",\"nextPageStart\":" + end)
+                + ",\"values\":[" + String.join(",", values.subList(start, end)) + "]}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String expectedCsv() {
+        StringBuilder csv = new StringBuilder(BitbucketBranchCrawler.CSV_HEADER);
+        for (int i = 0; i < REPOSITORIES.size(); i++) {
+            int main = 0, master = 0, release = 0, hotfix = 0, feature = extraBranches.getOrDefault(REPOSITORIES.get(i), 0);
+            for (String branch : branches(i)) {
+                if (branch.equals("main")) main++;
+                else if (branch.equals("master")) master++;
+                else if (branch.startsWith("release/")) release++;
+                else if (branch.startsWith("hotfix/")) hotfix++;
+                else feature++;
+            }
+            csv.append('\n').append(instanceUrl).append(",PRJ,").append(REPOSITORIES.get(i)).append(',')
+                    .append(main).append(',').append(master).append(',').append(release).append(',')
+                    .append(hotfix).append(',').append(feature);
+        }
+        return csv.toString();
+    }
+
+    @Test
+    public void testReportsMatchPipelineLayout() throws IOException {
+        List<BitbucketBranchCrawler.Target> targets = Arrays.asList(
+                new BitbucketBranchCrawler.Target(instanceUrl, "PRJ", "token"),
+                new BitbucketBranchCrawler.Target(instanceUrl, "NOTOKEN", null));
+        try (BitbucketBranchCrawler crawler = new BitbucketBranchCrawler(4, 3, Duration.ofMillis(1))) {
+            crawler.writeReports(targets, directory);
+        }
+
+        String perTarget = "branch_counts_PRJ_" + instanceUrl.replaceAll("[^a-zA-Z0-9]", "_") + ".csv";
+        assertEquals(expectedCsv(), Files.readString(directory.resolve(perTarget)));
+        assertEquals(expectedCsv(), Files.readString(directory.resolve(BitbucketBranchCrawler.CONSOLIDATED_CSV)));
+        assertFalse(Files.exists(directory.resolve("branch_counts_NOTOKEN_" + instanceUrl.replaceAll("[^a-zA-Z0-9]", "_") + ".csv")));
+    }
+
+    @Test
+    public void testRetriesServerErrorsWithinConcurrencyLimit() {
+        failuresLeft.put("/rest/api/1.0/projects/PRJ/repos", 1);
+        failuresLeft.put("/rest/api/1.0/projects/PRJ/repos/delta/branches", 2);
+
+        List<BitbucketBranchCrawler.RepositoryCounts> counts;
+        try (BitbucketBranchCrawler crawler = new BitbucketBranchCrawler(2, 3, Duration.ofMillis(1))) {
+            counts = crawler.crawl(new BitbucketBranchCrawler.Target(instanceUrl, "PRJ", "token"));
+        }
+
+        assertEquals(REPOSITORIES.size(), counts.size());
+        for (int i = 0; i < counts.size(); i++) {
+            assertEquals(REPOSITORIES.get(i), counts.get(i).repository);
+        }
+        BitbucketBranchCrawler.RepositoryCounts delta = counts.get(3);
+        assertEquals(branches(3).size(), delta.main + delta.master + delta.release + delta.hotfix + delta.feature);
+        assertTrue(maxInFlight.get() <= 2, "At most 2 requests in flight, saw " + maxInFlight.get());
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        failuresLeft.put("/rest/api/1.0/projects/PRJ/repos", 5);
+
+        try (BitbucketBranchCrawler crawler = new BitbucketBranchCrawler(2, 3, Duration.ofMillis(1))) {
+            assertTrue(crawler.crawl(new BitbucketBranchCrawler.Target(instanceUrl, "PRJ", "token")).isEmpty());
+        }
+    }
+
+    @Test
+    public void testKeepsFinishedRowsWhenRunFails() throws IOException {
+        malformedPath = "/rest/api/1.0/projects/PRJ/repos/delta/branches";
+        List<BitbucketBranchCrawler.Target> targets = Arrays.asList(new BitbucketBranchCrawler.Target(instanceUrl, "PRJ", "token"));
+
+        try (BitbucketBranchCrawler crawler = new BitbucketBranchCrawler(4, 3, Duration.ofMillis(1))) {
+            assertThrows(RuntimeException.class, () -> crawler.writeReports(targets, directory));
+        }
+
+        String[] expected = expectedCsv().split("\n");
+        String partial = String.join("\n", Arrays.copyOf(expected, 4));
+        assertEquals(partial, Files.readString(directory.resolve(BitbucketBranchCrawler.CONSOLIDATED_CSV)));
+    }
+
+    @Test
+    public void testCacheSkipsUnchangedRepositories() throws IOException {
+        List<BitbucketBranchCrawler.Target> targets = Arrays.asList(new BitbucketBranchCrawler.Target(instanceUrl, "PRJ", "token"));
+        Path cache = directory.resolve("cache");
+        try (BitbucketBranchCrawler crawler = new BitbucketBranchCrawler(4, 3, Duration.ofMillis(1), cache)) {
+            crawler.writeReports(targets, directory);
+        }
+        assertTrue(fullResponses.get() > REPOSITORIES.size());
+
+        fullResponses.set(0);
+        extraBranches.put("gamma", 150);
+        List<BitbucketBranchCrawler.RepositoryCounts> counts;
+        try (BitbucketBranchCrawler crawler = new BitbucketBranchCrawler(4, 3, Duration.ofMillis(1), cache)) {
+            counts = crawler.crawl(targets.get(0));
+            crawler.writeReports(targets, directory);
+        }
+
+        for (BitbucketBranchCrawler.RepositoryCounts repository : counts) {
+            assertEquals(!repository.repository.equals("gamma"), repository.isUnchanged());
+        }
+        // The new branches sort last, so only gamma's pages from the first partly filled one on are refetched
+        int gammaPages = (branches(2).size() + 150 + PAGE_SIZE - 1) / PAGE_SIZE;
+        assertEquals(gammaPages - branches(2).size() / PAGE_SIZE, fullResponses.get());
+        assertEquals(expectedCsv(), Files.readString(directory.resolve(BitbucketBranchCrawler.CONSOLIDATED_CSV)));
+        String gammaRow = expectedCsv().split("\n")[3];
+        assertTrue(Files.readAllLines(cache.resolve(BitbucketResponseCache.SNAPSHOT)).contains(gammaRow));
+    }
+
+    @Test
+    public void testFailedListingDoesNotReuseSnapshot() throws IOException {
+        List<BitbucketBranchCrawler.Target> targets = Arrays.asList(new BitbucketBranchCrawler.Target(instanceUrl, "PRJ", "token"));
+        Path cache = directory.resolve("cache");
+        try (BitbucketBranchCrawler crawler = new BitbucketBranchCrawler(4, 3, Duration.ofMillis(1), cache)) {
+            crawler.writeReports(targets, directory);
+        }
+
+        // The first page of beta's branches fails every attempt, so nothing of it is fetched
+        failuresLeft.put("/rest/api/1.0/projects/PRJ/repos/beta/branches", 6);
+        List<BitbucketBranchCrawler.RepositoryCounts> counts;
+        try (BitbucketBranchCrawler crawler = new BitbucketBranchCrawler(4, 3, Duration.ofMillis(1), cache)) {
+            counts = crawler.crawl(targets.get(0));
+            crawler.writeReports(targets, directory);
+        }
+        BitbucketBranchCrawler.RepositoryCounts beta = counts.get(1);
+        assertFalse(beta.isUnchanged());
+        assertEquals(0, beta.main + beta.master + beta.release + beta.hotfix + beta.feature);
+        for (BitbucketBranchCrawler.RepositoryCounts repository : counts) {
+            assertEquals(!repository.repository.equals("beta"), repository.isUnchanged());
+        }
+
+        // Every page is a 304 again, but beta's counts are rebuilt from its cached pages
+        try (BitbucketBranchCrawler crawler = new BitbucketBranchCrawler(4, 3, Duration.ofMillis(1), cache)) {
+            counts = crawler.crawl(targets.get(0));
+            crawler.writeReports(targets, directory);
+        }
+        assertFalse(counts.get(1).isUnchanged());
+        assertEquals(expectedCsv(), Files.readString(directory.resolve(BitbucketBranchCrawler.CONSOLIDATED_CSV)));
+    }
+}
@@ -0,0 +1,131 @@
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The on-disk state that lets {@link BitbucketBranchCrawler} skip unchanged repositories.
+ * <p>
+ * For each page URL it keeps the validators the server sent ({@code ETag},
+ * {@code Last-Modified}), the page's {@code nextPageStart}, and the body. The validators and
+ * next start live in a small {@code .meta} file, so an unchanged page can be followed without
+ * reading its body. A snapshot file holds the branch counts of every repository from the
+ * previous run, in the CSV layout of the reports.
+ * </p>
+ */
+final class BitbucketResponseCache {
+
+    static final String SNAPSHOT = "snapshot.csv";
+
+    private final Path directory;
+    // "instance,project,repository" to "main,master,release,hotfix,feature"
+    private final Map<String, String> snapshot = new ConcurrentHashMap<>();
+
+    BitbucketResponseCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        Path snapshotFile = directory.resolve(SNAPSHOT);
+        if (Files.exists(snapshotFile)) {
+            List<String> lines = Files.readAllLines(snapshotFile, StandardCharsets.UTF_8);
+            for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+                int split = nthLastComma(line, 5);
+                if (split > 0) snapshot.put(line.substring(0, split), line.substring(split + 1));
+            }
+        }
+    }
+
+    /** A cached page. */
+    static final class Entry {
+        final String etag;
+        final String lastModified;
+        final int nextPageStart; // -1 on the last page
+        private final Path body;
+
+        Entry(String etag, String lastModified, int nextPageStart, Path body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.nextPageStart = nextPageStart;
+            this.body = body;
+        }
+
+        JSONObject page() throws IOException {
+            return new JSONObject(new String(Files.readAllBytes(body), StandardCharsets.UTF_8));
+        }
+    }
+
+    /** @return The cached page of {@code url}, or {@code null} if none was stored. */
+    Entry read(String url) throws IOException {
+        String name = fileName(url);
+        Path meta = directory.resolve(name + ".meta");
+        if (!Files.exists(meta)) return null;
+        List<String> lines = Files.readAllLines(meta, StandardCharsets.UTF_8);
+        if (lines.size() < 4 || !lines.get(0).equals(url)) return null;
+        return new Entry(lines.get(1), lines.get(2), Integer.parseInt(lines.get(3)), directory.resolve(name + ".json"));
+    }
+
+    /** Stores a page that came with at least one validator; the body is written before its metadata. */
+    void write(String url, String etag, String lastModified, int nextPageStart, String body) throws IOException {
+        String name = fileName(url);
+        replace(directory.resolve(name + ".json"), body);
+        replace(directory.resolve(name + ".meta"), url + "\n" + etag + "\n" + lastModified + "\n" + nextPageStart + "\n");
+    }
+
+    /** @return The counts of a repository from the previous run, or {@code null}. */
+    String snapshotCounts(String repositoryKey) {
+        return snapshot.get(repositoryKey);
+    }
+
+    void updateSnapshot(String repositoryKey, String counts) {
+        snapshot.put(repositoryKey, counts);
+    }
+
+    /** Forgets a repository's counts, so that the next run counts it from its pages. */
+    void removeSnapshot(String repositoryKey) {
+        snapshot.remove(repositoryKey);
+    }
+
+    /** Writes the snapshot, sorted so that it diffs well between runs. */
+    void writeSnapshot() throws IOException {
+        StringBuilder out = new StringBuilder(BitbucketBranchCrawler.CSV_HEADER);
+        for (Map.Entry<String, String> entry : new TreeMap<>(snapshot).entrySet()) {
+            out.append('\n').append(entry.getKey()).append(',').append(entry.getValue());
+        }
+        replace(directory.resolve(SNAPSHOT), out.toString());
+    }
+
+    private static void replace(Path file, String content) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp" + Thread.currentThread().getId());
+        Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int nthLastComma(String line, int n) {
+        int index = line.length();
+        for (int i = 0; i < n && index > 0; i++) {
+            index = line.lastIndexOf(',', index - 1);
+        }
+        return index;
+    }
+
+    private static String fileName(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit(digest[i] >> 4 & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every JVM", e);
+        }
+    }
+}
@@ -0,0 +1,1067 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A compressed set of {@code int} values in the style of Roaring bitmaps.
+ * <p>
+ * Values are treated as unsigned and split by their high 16 bits into chunks of 65536. Each
+ * non-empty chunk is stored in the smallest of three containers:
+ * <ul>
+ *     <li>an array container: up to 4096 sorted {@code char}s,</li>
+ *     <li>a bitmap container: 1024 {@code long} words,</li>
+ *     <li>a run container: sorted {@code (start, length - 1)} pairs, chosen by {@link #runOptimize()}.</li>
+ * </ul>
+ * {@link #and}, {@link #or} and {@link #andCardinality} work chunk by chunk and word by word, and
+ * {@code andCardinality} counts the common values without building a result.
+ * </p>
+ * <p>
+ * The serialized form is little-endian: a cookie, the container count, one {@code (key, type,
+ * length)} header per container, then the container payloads. {@link #deserialize} and
+ * {@link #read(Path)} copy every container onto the heap. {@link #map(Path)} instead keeps
+ * read-only array, bitmap and run views over the mapped file at their header offsets, so a
+ * mapped bitmap costs only its headers on the heap and is combined with others in place; a
+ * container is copied onto the heap only when a value is added to it. Instances are not
+ * thread-safe while being modified.
+ * </p>
+ */
+public final class CompressedBitmap {
+
+    /** The most values an array container holds before it becomes a bitmap. */
+    static final int ARRAY_MAX = 4096;
+
+    private static final int COOKIE = 0x314D4243; // "CBM1"
+    private static final int WORDS = 1024;
+    private static final char ARRAY = 0, BITMAP = 1, RUN = 2;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public CompressedBitmap() {
+        this(new char[4], new Container[4], 0);
+    }
+
+    private CompressedBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * @param values The values to add, in any order.
+     * @return A bitmap containing exactly those values.
+     */
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /** Adds a value to the set. */
+    public void add(int value) {
+        char high = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, 0, size, high);
+        if (index >= 0) {
+            containers[index] = containers[index].add((char) value);
+            return;
+        }
+
+        index = -index - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = high;
+        containers[index] = new HeapArrayContainer(new char[] {(char) value}, 1);
+        size++;
+    }
+
+    /** @return {@code true} if the value is in the set. */
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /** @return The number of values in the set. */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /** @return {@code true} if the set has no values. */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return A new bitmap with the values in both sets. */
+    public CompressedBitmap and(CompressedBitmap other) {
+        int capacity = Math.max(1, Math.min(size, other.size));
+        CompressedBitmap result = new CompressedBitmap(new char[capacity], new Container[capacity], 0);
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container common = containers[i].and(other.containers[j]);
+                if (common.cardinality() > 0) result.append(keys[i], common);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /** @return The number of values in both sets, without building the intersection. */
+    public long andCardinality(CompressedBitmap other) {
+        long cardinality = 0;
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i++].andCardinality(other.containers[j++]);
+            }
+        }
+        return cardinality;
+    }
+
+    /** @return A new bitmap with the values in either set. */
+    public CompressedBitmap or(CompressedBitmap other) {
+        int capacity = Math.max(1, size + other.size);
+        CompressedBitmap result = new CompressedBitmap(new char[capacity], new Container[capacity], 0);
+        int i = 0, j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i++].copy());
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j++].copy());
+            } else {
+                result.append(keys[i], containers[i++].or(other.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    /** Converts each container to a run container where that is smaller, and back where it is not. */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].runOptimize();
+        }
+    }
+
+    /** @return The values in ascending unsigned order. */
+    public int[] toArray() {
+        int[] values = new int[Math.toIntExact(cardinality())];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            position = containers[i].toArray(keys[i] << 16, values, position);
+        }
+        return values;
+    }
+
+    private void append(char key, Container container) {
+        keys[size] = key;
+        containers[size++] = container;
+    }
+
+    /** @return The number of bytes {@link #serialize} writes. */
+    public int serializedSize() {
+        int bytes = 8 + 8 * size;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].payloadBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the serialized form at the buffer's position and advances it.
+     *
+     * @param out A buffer with at least {@link #serializedSize()} bytes remaining.
+     */
+    public void serialize(ByteBuffer out) {
+        ByteBuffer buffer = out.slice().order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(COOKIE).putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putChar(keys[i]).putChar(containers[i].type()).putInt(containers[i].length());
+        }
+        for (int i = 0; i < size; i++) {
+            containers[i].writePayload(buffer);
+        }
+        out.position(out.position() + buffer.position());
+    }
+
+    /**
+     * Reads a serialized bitmap at the buffer's position and advances past it. Each container's
+     * payload is copied into a heap array.
+     *
+     * @param in A buffer holding the serialized form.
+     * @return The bitmap.
+     * @throws IllegalArgumentException if the buffer does not hold a serialized bitmap.
+     */
+    public static CompressedBitmap deserialize(ByteBuffer in) {
+        ByteBuffer buffer = in.slice().order(ByteOrder.LITTLE_ENDIAN);
+        CompressedBitmap bitmap = parse(buffer, true);
+        in.position(in.position() + buffer.position());
+        return bitmap;
+    }
+
+    /**
+     * Maps a file written with {@link #serialize} and returns a bitmap whose containers are
+     * read-only views of the mapping, so nothing is copied onto the heap. {@link #and},
+     * {@link #andCardinality} and {@link #or} read the mapped containers in place; adding a
+     * value copies only the container it lands in. The mapping stays valid after the file is
+     * closed, and the file must not be modified while the bitmap is in use.
+     *
+     * @param path The file.
+     * @return The bitmap.
+     * @throws IOException if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file does not hold a serialized bitmap.
+     */
+    public static CompressedBitmap map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parse(buffer.order(ByteOrder.LITTLE_ENDIAN), false);
+        }
+    }
+
+    /**
+     * Reads a file written with {@link #serialize} onto the heap, as {@link #deserialize} does,
+     * so the bitmap does not depend on the file afterwards.
+     *
+     * @param path The file.
+     * @return The bitmap.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file does not hold a serialized bitmap.
+     */
+    public static CompressedBitmap read(Path path) throws IOException {
+        return deserialize(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    /**
+     * Reads the serialized form from the start of a little-endian buffer and leaves its position
+     * after the last payload.
+     *
+     * @param copy {@code true} to copy the payloads onto the heap, {@code false} to view them in the buffer.
+     */
+    private static CompressedBitmap parse(ByteBuffer buffer, boolean copy) {
+        if (buffer.remaining() < 8 || buffer.getInt() != COOKIE) {
+            throw new IllegalArgumentException("Not a serialized CompressedBitmap");
+        }
+        int size = buffer.getInt();
+        if (size < 0 || size > (buffer.remaining() >> 3)) {
+            throw new IllegalArgumentException("Truncated CompressedBitmap: " + size + " containers");
+        }
+        char[] keys = new char[Math.max(1, size)];
+        char[] types = new char[size];
+        int[] lengths = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = buffer.getChar();
+            types[i] = buffer.getChar();
+            lengths[i] = buffer.getInt();
+        }
+
+        Container[] containers = new Container[Math.max(1, size)];
+        for (int i = 0; i < size; i++) {
+            int offset = buffer.position();
+            long bytes;
+            switch (types[i]) {
+                case ARRAY:  bytes = 2L * lengths[i]; break;
+                case BITMAP: bytes = 8L * WORDS; break;
+                case RUN:    bytes = 4L * lengths[i]; break;
+                default:     throw new IllegalArgumentException("Unknown container type: " + (int) types[i]);
+            }
+            if (lengths[i] < 0 || bytes > buffer.remaining()) {
+                throw new IllegalArgumentException("Truncated CompressedBitmap: container " + i);
+            }
+            switch (types[i]) {
+                case ARRAY:
+                    containers[i] = new BufferArrayContainer(buffer, offset, lengths[i]);
+                    break;
+                case BITMAP:
+                    containers[i] = new BufferBitmapContainer(buffer, offset, lengths[i]);
+                    break;
+                default:
+                    containers[i] = new BufferRunContainer(buffer, offset, lengths[i]);
+            }
+            if (copy) containers[i] = containers[i].copy();
+            buffer.position(offset + (int) bytes);
+        }
+        return new CompressedBitmap(keys, containers, size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompressedBitmap)) return false;
+        CompressedBitmap other = (CompressedBitmap) o;
+        return cardinality() == other.cardinality() && andCardinality(other) == cardinality();
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedBitmap{cardinality=" + cardinality() + ", containers=" + size + "}";
+    }
+
+    /** The values of one 65536-value chunk, as their low 16 bits. */
+    private abstract static class Container {
+        /** @return This container or a replacement that also holds the value. */
+        abstract Container add(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container runOptimize();
+
+        /** Writes {@code high | value} for each value from {@code position}; returns the next position. */
+        abstract int toArray(int high, int[] out, int position);
+
+        /** @return A modifiable heap container with the same values. */
+        abstract Container copy();
+
+        abstract char type();
+
+        /** @return The value count, run count or cardinality stored in the header. */
+        abstract int length();
+
+        abstract int payloadBytes();
+
+        abstract void writePayload(ByteBuffer buffer);
+
+        /** @return The smallest container for these values, given their number of runs. */
+        static Container smallest(Container container, int runs) {
+            int cardinality = container.cardinality();
+            int runBytes = 4 * runs;
+            int otherBytes = cardinality <= ARRAY_MAX ? 2 * cardinality : 8 * WORDS;
+            if (runBytes < otherBytes) {
+                return container instanceof RunContainer ? container : RunContainer.of(container, runs);
+            }
+            if (cardinality <= ARRAY_MAX) {
+                return container instanceof ArrayContainer ? container : container.toBitmap().toArrayContainer();
+            }
+            return container instanceof BitmapContainer ? container : container.toBitmap();
+        }
+
+        abstract BitmapContainer toBitmap();
+    }
+
+    /** Up to {@link #ARRAY_MAX} sorted values, read through {@link #value}. */
+    private abstract static class ArrayContainer extends Container {
+        int cardinality;
+
+        ArrayContainer(int cardinality) {
+            this.cardinality = cardinality;
+        }
+
+        abstract char value(int index);
+
+        @Override
+        boolean contains(char value) {
+            int lo = 0, hi = cardinality - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char found = value(mid);
+                if (found < value) {
+                    lo = mid + 1;
+                } else if (found > value) {
+                    hi = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality())];
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                int i = 0, j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    char a = value(i), b = array.value(j);
+                    if (a < b) {
+                        i++;
+                    } else if (a > b) {
+                        j++;
+                    } else {
+                        result[count++] = a;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(value(i))) result[count++] = value(i);
+                }
+            }
+            return new HeapArrayContainer(result, count);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                int i = 0, j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    char a = value(i), b = array.value(j);
+                    if (a < b) {
+                        i++;
+                    } else if (a > b) {
+                        j++;
+                    } else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(value(i))) count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (!(other instanceof ArrayContainer)) return other.or(this);
+
+            ArrayContainer array = (ArrayContainer) other;
+            char[] result = new char[cardinality + array.cardinality];
+            int i = 0, j = 0, count = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j >= array.cardinality || (i < cardinality && value(i) < array.value(j))) {
+                    result[count++] = value(i++);
+                } else if (i >= cardinality || value(i) > array.value(j)) {
+                    result[count++] = array.value(j++);
+                } else {
+                    result[count++] = value(i++);
+                    j++;
+                }
+            }
+            HeapArrayContainer union = new HeapArrayContainer(result, count);
+            return count <= ARRAY_MAX ? union : union.toBitmap();
+        }
+
+        @Override
+        Container runOptimize() {
+            int runs = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (i == 0 || value(i) != value(i - 1) + 1) runs++;
+            }
+            return smallest(this, runs);
+        }
+
+        @Override
+        int toArray(int high, int[] out, int position) {
+            for (int i = 0; i < cardinality; i++) {
+                out[position++] = high | value(i);
+            }
+            return position;
+        }
+
+        @Override
+        Container copy() {
+            char[] values = new char[cardinality];
+            for (int i = 0; i < cardinality; i++) {
+                values[i] = value(i);
+            }
+            return new HeapArrayContainer(values, cardinality);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                char value = value(i);
+                words[value >>> 6] |= 1L << value;
+            }
+            return new HeapBitmapContainer(words, cardinality);
+        }
+
+        @Override
+        char type() {
+            return ARRAY;
+        }
+
+        @Override
+        int length() {
+            return cardinality;
+        }
+
+        @Override
+        int payloadBytes() {
+            return 2 * cardinality;
+        }
+
+        @Override
+        void writePayload(ByteBuffer buffer) {
+            for (int i = 0; i < cardinality; i++) {
+                buffer.putChar(value(i));
+            }
+        }
+    }
+
+    private static final class HeapArrayContainer extends ArrayContainer {
+        char[] values;
+
+        HeapArrayContainer(char[] values, int cardinality) {
+            super(cardinality);
+            this.values = values;
+        }
+
+        @Override
+        char value(int index) {
+            return values[index];
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) return this;
+            if (cardinality == ARRAY_MAX) return toBitmap().add(value);
+
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+    }
+
+    /** A read-only view of an array payload in a serialized buffer; adding a value copies it onto the heap. */
+    private static final class BufferArrayContainer extends ArrayContainer {
+        private final ByteBuffer buffer;
+        private final int offset;
+
+        BufferArrayContainer(ByteBuffer buffer, int offset, int cardinality) {
+            super(cardinality);
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        @Override
+        char value(int index) {
+            return buffer.getChar(offset + 2 * index);
+        }
+
+        @Override
+        Container add(char value) {
+            return contains(value) ? this : copy().add(value);
+        }
+    }
+
+    /** 1024 words of one bit per value, read through {@link #word}. */
+    private abstract static class BitmapContainer extends Container {
+        int cardinality;
+
+        BitmapContainer(int cardinality) {
+            this.cardinality = cardinality;
+        }
+
+        abstract long word(int w);
+
+        @Override
+        boolean contains(char value) {
+            return (word(value >>> 6) & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) return other.and(this);
+
+            long[] result = new long[WORDS];
+            if (other instanceof BitmapContainer) {
+                BitmapContainer bitmap = (BitmapContainer) other;
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] = word(w) & bitmap.word(w);
+                }
+            } else {
+                RunContainer run = (RunContainer) other;
+                for (int r = 0; r < run.runs; r++) {
+                    int start = run.start(r), end = run.end(r);
+                    for (int w = start >>> 6; w <= end >>> 6; w++) {
+                        result[w] |= word(w) & rangeMask(w, start, end);
+                    }
+                }
+            }
+            return fromWords(result);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) return other.andCardinality(this);
+
+            int count = 0;
+            if (other instanceof BitmapContainer) {
+                BitmapContainer bitmap = (BitmapContainer) other;
+                for (int w = 0; w < WORDS; w++) {
+                    count += Long.bitCount(word(w) & bitmap.word(w));
+                }
+            } else {
+                RunContainer run = (RunContainer) other;
+                for (int r = 0; r < run.runs; r++) {
+                    int start = run.start(r), end = run.end(r);
+                    for (int w = start >>> 6; w <= end >>> 6; w++) {
+                        count += Long.bitCount(word(w) & rangeMask(w, start, end));
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words();
+            if (other instanceof BitmapContainer) {
+                BitmapContainer bitmap = (BitmapContainer) other;
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] |= bitmap.word(w);
+                }
+            } else if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.value(i);
+                    result[value >>> 6] |= 1L << value;
+                }
+            } else {
+                RunContainer run = (RunContainer) other;
+                for (int r = 0; r < run.runs; r++) {
+                    int start = run.start(r), end = run.end(r);
+                    for (int w = start >>> 6; w <= end >>> 6; w++) {
+                        result[w] |= rangeMask(w, start, end);
+                    }
+                }
+            }
+            return fromWords(result);
+        }
+
+        @Override
+        Container runOptimize() {
+            int runs = 0;
+            long previousTop = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = word(w);
+                // A run starts at each set bit whose lower neighbour is clear
+                runs += Long.bitCount(word & ~((word << 1) | previousTop));
+                previousTop = word >>> 63;
+            }
+            return smallest(this, runs);
+        }
+
+        @Override
+        int toArray(int high, int[] out, int position) {
+            for (int w = 0; w < WORDS; w++) {
+                long word = word(w);
+                while (word != 0) {
+                    out[position++] = high | (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return position;
+        }
+
+        ArrayContainer toArrayContainer() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = word(w);
+                while (word != 0) {
+                    values[count++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new HeapArrayContainer(values, count);
+        }
+
+        /** @return A new array of the words. */
+        long[] words() {
+            long[] words = new long[WORDS];
+            for (int w = 0; w < WORDS; w++) {
+                words[w] = word(w);
+            }
+            return words;
+        }
+
+        @Override
+        Container copy() {
+            return new HeapBitmapContainer(words(), cardinality);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return this;
+        }
+
+        @Override
+        char type() {
+            return BITMAP;
+        }
+
+        @Override
+        int length() {
+            return cardinality;
+        }
+
+        @Override
+        int payloadBytes() {
+            return 8 * WORDS;
+        }
+
+        @Override
+        void writePayload(ByteBuffer buffer) {
+            for (int w = 0; w < WORDS; w++) {
+                buffer.putLong(word(w));
+            }
+        }
+
+        /** @return A bitmap over the words, or an array container if they hold few values. */
+        static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            BitmapContainer bitmap = new HeapBitmapContainer(words, cardinality);
+            return cardinality <= ARRAY_MAX ? bitmap.toArrayContainer() : bitmap;
+        }
+
+        /** @return The bits of word {@code w} that fall in {@code [start, end]}. */
+        static long rangeMask(int w, int start, int end) {
+            long mask = -1L;
+            if (w == start >>> 6) mask &= -1L << start;
+            if (w == end >>> 6) mask &= -1L >>> (63 - (end & 63));
+            return mask;
+        }
+    }
+
+    private static final class HeapBitmapContainer extends BitmapContainer {
+        final long[] words;
+
+        HeapBitmapContainer(long[] words, int cardinality) {
+            super(cardinality);
+            this.words = words;
+        }
+
+        @Override
+        long word(int w) {
+            return words[w];
+        }
+
+        @Override
+        long[] words() {
+            return words.clone();
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+    }
+
+    /** A read-only view of a bitmap payload in a serialized buffer; adding a value copies it onto the heap. */
+    private static final class BufferBitmapContainer extends BitmapContainer {
+        private final ByteBuffer buffer;
+        private final int offset;
+
+        BufferBitmapContainer(ByteBuffer buffer, int offset, int cardinality) {
+            super(cardinality);
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        @Override
+        long word(int w) {
+            return buffer.getLong(offset + 8 * w);
+        }
+
+        @Override
+        Container add(char value) {
+            return contains(value) ? this : copy().add(value);
+        }
+    }
+
+    /** Sorted {@code (start, length - 1)} pairs, read through {@link #pair}. */
+    private abstract static class RunContainer extends Container {
+        final int runs;
+        final int cardinality;
+
+        RunContainer(int runs, int cardinality) {
+            this.runs = runs;
+            this.cardinality = cardinality;
+        }
+
+        static RunContainer of(Container container, int runs) {
+            char[] pairs = new char[2 * runs];
+            int[] values = new int[container.cardinality()];
+            container.toArray(0, values, 0);
+            int r = -1;
+            for (int i = 0; i < values.length; i++) {
+                if (i == 0 || values[i] != values[i - 1] + 1) {
+                    pairs[2 * ++r] = (char) values[i];
+                } else {
+                    pairs[2 * r + 1]++;
+                }
+            }
+            return new HeapRunContainer(pairs, runs);
+        }
+
+        /** @return Element {@code index} of the pairs: a start at even indices, a length minus one at odd ones. */
+        abstract char pair(int index);
+
+        int start(int run) {
+            return pair(2 * run);
+        }
+
+        int end(int run) {
+            return pair(2 * run) + pair(2 * run + 1);
+        }
+
+        @Override
+        Container add(char value) {
+            if (contains(value)) return this;
+            Container expanded = cardinality < ARRAY_MAX ? toBitmap().toArrayContainer() : toBitmap();
+            return expanded.add(value);
+        }
+
+        @Override
+        boolean contains(char value) {
+            int lo = 0, hi = runs - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start(mid) <= value) {
+                    if (value <= end(mid)) return true;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (!(other instanceof RunContainer)) return other.and(this);
+
+            RunContainer run = (RunContainer) other;
+            char[] result = new char[2 * (runs + run.runs)];
+            int count = 0, i = 0, j = 0;
+            while (i < runs && j < run.runs) {
+                int start = Math.max(start(i), run.start(j));
+                int end = Math.min(end(i), run.end(j));
+                if (start <= end) {
+                    result[2 * count] = (char) start;
+                    result[2 * count++ + 1] = (char) (end - start);
+                }
+                if (end(i) < run.end(j)) i++; else j++;
+            }
+            return smallest(new HeapRunContainer(result, count), count);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (!(other instanceof RunContainer)) return other.andCardinality(this);
+
+            RunContainer run = (RunContainer) other;
+            int count = 0, i = 0, j = 0;
+            while (i < runs && j < run.runs) {
+                int start = Math.max(start(i), run.start(j));
+                int end = Math.min(end(i), run.end(j));
+                if (start <= end) count += end - start + 1;
+                if (end(i) < run.end(j)) i++; else j++;
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) return other.or(this);
+            if (other instanceof ArrayContainer) return toBitmap().or(other).runOptimize();
+
+            RunContainer run = (RunContainer) other;
+            char[] result = new char[2 * (runs + run.runs)];
+            int count = 0, i = 0, j = 0;
+            while (i < runs || j < run.runs) {
+                int start, end;
+                if (j >= run.runs || (i < runs && start(i) <= run.start(j))) {
+                    start = start(i);
+                    end = end(i++);
+                } else {
+                    start = run.start(j);
+                    end = run.end(j++);
+                }
+                if (count > 0 && start <= result[2 * count - 2] + result[2 * count - 1] + 1) {
+                    int merged = Math.max(end, result[2 * count - 2] + result[2 * count - 1]);
+                    result[2 * count - 1] = (char) (merged - result[2 * count - 2]);
+                } else {
+                    result[2 * count] = (char) start;
+                    result[2 * count++ + 1] = (char) (end - start);
+                }
+            }
+            return smallest(new HeapRunContainer(result, count), count);
+        }
+
+        @Override
+        Container runOptimize() {
+            return smallest(this, runs);
+        }
+
+        @Override
+        int toArray(int high, int[] out, int position) {
+            for (int r = 0; r < runs; r++) {
+                for (int value = start(r), end = end(r); value <= end; value++) {
+                    out[position++] = high | value;
+                }
+            }
+            return position;
+        }
+
+        @Override
+        Container copy() {
+            char[] pairs = new char[2 * runs];
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] = pair(i);
+            }
+            return new HeapRunContainer(pairs, runs);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            long[] words = new long[WORDS];
+            for (int r = 0; r < runs; r++) {
+                int start = start(r), end = end(r);
+                for (int w = start >>> 6; w <= end >>> 6; w++) {
+                    words[w] |= BitmapContainer.rangeMask(w, start, end);
+                }
+            }
+            return new HeapBitmapContainer(words, cardinality);
+        }
+
+        @Override
+        char type() {
+            return RUN;
+        }
+
+        @Override
+        int length() {
+            return runs;
+        }
+
+        @Override
+        int payloadBytes() {
+            return 4 * runs;
+        }
+
+        @Override
+        void writePayload(ByteBuffer buffer) {
+            for (int i = 0; i < 2 * runs; i++) {
+                buffer.putChar(pair(i));
+            }
+        }
+    }
+
+    private static final class HeapRunContainer extends RunContainer {
+        final char[] pairs;
+
+        HeapRunContainer(char[] pairs, int runs) {
+            super(runs, cardinality(pairs, runs));
+            this.pairs = pairs;
+        }
+
+        private static int cardinality(char[] pairs, int runs) {
+            int cardinality = 0;
+            for (int r = 0; r < runs; r++) {
+                cardinality += pairs[2 * r + 1] + 1;
+            }
+            return cardinality;
+        }
+
+        @Override
+        char pair(int index) {
+            return pairs[index];
+        }
+    }
+
+    /** A read-only view of a run payload in a serialized buffer; adding a value copies it onto the heap. */
+    private static final class BufferRunContainer extends RunContainer {
+        private final ByteBuffer buffer;
+        private final int offset;
+
+        BufferRunContainer(ByteBuffer buffer, int offset, int runs) {
+            super(runs, cardinality(buffer, offset, runs));
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        private static int cardinality(ByteBuffer buffer, int offset, int runs) {
+            int cardinality = 0;
+            for (int r = 0; r < runs; r++) {
+                cardinality += buffer.getChar(offset + 4 * r + 2) + 1;
+            }
+            return cardinality;
+        }
+
+        @Override
+        char pair(int index) {
+            return buffer.getChar(offset + 2 * index);
+        }
+    }
+}
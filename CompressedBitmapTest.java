@@ -0,0 +1,197 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code CompressedBitmap} against a {@code HashSet} oracle.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Membership, cardinality and ascending unsigned order match the oracle.</li>
+ *     <li>{@code and}, {@code or} and {@code andCardinality} match the oracle for every pair of
+ *         array, bitmap and run containers.</li>
+ *     <li>Serialized bitmaps read back equal, from a buffer, a file read onto the heap and a mapped file.</li>
+ *     <li>Mapped bitmaps combine with heap and mapped bitmaps in place, copy a container only when a
+ *         value is added to it, and truncated files are rejected.</li>
+ * </ul>
+ * </p>
+ */
+public class CompressedBitmapTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Builds a set with a sparse chunk, a dense chunk, a chunk of long runs, and negative values,
+     * which sort last as unsigned. Each seed gives different values in the same chunks.
+     */
+    private static Set<Integer> randomSet(long seed) {
+        Random random = new Random(seed);
+        Set<Integer> values = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(random.nextInt(4 << 16));                    // Sparse: array containers
+        }
+        for (int i = 0; i < 30_000; i++) {
+            values.add((5 << 16) + random.nextInt(1 << 16));        // Dense: a bitmap container
+        }
+        for (int run = 0; run < 20; run++) {
+            int start = (7 << 16) + random.nextInt(60_000), length = 1 + random.nextInt(2000);
+            for (int value = start; value < start + length; value++) {
+                values.add(value);                                  // Runs, once run-optimized
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            values.add(-1 - random.nextInt(1 << 17));
+        }
+        return values;
+    }
+
+    private static CompressedBitmap bitmap(Set<Integer> values) {
+        return CompressedBitmap.of(values.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static int[] sorted(Set<Integer> values) {
+        return values.stream().sorted(Integer::compareUnsigned).mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    public void testMatchesOracle() {
+        Set<Integer> values = randomSet(1);
+        CompressedBitmap bitmap = bitmap(values);
+
+        assertEquals(values.size(), bitmap.cardinality());
+        assertArrayEquals(sorted(values), bitmap.toArray());
+        Random random = new Random(2);
+        for (int i = 0; i < 10_000; i++) {
+            int probe = random.nextBoolean() ? random.nextInt(8 << 16) : random.nextInt();
+            assertEquals(values.contains(probe), bitmap.contains(probe), "Value " + probe);
+        }
+
+        bitmap.runOptimize();
+        assertArrayEquals(sorted(values), bitmap.toArray());
+        assertTrue(new CompressedBitmap().isEmpty());
+    }
+
+    @Test
+    public void testSetOperationsMatchOracle() {
+        Set<Integer> left = randomSet(3), right = randomSet(4);
+        Set<Integer> intersection = new HashSet<>(left);
+        intersection.retainAll(right);
+        Set<Integer> union = new HashSet<>(left);
+        union.addAll(right);
+
+        // Every pairing of plain and run-optimized operands, so each container type meets each other
+        for (int variant = 0; variant < 4; variant++) {
+            CompressedBitmap a = bitmap(left), b = bitmap(right);
+            if ((variant & 1) != 0) a.runOptimize();
+            if ((variant & 2) != 0) b.runOptimize();
+
+            assertArrayEquals(sorted(intersection), a.and(b).toArray(), "Variant " + variant);
+            assertArrayEquals(sorted(union), a.or(b).toArray(), "Variant " + variant);
+            assertEquals(intersection.size(), a.andCardinality(b), "Variant " + variant);
+            assertEquals(intersection.size(), b.andCardinality(a), "Variant " + variant);
+            assertArrayEquals(sorted(left), a.toArray(), "Operands are left unchanged");
+        }
+    }
+
+    @Test
+    public void testSerializationRoundTrip() throws IOException {
+        Set<Integer> values = randomSet(5);
+        for (boolean optimized : new boolean[] {false, true}) {
+            CompressedBitmap bitmap = bitmap(values);
+            if (optimized) bitmap.runOptimize();
+
+            ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSize() + 3);
+            buffer.position(3);
+            bitmap.serialize(buffer);
+            assertEquals(buffer.capacity(), buffer.position());
+
+            buffer.position(3);
+            CompressedBitmap read = CompressedBitmap.deserialize(buffer);
+            assertEquals(buffer.capacity(), buffer.position());
+            assertEquals(bitmap, read);
+            assertArrayEquals(sorted(values), read.toArray());
+
+            Path file = directory.resolve("bitmap-" + optimized);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                buffer.position(3);
+                channel.write(buffer);
+            }
+            assertEquals(bitmap, CompressedBitmap.read(file));
+            CompressedBitmap mapped = CompressedBitmap.map(file);
+            assertArrayEquals(sorted(values), mapped.toArray());
+            mapped.add(-7);
+            assertTrue(mapped.contains(-7));
+            assertEquals(values.contains(-7), CompressedBitmap.map(file).contains(-7), "The file is not modified");
+        }
+        assertThrows(IllegalArgumentException.class, () -> CompressedBitmap.deserialize(ByteBuffer.allocate(16)));
+    }
+
+    private Path write(CompressedBitmap bitmap, String name) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSize());
+        bitmap.serialize(buffer);
+        buffer.flip();
+        Path file = directory.resolve(name);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(buffer);
+        }
+        return file;
+    }
+
+    @Test
+    public void testMappedSetOperationsMatchOracle() throws IOException {
+        Set<Integer> left = randomSet(6), right = randomSet(7);
+        Set<Integer> intersection = new HashSet<>(left);
+        intersection.retainAll(right);
+        Set<Integer> union = new HashSet<>(left);
+        union.addAll(right);
+
+        for (int variant = 0; variant < 4; variant++) {
+            CompressedBitmap a = bitmap(left), b = bitmap(right);
+            if ((variant & 1) != 0) a.runOptimize();
+            if ((variant & 2) != 0) b.runOptimize();
+            CompressedBitmap mappedA = CompressedBitmap.map(write(a, "a-" + variant));
+            CompressedBitmap mappedB = CompressedBitmap.map(write(b, "b-" + variant));
+
+            for (CompressedBitmap other : new CompressedBitmap[] {b, mappedB}) {
+                assertArrayEquals(sorted(intersection), mappedA.and(other).toArray(), "Variant " + variant);
+                assertArrayEquals(sorted(intersection), other.and(mappedA).toArray(), "Variant " + variant);
+                assertArrayEquals(sorted(union), mappedA.or(other).toArray(), "Variant " + variant);
+                assertEquals(intersection.size(), mappedA.andCardinality(other), "Variant " + variant);
+                assertEquals(intersection.size(), other.andCardinality(mappedA), "Variant " + variant);
+            }
+
+            // Results and mapped operands do not share storage
+            CompressedBitmap combined = mappedA.or(mappedB);
+            combined.add(-3);
+            assertEquals(left.contains(-3), mappedA.contains(-3));
+            mappedA.runOptimize();
+            assertArrayEquals(sorted(left), mappedA.toArray(), "Variant " + variant);
+        }
+    }
+
+    @Test
+    public void testTruncatedFileRejected() throws IOException {
+        CompressedBitmap bitmap = bitmap(randomSet(8));
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSize());
+        bitmap.serialize(buffer);
+        for (int length : new int[] {4, 8, 20, buffer.capacity() - 1}) {
+            Path file = directory.resolve("truncated-" + length);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(buffer.array(), 0, length));
+            }
+            assertThrows(IllegalArgumentException.class, () -> CompressedBitmap.map(file), "Length " + length);
+            assertThrows(IllegalArgumentException.class, () -> CompressedBitmap.read(file), "Length " + length);
+        }
+        assertTrue(CompressedBitmap.map(write(new CompressedBitmap(), "empty")).isEmpty());
+    }
+}
@@ -0,0 +1,260 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoublePredicate;
+import java.util.function.Predicate;
+
+/**
+ * Compiles a {@link Condition} tree once into an immutable evaluator, so repeated evaluations
+ * do not re-extract and reparse operator and value strings.
+ * <p>
+ * A condition matches when all of the following hold (an absent part is ignored):
+ * <ul>
+ *     <li>its own {@code criteria} matches,</li>
+ *     <li>every one of its {@code andConditions} matches,</li>
+ *     <li>at least one of its {@code orConditions} matches,</li>
+ *     <li>none of its {@code notConditions} match.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Compilation resolves each operator to an {@link Operator}, parses each value once (through
+ * {@link SemanticVersion#of} or {@code Double.parseDouble}), and orders the children of every
+ * group from cheapest to most expensive. Among equally cheap children, an AND tries the most
+ * selective operators first ({@code ==} before ranges before {@code !=}) and an OR tries them
+ * in the opposite order, so that short-circuiting kicks in as early as possible.
+ * </p>
+ */
+public final class ConditionCompiler {
+
+    private ConditionCompiler() {
+    }
+
+    /**
+     * Compiles a condition whose criteria values are semantic versions, e.g. {@code ">= 1.8.0"}.
+     * A wildcard value with {@code ==} or {@code !=} (e.g. {@code "== 1.2.*"}) is matched with
+     * {@link SemanticVersion#matchesWildcard}. A wildcard has no place in the version order, so it
+     * cannot be used with {@code <}, {@code <=}, {@code >} or {@code >=}.
+     *
+     * @param condition The condition tree to compile.
+     * @return A thread-safe predicate equivalent to the condition.
+     * @throws IllegalArgumentException if an operator or version in the tree is invalid, or a wildcard
+     *         value is used with an ordering operator.
+     */
+    public static Predicate<SemanticVersion> compile(Condition condition) {
+        return build(condition, VERSION).predicate;
+    }
+
+    /**
+     * Compiles a condition whose criteria values are numbers, e.g. {@code "<= 10"}.
+     *
+     * @param condition The condition tree to compile.
+     * @return A thread-safe predicate equivalent to the condition.
+     * @throws IllegalArgumentException if an operator or number in the tree is invalid.
+     */
+    public static DoublePredicate compileNumeric(Condition condition) {
+        return build(condition, NUMERIC).predicate;
+    }
+
+    /** A compiled node with the estimates used to order it among its siblings. */
+    private static final class Compiled<P> {
+        final P predicate;
+        final int cost;        // Number of leaf comparisons if nothing short-circuits
+        final int selectivity; // Lower is more likely to reject an input
+
+        Compiled(P predicate, int cost, int selectivity) {
+            this.predicate = predicate;
+            this.cost = cost;
+            this.selectivity = selectivity;
+        }
+    }
+
+    /** Builds leaves and groups of one evaluator type. */
+    private interface Combinators<P> {
+        P leaf(Operator operator, String value);
+
+        P always();
+
+        P allOf(List<P> parts);
+
+        P anyOf(List<P> parts);
+
+        P negate(P part);
+    }
+
+    private static <P> Compiled<P> build(Condition condition, Combinators<P> combinators) {
+        List<Compiled<P>> all = new ArrayList<>();
+
+        if (condition.criteria() != null) {
+            Operator operator = Operator.of(condition.extractOperatorFromCriteria());
+            P leaf = combinators.leaf(operator, condition.extractValueFromCriteria());
+            all.add(new Compiled<>(leaf, 1, selectivity(operator)));
+        }
+
+        if (condition.andConditions() != null) {
+            for (Condition child : condition.andConditions()) {
+                all.add(build(child, combinators));
+            }
+        }
+
+        if (condition.orConditions() != null && !condition.orConditions().isEmpty()) {
+            all.add(group(condition.orConditions(), combinators));
+        }
+
+        if (condition.notConditions() != null && !condition.notConditions().isEmpty()) {
+            Compiled<P> any = group(condition.notConditions(), combinators);
+            all.add(new Compiled<>(combinators.negate(any.predicate), any.cost, 2 - any.selectivity));
+        }
+
+        if (all.isEmpty()) {
+            return new Compiled<>(combinators.always(), 0, 2);
+        }
+        if (all.size() == 1) {
+            return all.get(0);
+        }
+
+        all.sort(Comparator.<Compiled<P>>comparingInt(c -> c.cost).thenComparingInt(c -> c.selectivity));
+        return new Compiled<>(combinators.allOf(predicates(all)), totalCost(all), 1);
+    }
+
+    /** Compiles children that are combined with OR. */
+    private static <P> Compiled<P> group(List<Condition> children, Combinators<P> combinators) {
+        List<Compiled<P>> any = new ArrayList<>();
+        for (Condition child : children) {
+            any.add(build(child, combinators));
+        }
+        if (any.size() == 1) {
+            return any.get(0);
+        }
+
+        any.sort(Comparator.<Compiled<P>>comparingInt(c -> c.cost).thenComparingInt(c -> -c.selectivity));
+        return new Compiled<>(combinators.anyOf(predicates(any)), totalCost(any), 1);
+    }
+
+    private static <P> List<P> predicates(List<Compiled<P>> compiled) {
+        List<P> predicates = new ArrayList<>(compiled.size());
+        for (Compiled<P> c : compiled) {
+            predicates.add(c.predicate);
+        }
+        return predicates;
+    }
+
+    private static <P> int totalCost(List<Compiled<P>> compiled) {
+        int cost = 0;
+        for (Compiled<P> c : compiled) {
+            cost += c.cost;
+        }
+        return cost;
+    }
+
+    private static int selectivity(Operator operator) {
+        switch (operator) {
+            case EQUAL:     return 0;
+            case NOT_EQUAL: return 2;
+            default:        return 1;
+        }
+    }
+
+    private static final Combinators<Predicate<SemanticVersion>> VERSION = new Combinators<Predicate<SemanticVersion>>() {
+        @Override
+        public Predicate<SemanticVersion> leaf(Operator operator, String valueStr) {
+            final SemanticVersion value = SemanticVersion.of(valueStr);
+            boolean wildcard = value.getMajor() == SemanticVersion.WILDCARD
+                    || value.getMinor() == SemanticVersion.WILDCARD
+                    || value.getPatch() == SemanticVersion.WILDCARD;
+            if (wildcard && operator != Operator.EQUAL && operator != Operator.NOT_EQUAL) {
+                throw new IllegalArgumentException("Wildcard version cannot be ordered: " + operator.symbol() + " " + valueStr);
+            }
+
+            switch (operator) {
+                case GREATER_THAN:          return v -> v.compareTo(value) > 0;
+                case GREATER_THAN_OR_EQUAL: return v -> v.compareTo(value) >= 0;
+                case LESS_THAN:             return v -> v.compareTo(value) < 0;
+                case LESS_THAN_OR_EQUAL:    return v -> v.compareTo(value) <= 0;
+                case EQUAL:                 return wildcard ? v -> v.matchesWildcard(value) : v -> v.compareTo(value) == 0;
+                default:                    return wildcard ? v -> !v.matchesWildcard(value) : v -> v.compareTo(value) != 0;
+            }
+        }
+
+        @Override
+        public Predicate<SemanticVersion> always() {
+            return v -> true;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Predicate<SemanticVersion> allOf(List<Predicate<SemanticVersion>> parts) {
+            final Predicate<SemanticVersion>[] array = parts.toArray(new Predicate[0]);
+            return v -> {
+                for (Predicate<SemanticVersion> part : array) {
+                    if (!part.test(v)) return false;
+                }
+                return true;
+            };
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Predicate<SemanticVersion> anyOf(List<Predicate<SemanticVersion>> parts) {
+            final Predicate<SemanticVersion>[] array = parts.toArray(new Predicate[0]);
+            return v -> {
+                for (Predicate<SemanticVersion> part : array) {
+                    if (part.test(v)) return true;
+                }
+                return false;
+            };
+        }
+
+        @Override
+        public Predicate<SemanticVersion> negate(Predicate<SemanticVersion> part) {
+            return part.negate();
+        }
+    };
+
+    private static final Combinators<DoublePredicate> NUMERIC = new Combinators<DoublePredicate>() {
+        @Override
+        public DoublePredicate leaf(Operator operator, String valueStr) {
+            final double value = Double.parseDouble(valueStr);
+
+            switch (operator) {
+                case GREATER_THAN:          return x -> x > value;
+                case GREATER_THAN_OR_EQUAL: return x -> x >= value;
+                case LESS_THAN:             return x -> x < value;
+                case LESS_THAN_OR_EQUAL:    return x -> x <= value;
+                case EQUAL:                 return x -> x == value;
+                default:                    return x -> x != value;
+            }
+        }
+
+        @Override
+        public DoublePredicate always() {
+            return x -> true;
+        }
+
+        @Override
+        public DoublePredicate allOf(List<DoublePredicate> parts) {
+            final DoublePredicate[] array = parts.toArray(new DoublePredicate[0]);
+            return x -> {
+                for (DoublePredicate part : array) {
+                    if (!part.test(x)) return false;
+                }
+                return true;
+            };
+        }
+
+        @Override
+        public DoublePredicate anyOf(List<DoublePredicate> parts) {
+            final DoublePredicate[] array = parts.toArray(new DoublePredicate[0]);
+            return x -> {
+                for (DoublePredicate part : array) {
+                    if (part.test(x)) return true;
+                }
+                return false;
+            };
+        }
+
+        @Override
+        public DoublePredicate negate(DoublePredicate part) {
+            return part.negate();
+        }
+    };
+}
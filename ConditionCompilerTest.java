@@ -0,0 +1,205 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.DoublePredicate;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code ConditionCompiler} against a direct interpretation of the condition tree.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Compiled version and numeric predicates agree with the interpretation on random trees,
+ *         with missing, empty and nested groups.</li>
+ *     <li>Wildcard values with {@code ==} and {@code !=} match by {@code matchesWildcard}.</li>
+ *     <li>Single criteria match at and around their boundaries, and wildcards with ordering operators are
+ *         rejected.</li>
+ *     <li>Empty groups are ignored, and invalid operators and values fail at compile time.</li>
+ * </ul>
+ * </p>
+ */
+public class ConditionCompilerTest {
+
+    private static final String[] OPERATORS = {">", ">=", "<", "<=", "==", "!="};
+    private static final String[] VALUES = {"1.0.0", "1.2.0", "1.2.0-rc.1", "1.5.3", "2.0.0", "1.*", "1.2.*", "2.*"};
+
+    /** Evaluates a condition by its documented meaning, reparsing every criteria. */
+    private static boolean evaluate(Condition condition, SemanticVersion version) {
+        if (condition.criteria() != null) {
+            Operator operator = Operator.of(condition.extractOperatorFromCriteria());
+            SemanticVersion value = new SemanticVersion(condition.extractValueFromCriteria());
+            boolean wildcard = value.getMajor() == SemanticVersion.WILDCARD || value.getMinor() == SemanticVersion.WILDCARD
+                    || value.getPatch() == SemanticVersion.WILDCARD;
+            boolean matches = wildcard
+                    ? version.matchesWildcard(value) == (operator == Operator.EQUAL)
+                    : operator.test(version.compareTo(value));
+            if (!matches) return false;
+        }
+        if (condition.andConditions() != null) {
+            for (Condition child : condition.andConditions()) {
+                if (!evaluate(child, version)) return false;
+            }
+        }
+        if (condition.orConditions() != null && !condition.orConditions().isEmpty()) {
+            boolean any = false;
+            for (Condition child : condition.orConditions()) {
+                any |= evaluate(child, version);
+            }
+            if (!any) return false;
+        }
+        if (condition.notConditions() != null) {
+            for (Condition child : condition.notConditions()) {
+                if (evaluate(child, version)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static Condition randomCondition(Random random, int depth, String[] values) {
+        String value = values[random.nextInt(values.length)];
+        // Wildcards only compare for (in)equality
+        String operator = value.contains("*") ? OPERATORS[4 + random.nextInt(2)] : OPERATORS[random.nextInt(OPERATORS.length)];
+        String criteria = random.nextInt(4) == 0 ? null : operator + " " + value;
+        if (depth == 0) {
+            return new Condition(criteria == null ? ">= " + values[0] : criteria);
+        }
+        return new Condition(criteria, children(random, depth, values), children(random, depth, values),
+                children(random, depth, values));
+    }
+
+    private static List<Condition> children(Random random, int depth, String[] values) {
+        int n = random.nextInt(3);
+        if (n == 0) return random.nextBoolean() ? null : Collections.emptyList();
+        List<Condition> children = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            children.add(randomCondition(random, depth - 1, values));
+        }
+        return children;
+    }
+
+    @Test
+    public void testVersionPredicateMatchesInterpretation() {
+        Random random = new Random(1);
+        List<SemanticVersion> versions = new ArrayList<>();
+        for (String version : new String[] {"0.9.0", "1.0.0", "1.0.1", "1.2.0-alpha", "1.2.0-rc.1", "1.2.0",
+                "1.2.7", "1.5.3", "1.5.3+build", "1.9.9", "2.0.0-rc.1", "2.0.0", "2.3.0", "3.0.0"}) {
+            versions.add(new SemanticVersion(version));
+        }
+        for (int tree = 0; tree < 500; tree++) {
+            Condition condition = randomCondition(random, 3, VALUES);
+            Predicate<SemanticVersion> compiled = ConditionCompiler.compile(condition);
+            for (SemanticVersion version : versions) {
+                assertEquals(evaluate(condition, version), compiled.test(version), condition + " on " + version);
+            }
+        }
+    }
+
+    @Test
+    public void testNumericPredicateMatchesInterpretation() {
+        Random random = new Random(2);
+        String[] values = {"0", "2.5", "10", "-3"};
+        double[] inputs = {-5, -3, 0, 1, 2.5, 3, 10, 11};
+        for (int tree = 0; tree < 500; tree++) {
+            Condition condition = randomCondition(random, 3, values);
+            DoublePredicate compiled = ConditionCompiler.compileNumeric(condition);
+            for (double input : inputs) {
+                assertEquals(evaluateNumeric(condition, input), compiled.test(input), condition + " on " + input);
+            }
+        }
+    }
+
+    private static boolean evaluateNumeric(Condition condition, double input) {
+        if (condition.criteria() != null) {
+            Operator operator = Operator.of(condition.extractOperatorFromCriteria());
+            if (!operator.test(Double.compare(input, Double.parseDouble(condition.extractValueFromCriteria())))) return false;
+        }
+        if (condition.andConditions() != null) {
+            for (Condition child : condition.andConditions()) {
+                if (!evaluateNumeric(child, input)) return false;
+            }
+        }
+        if (condition.orConditions() != null && !condition.orConditions().isEmpty()) {
+            boolean any = false;
+            for (Condition child : condition.orConditions()) {
+                any |= evaluateNumeric(child, input);
+            }
+            if (!any) return false;
+        }
+        if (condition.notConditions() != null) {
+            for (Condition child : condition.notConditions()) {
+                if (evaluateNumeric(child, input)) return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testWildcardsAndEmptyGroups() {
+        Predicate<SemanticVersion> inMinor = ConditionCompiler.compile(new Condition("== 1.2.*"));
+        assertTrue(inMinor.test(new SemanticVersion("1.2.0-alpha")));
+        assertTrue(inMinor.test(new SemanticVersion("1.2.99")));
+        assertFalse(inMinor.test(new SemanticVersion("1.3.0")));
+        assertTrue(ConditionCompiler.compile(new Condition("!= 1.*")).test(new SemanticVersion("2.0.0")));
+
+        Condition empty = new Condition(null, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        assertTrue(ConditionCompiler.compile(empty).test(new SemanticVersion("0.0.1")));
+        assertTrue(ConditionCompiler.compileNumeric(new Condition()).test(42));
+    }
+
+    @Test
+    public void testInvalidCriteriaFailAtCompileTime() {
+        assertThrows(IllegalArgumentException.class, () -> ConditionCompiler.compile(new Condition("=> 1.0.0")));
+        assertThrows(IllegalArgumentException.class, () -> ConditionCompiler.compile(new Condition(null,
+                Arrays.asList(new Condition(">= 1.0.0"), new Condition("< 1.x")), null, null)));
+        assertThrows(IllegalArgumentException.class, () -> ConditionCompiler.compileNumeric(new Condition("< ten")));
+    }
+
+    /**
+     * Tests a single criteria at and around its boundary.
+     *
+     * @param criteria The criteria.
+     * @param version  The version tested.
+     * @param expected Whether it matches.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        ">= 1.2.0, 1.2.0, true",
+        ">= 1.2.0, 1.2.0-rc.1, false",
+        "> 1.2.0, 1.2.0+build, false",
+        "> 1.2.0, 1.2.1-alpha, true",
+        "< 1.2.0, 1.2.0-rc.1, true",
+        "<= 1.2.0, 1.2.0+build, true",
+        "== 1.2.0, 1.2.0+build, true",
+        "!= 1.2.0, 1.2.0-0, true",
+        "== 1.2.*, 1.2.0-alpha, true",
+        "== 1.2.*, 1.3.0-alpha, false",
+        "!= *, 0.0.0, false",
+        "== 0.0.0, 0.0.0, true",
+        "> 2147483647.0.0, 2147483647.0.1, true"
+    })
+    public void testSingleCriteria(String criteria, String version, boolean expected) {
+        assertEquals(expected, ConditionCompiler.compile(new Condition(criteria)).test(new SemanticVersion(version)));
+    }
+
+    /**
+     * Tests that wildcards are rejected with ordering operators, also deep in a tree.
+     *
+     * @param criteria The criteria.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"> 1.*", ">= 1.2.*", "< *", "<= 2.*"})
+    public void testOrderedWildcardRejected(String criteria) {
+        assertThrows(IllegalArgumentException.class, () -> ConditionCompiler.compile(new Condition(criteria)));
+        assertThrows(IllegalArgumentException.class, () -> ConditionCompiler.compile(new Condition(null, null,
+                Arrays.asList(new Condition("== 1.0.0"), new Condition(null, null, null,
+                        Collections.singletonList(new Condition(criteria)))), null)));
+    }
+}
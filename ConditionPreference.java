@@ -0,0 +1,96 @@
+/**
+ * The selection logic of {@code preferLarger}, {@code preferSmaller},
+ * {@code preferConditionForLargerValue} and {@code preferConditionForSmallerValue}, from the
+ * operator and value strings of two criteria to the decision.
+ * <p>
+ * The methods on {@code Condition} extract the strings, call these and record their metrics, so
+ * benchmarks and tests can measure and check the same code without building conditions:
+ * <ul>
+ *     <li>Operators are resolved with {@link Operator#of}.</li>
+ *     <li>Versions are parsed through the shared {@link SemanticVersion#of} cache, numbers with
+ *         {@code Double.parseDouble}.</li>
+ *     <li>The pair is decided by {@link OperatorPreference#LARGER} or {@link OperatorPreference#SMALLER}.</li>
+ * </ul>
+ * </p>
+ */
+public final class ConditionPreference {
+
+    private ConditionPreference() {
+    }
+
+    /**
+     * Decides whether the second condition represents the larger version constraint.
+     *
+     * @param operator1 Operator of the first condition, e.g. {@code ">="}.
+     * @param value1    Version of the first condition, e.g. {@code "1.8.0"}.
+     * @param operator2 Operator of the second condition.
+     * @param value2    Version of the second condition.
+     * @return {@code true} if the second condition should be returned.
+     * @throws IllegalArgumentException if an operator or version is invalid.
+     */
+    public static boolean preferSecondLargerVersion(String operator1, String value1, String operator2, String value2) {
+        return preferSecondVersion(OperatorPreference.LARGER, operator1, value1, operator2, value2);
+    }
+
+    /**
+     * Decides whether the second condition represents the smaller version constraint.
+     *
+     * @param operator1 Operator of the first condition, e.g. {@code "<"}.
+     * @param value1    Version of the first condition, e.g. {@code "2.0.0-rc.1"}.
+     * @param operator2 Operator of the second condition.
+     * @param value2    Version of the second condition.
+     * @return {@code true} if the second condition should be returned.
+     * @throws IllegalArgumentException if an operator or version is invalid.
+     */
+    public static boolean preferSecondSmallerVersion(String operator1, String value1, String operator2, String value2) {
+        return preferSecondVersion(OperatorPreference.SMALLER, operator1, value1, operator2, value2);
+    }
+
+    /**
+     * Decides whether the second condition allows a larger number to pass.
+     *
+     * @param operator1 Operator of the first condition, e.g. {@code ">"}.
+     * @param value1    Number of the first condition, e.g. {@code "2.5"}.
+     * @param operator2 Operator of the second condition.
+     * @param value2    Number of the second condition.
+     * @return {@code true} if the second condition should be returned.
+     * @throws IllegalArgumentException if an operator or number is invalid.
+     */
+    public static boolean preferSecondLargerNumber(String operator1, String value1, String operator2, String value2) {
+        return preferSecondNumber(OperatorPreference.LARGER, operator1, value1, operator2, value2);
+    }
+
+    /**
+     * Decides whether the second condition allows a smaller number to pass.
+     *
+     * @param operator1 Operator of the first condition, e.g. {@code "<="}.
+     * @param value1    Number of the first condition, e.g. {@code "10"}.
+     * @param operator2 Operator of the second condition.
+     * @param value2    Number of the second condition.
+     * @return {@code true} if the second condition should be returned.
+     * @throws IllegalArgumentException if an operator or number is invalid.
+     */
+    public static boolean preferSecondSmallerNumber(String operator1, String value1, String operator2, String value2) {
+        return preferSecondNumber(OperatorPreference.SMALLER, operator1, value1, operator2, value2);
+    }
+
+    private static boolean preferSecondVersion(OperatorPreference preference,
+            String operator1, String value1, String operator2, String value2) {
+        Operator op1 = Operator.of(operator1);
+        Operator op2 = Operator.of(operator2);
+        // Cached, so repeated values are parsed once
+        SemanticVersion version1 = SemanticVersion.of(value1);
+        SemanticVersion version2 = SemanticVersion.of(value2);
+        return preference.preferSecond(op1, op2, version2.compareTo(version1));
+    }
+
+    private static boolean preferSecondNumber(OperatorPreference preference,
+            String operator1, String value1, String operator2, String value2) {
+        Operator op1 = Operator.of(operator1);
+        Operator op2 = Operator.of(operator2);
+        // NumberFormatException is an IllegalArgumentException
+        double number1 = Double.parseDouble(value1);
+        double number2 = Double.parseDouble(value2);
+        return preference.preferSecond(op1, op2, Double.compare(number2, number1));
+    }
+}
@@ -0,0 +1,84 @@
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code ConditionPreference}, the selection logic behind {@code preferLarger},
+ * {@code preferSmaller} and their numeric counterparts.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Versions are compared by precedence, so pre-releases are smaller and build metadata is ignored.</li>
+ *     <li>Numbers are compared by value, not as text.</li>
+ *     <li>Equal values fall back to the {@code OperatorPreference} tie rules.</li>
+ *     <li>Invalid operators, versions and numbers are rejected.</li>
+ * </ul>
+ * </p>
+ */
+public class ConditionPreferenceTest {
+
+    /**
+     * Tests version pairs.
+     *
+     * @param operator1 Operator of the first condition.
+     * @param value1    Version of the first condition.
+     * @param operator2 Operator of the second condition.
+     * @param value2    Version of the second condition.
+     * @param larger    Whether {@code preferSecondLargerVersion} prefers the second condition.
+     * @param smaller   Whether {@code preferSecondSmallerVersion} prefers the second condition.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        ">=, 1.2.0, >=, 1.10.0, true, false",
+        ">=, 1.8.0, >=, 1.8.0-beta, false, true",
+        "<, 2.0.0-rc.1, <, 2.0.0-rc.2, true, false",
+        "==, 1.2.0, ==, 1.2.0+build, false, false",
+        ">, 1.2.0, >=, 1.2.0, true, true",
+        "<=, 1.2.0, <, 1.2.0, false, false",
+        "!=, 1.2.0, >=, 1.2.0, true, false"
+    })
+    public void testVersions(String operator1, String value1, String operator2, String value2, boolean larger, boolean smaller) {
+        assertEquals(larger, ConditionPreference.preferSecondLargerVersion(operator1, value1, operator2, value2));
+        assertEquals(smaller, ConditionPreference.preferSecondSmallerVersion(operator1, value1, operator2, value2));
+    }
+
+    /**
+     * Tests number pairs.
+     *
+     * @param operator1 Operator of the first condition.
+     * @param value1    Number of the first condition.
+     * @param operator2 Operator of the second condition.
+     * @param value2    Number of the second condition.
+     * @param larger    Whether {@code preferSecondLargerNumber} prefers the second condition.
+     * @param smaller   Whether {@code preferSecondSmallerNumber} prefers the second condition.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        ">, 9, >, 10, true, false",
+        "<, 2.5, <, -3, false, true",
+        ">=, 10, >=, 10.0, false, false",
+        ">, 10, >=, 10, true, true",
+        "<=, 0, <, 0, false, false",
+        "==, -0.5, !=, -0.5, true, true"
+    })
+    public void testNumbers(String operator1, String value1, String operator2, String value2, boolean larger, boolean smaller) {
+        assertEquals(larger, ConditionPreference.preferSecondLargerNumber(operator1, value1, operator2, value2));
+        assertEquals(smaller, ConditionPreference.preferSecondSmallerNumber(operator1, value1, operator2, value2));
+    }
+
+    /**
+     * Tests that an invalid operator or value is rejected, as either condition.
+     *
+     * @param operator The operator.
+     * @param version  The version, used with {@code operator}.
+     * @param number   The number, used with {@code operator}.
+     */
+    @ParameterizedTest
+    @CsvSource({"=>, 1.0.0, 1", "'', 1.0.0, 1", ">, 1.x, ten", ">, '', ''"})
+    public void testInvalidRejected(String operator, String version, String number) {
+        assertThrows(IllegalArgumentException.class, () -> ConditionPreference.preferSecondLargerVersion(operator, version, ">", "1.0.0"));
+        assertThrows(IllegalArgumentException.class, () -> ConditionPreference.preferSecondSmallerVersion(">", "1.0.0", operator, version));
+        assertThrows(IllegalArgumentException.class, () -> ConditionPreference.preferSecondLargerNumber(operator, number, ">", "1"));
+        assertThrows(IllegalArgumentException.class, () -> ConditionPreference.preferSecondSmallerNumber(">", "1", operator, number));
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collapses a whole {@link Condition} tree over semantic versions into a {@link VersionRangeSet}
+ * and emits a minimal equivalent {@code Condition}.
+ * <p>
+ * The tree has the same meaning as in {@link ConditionCompiler}: the criteria, all
+ * {@code andConditions}, at least one of the {@code orConditions}, and none of the
+ * {@code notConditions} must match. Each group becomes one linear merge of sorted intervals,
+ * instead of pairwise {@code preferLarger}/{@code preferSmaller} reductions. Contradictions such
+ * as {@code > 2.0.0 AND < 1.0.0} come out as {@linkplain VersionRangeSet#isEmpty() empty}, and
+ * constraints that admit everything as {@linkplain VersionRangeSet#isAll() all}.
+ * </p>
+ */
+public final class ConditionSimplifier {
+
+    private ConditionSimplifier() {
+    }
+
+    /**
+     * Computes the set of versions a condition tree admits.
+     *
+     * @param condition The condition tree; criteria values must be semantic versions.
+     * @return The normalized union of intervals.
+     * @throws IllegalArgumentException if an operator or version is invalid, or a wildcard is not a range.
+     */
+    public static VersionRangeSet simplify(Condition condition) {
+        VersionRangeSet result = VersionRangeSet.all();
+
+        if (condition.criteria() != null) {
+            Operator operator = Operator.of(condition.extractOperatorFromCriteria());
+            result = VersionRangeSet.of(operator, SemanticVersion.of(condition.extractValueFromCriteria()));
+        }
+
+        if (condition.andConditions() != null) {
+            for (Condition child : condition.andConditions()) {
+                if (result.isEmpty()) return result;
+                result = result.intersect(simplify(child));
+            }
+        }
+
+        if (condition.orConditions() != null && !condition.orConditions().isEmpty() && !result.isEmpty()) {
+            result = result.intersect(unionOf(condition.orConditions()));
+        }
+
+        if (condition.notConditions() != null && !condition.notConditions().isEmpty() && !result.isEmpty()) {
+            result = result.intersect(unionOf(condition.notConditions()).complement());
+        }
+
+        return result;
+    }
+
+    /**
+     * Simplifies a condition tree into a minimal equivalent condition.
+     *
+     * @param condition The condition tree to simplify.
+     * @return An equivalent condition; see {@link #toCondition(VersionRangeSet)}.
+     */
+    public static Condition simplifyCondition(Condition condition) {
+        return toCondition(simplify(condition));
+    }
+
+    /**
+     * Emits a minimal condition for a set of versions:
+     * <ul>
+     *     <li>every version: {@code == *}; no version: {@code != *},</li>
+     *     <li>a single version, or all but one: {@code == v} / {@code != v},</li>
+     *     <li>exactly a major or minor line, or all but one: {@code == 1.*} / {@code != 1.2.*},</li>
+     *     <li>one interval: a single bound, or a lower bound with the upper bound in {@code andConditions},</li>
+     *     <li>several intervals: one such condition per interval in {@code orConditions}.</li>
+     * </ul>
+     *
+     * @param set The versions to describe.
+     * @return A condition admitting exactly those versions.
+     */
+    public static Condition toCondition(VersionRangeSet set) {
+        if (set.isAll()) return new Condition("== *");
+        if (set.isEmpty()) return new Condition("!= *");
+
+        if (set.intervalCount() == 1) {
+            return intervalCondition(set.lowerBounds().get(0), set.upperBounds().get(0));
+        }
+
+        VersionRangeSet complement = set.complement();
+        if (complement.intervalCount() == 1) {
+            String excluded = pointOrLine(complement.lowerBounds().get(0), complement.upperBounds().get(0));
+            if (excluded != null) return new Condition("!= " + excluded);
+        }
+
+        List<Condition> intervals = new ArrayList<>();
+        for (int i = 0; i < set.intervalCount(); i++) {
+            intervals.add(intervalCondition(set.lowerBounds().get(i), set.upperBounds().get(i)));
+        }
+        return new Condition(null, null, intervals, null);
+    }
+
+    private static VersionRangeSet unionOf(List<Condition> children) {
+        VersionRangeSet union = VersionRangeSet.empty();
+        for (Condition child : children) {
+            union = union.union(simplify(child));
+            if (union.isAll()) break;
+        }
+        return union;
+    }
+
+    private static Condition intervalCondition(VersionRangeSet.Cut lower, VersionRangeSet.Cut upper) {
+        String exact = pointOrLine(lower, upper);
+        if (exact != null) return new Condition("== " + exact);
+
+        if (lower == VersionRangeSet.Cut.BELOW_ALL) return new Condition(upperCriteria(upper));
+        if (upper == VersionRangeSet.Cut.ABOVE_ALL) return new Condition(lowerCriteria(lower));
+        return new Condition(lowerCriteria(lower), Collections.singletonList(new Condition(upperCriteria(upper))), null, null);
+    }
+
+    /**
+     * @return The version or wildcard pattern that {@code [lower, upper)} matches exactly,
+     *         or {@code null} if it is not a single version or a whole major/minor line.
+     */
+    private static String pointOrLine(VersionRangeSet.Cut lower, VersionRangeSet.Cut upper) {
+        SemanticVersion from = lower.version();
+        SemanticVersion to = upper.version();
+        if (from == null || !lower.isBefore()) return null;
+
+        if (to != null && !upper.isBefore() && from.compareTo(to) == 0) {
+            // "== 1.*" would read as a pattern, so a point at a wildcard version keeps its two bounds
+            boolean wildcard = from.getMajor() == SemanticVersion.WILDCARD
+                || from.getMinor() == SemanticVersion.WILDCARD
+                || from.getPatch() == SemanticVersion.WILDCARD;
+            return wildcard ? null : from.toString();
+        }
+
+        if (!isLowestOfLine(from)) return null;
+        VersionRangeSet line = VersionRangeSet.of(Operator.EQUAL,
+                SemanticVersion.of(from.getMajor() + "." + from.getMinor() + ".*"));
+        if (line.upperBounds().get(0).compareTo(upper) == 0) {
+            return from.getMajor() + "." + from.getMinor() + ".*";
+        }
+        if (from.getMinor() == 0) {
+            line = VersionRangeSet.of(Operator.EQUAL, SemanticVersion.of(from.getMajor() + ".*"));
+            if (line.upperBounds().get(0).compareTo(upper) == 0) {
+                return from.getMajor() + ".*";
+            }
+        }
+        return null;
+    }
+
+    /** @return {@code true} for {@code M.m.0-.}, the lowest version of a minor line. */
+    private static boolean isLowestOfLine(SemanticVersion version) {
+        return version.getMajor() >= 0 && version.getMinor() >= 0 && version.getPatch() == 0
+            && version.getPreRelease() != null && version.getPreRelease().chars().allMatch(c -> c == '.');
+    }
+
+    private static String lowerCriteria(VersionRangeSet.Cut lower) {
+        return (lower.isBefore() ? ">= " : "> ") + lower.version();
+    }
+
+    private static String upperCriteria(VersionRangeSet.Cut upper) {
+        return (upper.isBefore() ? "< " : "<= ") + upper.version();
+    }
+}
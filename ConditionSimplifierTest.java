@@ -0,0 +1,92 @@
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@code ConditionSimplifier} and {@code VersionRangeSet}.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Contradictory and all-admitting trees are detected.</li>
+ *     <li>AND, OR and NOT groups are merged into canonical intervals.</li>
+ *     <li>The emitted condition is minimal and admits the same versions.</li>
+ * </ul>
+ * </p>
+ */
+public class ConditionSimplifierTest {
+
+    @Test
+    public void testContradictionIsEmpty() {
+        Condition condition = new Condition("> 2.0.0", Collections.singletonList(new Condition("< 1.0.0")), null, null);
+
+        assertTrue(ConditionSimplifier.simplify(condition).isEmpty());
+        assertEquals("!= *", ConditionSimplifier.simplifyCondition(condition).toString());
+    }
+
+    @Test
+    public void testComplementaryOrIsAll() {
+        Condition condition = new Condition(null, null,
+            Arrays.asList(new Condition(">= 1.0.0"), new Condition("< 1.0.0")), null);
+
+        assertTrue(ConditionSimplifier.simplify(condition).isAll());
+        assertEquals("== *", ConditionSimplifier.simplifyCondition(condition).toString());
+    }
+
+    /**
+     * Tests that a tree is reduced to the expected minimal condition.
+     *
+     * @param criteria Criteria of the root condition.
+     * @param and Criteria of a single AND child, or empty.
+     * @param or1 Criteria of the first OR child, or empty.
+     * @param or2 Criteria of the second OR child, or empty.
+     * @param not Criteria of a single NOT child, or empty.
+     * @param expected Expected {@code toString()} of the simplified condition.
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        // Tightest bounds win
+        ">= 1.0.0 | >= 1.5.0 |          |          |          | >= 1.5.0",
+        "<= 2.0.0 | < 2.0.0  |          |          |          | < 2.0.0",
+        "> 1.0.0  | <= 2.0.0 |          |          |          | > 1.0.0 AND (<= 2.0.0)",
+
+        // A closed range of one version is an equality
+        ">= 1.2.3 | <= 1.2.3 |          |          |          | == 1.2.3",
+
+        // Overlapping OR children merge; excluding one version is an inequality
+        "         |          | < 1.5.0  | >= 1.2.0 |          | == *",
+        "         |          | < 1.0.0  | > 1.0.0  |          | != 1.0.0",
+        "         |          |          |          | == 1.2.* | != 1.2.*",
+
+        // NOT splits a range in two
+        ">= 1.0.0 | < 2.0.0  |          |          | == 1.5.0 | OR (>= 1.0.0 AND (< 1.5.0), > 1.5.0 AND (< 2.0.0))"
+    })
+    public void testSimplifiedCondition(String criteria, String and, String or1, String or2, String not, String expected) {
+        Condition condition = new Condition(criteria,
+            and != null ? Collections.singletonList(new Condition(and)) : null,
+            or1 != null ? Arrays.asList(new Condition(or1), new Condition(or2)) : null,
+            not != null ? Collections.singletonList(new Condition(not)) : null);
+
+        assertEquals(expected, ConditionSimplifier.simplifyCondition(condition).toString().trim());
+    }
+
+    /**
+     * Tests that membership in the simplified set agrees with the compiled condition.
+     *
+     * @param version The version to test.
+     */
+    @ParameterizedTest
+    @CsvSource({"0.9.0", "1.0.0", "1.2.0-rc.1", "1.2.9", "1.3.0-alpha", "1.5.0", "1.9.0", "2.0.0", "2.1.0"})
+    public void testContainsMatchesCompiledCondition(String version) {
+        Condition condition = new Condition(">= 1.0.0",
+            Collections.singletonList(new Condition("< 2.0.0")),
+            Arrays.asList(new Condition("== 1.2.*"), new Condition("> 1.4.0")),
+            Collections.singletonList(new Condition("== 1.5.0")));
+        SemanticVersion v = new SemanticVersion(version);
+
+        assertEquals(ConditionCompiler.compile(condition).test(v), ConditionSimplifier.simplify(condition).contains(v));
+    }
+}
@@ -0,0 +1,163 @@
+import java.nio.ByteBuffer;
+
+/**
+ * A HyperLogLog sketch for estimating distinct counts in a few kilobytes.
+ * <p>
+ * The top {@code precision} bits of each key's 64-bit hash select one of {@code 2^precision}
+ * registers, which keeps the longest run of leading zeros seen in the remaining bits. The
+ * relative standard error is about {@code 1.04 / sqrt(2^precision)} at every cardinality, as
+ * {@link #estimate()} corrects for empty registers rather than switching to linear counting.
+ * Sketches of the same precision merge by taking the maximum of each register.
+ * </p>
+ * <p>
+ * {@link #intersectionEstimate} uses inclusion-exclusion, whose error is relative to the union;
+ * prefer {@link KmvSketch} when overlaps are small compared to the sets.
+ * </p>
+ */
+public final class HyperLogLog {
+
+    private static final int MAGIC = 0x484C4C31; // "HLL1"
+    private static final int MIN_PRECISION = 4, MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * @param precision The number of index bits, from 4 to 18.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be in [4, 18]: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * @param relativeError The wanted relative standard error, e.g. {@code 0.01}.
+     * @return A sketch with the smallest precision that meets it, capped at 18.
+     */
+    public static HyperLogLog forRelativeError(double relativeError) {
+        if (!(relativeError > 0 && relativeError < 1)) {
+            throw new IllegalArgumentException("Relative error must be in (0, 1): " + relativeError);
+        }
+        double registers = Math.pow(1.04 / relativeError, 2);
+        int precision = (int) Math.ceil(Math.log(registers) / Math.log(2));
+        return new HyperLogLog(Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision)));
+    }
+
+    public void add(long key) {
+        addHash(SketchHashing.hash(key));
+    }
+
+    public void add(CharSequence key) {
+        addHash(SketchHashing.hash(key));
+    }
+
+    private void addHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // A sentinel bit bounds the rank when all remaining bits are zero
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) registers[index] = (byte) rank;
+    }
+
+    /**
+     * Estimates the cardinality with Ertl's improved raw estimator, which corrects the register
+     * histogram at both ends instead of switching to linear counting, so the error stays near
+     * {@link #relativeStandardError()} across the small-to-large transition.
+     *
+     * @return The estimated number of distinct keys added.
+     */
+    public double estimate() {
+        int m = registers.length, q = Long.SIZE - precision;
+        int[] histogram = new int[q + 2];
+        for (byte register : registers) {
+            histogram[register]++;
+        }
+        double z = m * tau(1 - (double) histogram[q + 1] / m);
+        for (int k = q; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += m * sigma((double) histogram[0] / m);
+        return m / (2 * Math.log(2)) * m / z;
+    }
+
+    /** The correction for empty registers: {@code x + sum(x^(2^k) * 2^(k-1))}. */
+    private static double sigma(double x) {
+        if (x == 1) return Double.POSITIVE_INFINITY;
+        double y = 1, z = x, previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    /** The correction for saturated registers. */
+    private static double tau(double x) {
+        if (x == 0 || x == 1) return 0;
+        double y = 1, z = 1 - x, previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+
+    /** @return The relative standard error of {@link #estimate()}. */
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /** Adds every key of another sketch of the same precision to this one. */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Precision mismatch: " + precision + " vs " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+        }
+    }
+
+    /**
+     * Estimates how many distinct keys were added to both sketches as
+     * {@code |A| + |B| - |A union B|}, clamped to {@code [0, min(|A|, |B|)]}.
+     */
+    public static double intersectionEstimate(HyperLogLog a, HyperLogLog b) {
+        HyperLogLog union = new HyperLogLog(a.precision);
+        union.merge(a);
+        union.merge(b);
+        double estimateA = a.estimate(), estimateB = b.estimate();
+        double overlap = estimateA + estimateB - union.estimate();
+        return Math.max(0, Math.min(overlap, Math.min(estimateA, estimateB)));
+    }
+
+    /** @return The serialized sketch: magic, precision, then one byte per register. */
+    public byte[] toByteArray() {
+        return ByteBuffer.allocate(8 + registers.length).putInt(MAGIC).putInt(precision).put(registers).array();
+    }
+
+    /**
+     * @param bytes A sketch written by {@link #toByteArray()}.
+     * @return The sketch.
+     * @throws IllegalArgumentException if the bytes are not a serialized sketch.
+     */
+    public static HyperLogLog fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < 8 || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a serialized HyperLogLog");
+        }
+        HyperLogLog sketch = new HyperLogLog(buffer.getInt());
+        buffer.get(sketch.registers);
+        return sketch;
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog{precision=" + precision + ", estimate=" + estimate() + "}";
+    }
+}
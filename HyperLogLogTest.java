@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code HyperLogLog}.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Estimates stay within the stated relative standard error over many independent key sets,
+ *         from sparse to saturated registers.</li>
+ *     <li>Merging equals the sketch of all keys, and intersection estimates stay within the error of the union.</li>
+ *     <li>Tiny and empty key sets are estimated closely at the smallest and largest precisions.</li>
+ *     <li>Serialization round-trips, and invalid precisions and mismatched merges are rejected.</li>
+ * </ul>
+ * </p>
+ */
+public class HyperLogLogTest {
+
+    private static final int TRIALS = 30;
+
+    private static HyperLogLog sketch(int precision, long from, long to) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (long key = from; key < to; key++) {
+            sketch.add(key);
+        }
+        return sketch;
+    }
+
+    /**
+     * Tests the error of estimates over independent key sets.
+     *
+     * @param n Distinct keys per set, from few registers filled to far beyond {@code 2^12}, including
+     *          the range around {@code 2.5 * 2^12} where raw estimates are biased.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {500, 10_000, 20_000, 200_000})
+    public void testEstimateWithinStandardError(int n) {
+        int precision = 12;
+        double sumSquares = 0, standardError = 0;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            HyperLogLog sketch = sketch(precision, trial * 1_000_000_000L, trial * 1_000_000_000L + n);
+            standardError = sketch.relativeStandardError();
+            double error = (sketch.estimate() - n) / n;
+            assertTrue(Math.abs(error) < 4 * standardError, "Trial " + trial + ": " + error);
+            sumSquares += error * error;
+        }
+        double rms = Math.sqrt(sumSquares / TRIALS);
+        assertTrue(rms < 1.5 * standardError, "RMS error " + rms);
+    }
+
+    @Test
+    public void testStringKeys() {
+        HyperLogLog sketch = HyperLogLog.forRelativeError(0.01);
+        assertTrue(sketch.relativeStandardError() <= 0.01);
+        for (int i = 0; i < 300_000; i++) {
+            sketch.add("user-" + i % 100_000);
+        }
+        assertEquals(100_000, sketch.estimate(), 4 * sketch.relativeStandardError() * 100_000);
+        assertEquals(0, new HyperLogLog(4).estimate());
+    }
+
+    @Test
+    public void testMergeAndIntersection() {
+        int precision = 14, n = 50_000, overlap = 20_000, union = 2 * n - overlap;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            long base = trial * 1_000_000_000L;
+            HyperLogLog a = sketch(precision, base, base + n), b = sketch(precision, base + n - overlap, base + 2 * n - overlap);
+            double bound = 4 * a.relativeStandardError() * union;
+            assertEquals(overlap, HyperLogLog.intersectionEstimate(a, b), bound, "Trial " + trial);
+
+            HyperLogLog merged = HyperLogLog.fromByteArray(a.toByteArray());
+            merged.merge(b);
+            assertArrayEquals(sketch(precision, base, base + union).toByteArray(), merged.toByteArray());
+            assertEquals(0, HyperLogLog.intersectionEstimate(a, sketch(precision, base - 100, base)), bound);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(10).merge(new HyperLogLog(11)));
+    }
+
+    @Test
+    public void testSerializationRoundTrip() {
+        HyperLogLog sketch = sketch(10, 0, 5000);
+        HyperLogLog read = HyperLogLog.fromByteArray(sketch.toByteArray());
+        assertEquals(sketch.estimate(), read.estimate());
+        assertArrayEquals(sketch.toByteArray(), read.toByteArray());
+
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromByteArray(new byte[16]));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(19));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.forRelativeError(1));
+    }
+
+    /**
+     * Tests estimates at the ends of the precision range and of small key counts, where nearly every
+     * register is still zero or, at precision 4, every register is filled.
+     *
+     * @param precision The precision.
+     * @param n         Distinct keys.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "4, 0",
+        "4, 1",
+        "4, 2",
+        "4, 16",
+        "4, 1000",
+        "12, 1",
+        "12, 2",
+        "18, 0",
+        "18, 1",
+        "18, 1000"
+    })
+    public void testTinyAndEmptySets(int precision, int n) {
+        HyperLogLog sketch = sketch(precision, 0, n);
+        double bound = Math.max(1, 4 * sketch.relativeStandardError() * n);
+        assertEquals(n, sketch.estimate(), bound);
+        if (n == 0) assertEquals(0, sketch.estimate());
+        assertEquals(sketch.estimate(), HyperLogLog.fromByteArray(sketch.toByteArray()).estimate());
+    }
+}
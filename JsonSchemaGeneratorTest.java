@@ -0,0 +1,628 @@
+package com.example;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import com.example.JsonSchemaGenerator.JsonPullParser;
+import com.example.JsonSchemaGenerator.JsonPullParser.Token;
+import com.example.JsonSchemaGenerator.SchemaNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code JsonSchemaGenerator}, which lives in {@code com.example} like {@code Metrics}.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Sampling keeps the root's {@code required} exact, whichever documents are skipped.</li>
+ *     <li>The pull parser accepts valid JSON and NDJSON, and rejects missing, repeated or trailing
+ *         separators and malformed numbers.</li>
+ *     <li>Field names decode the same whatever window the bytes are mapped in, including split
+ *         multibyte characters and escapes, behind a byte order mark.</li>
+ *     <li>The streaming modes read {@code .ndjson} and {@code .jsonl} files as well as {@code .json}.</li>
+ *     <li>Identical object shapes share one {@code $defs} entry at any depth, named after no other property.</li>
+ *     <li>The org.json mode times reading and parsing separately while streaming the file.</li>
+ *     <li>Parallel inference gives the same schema as folding the files one by one, in any grouping.</li>
+ *     <li>Incremental runs reparse only changed files, and after edits, deletions and additions
+ *         print the schema a full run prints; subtracting a merged partial restores the total.</li>
+ * </ul>
+ * </p>
+ */
+public class JsonSchemaGeneratorTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that a key missing from one document in 200 is not required when only 10 documents
+     * are typed, wherever the document that lacks it falls.
+     */
+    @Test
+    public void testReservoirKeepsRequiredExact() throws IOException {
+        for (int missing = 0; missing < 200; missing++) {
+            StringBuilder documents = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                documents.append(i == missing ? "{\"id\":" + i + "}\n" : "{\"id\":" + i + ",\"name\":\"n" + i + "\"}\n");
+            }
+            Path file = directory.resolve("documents.ndjson");
+            Files.write(file, documents.toString().getBytes(StandardCharsets.UTF_8));
+
+            JsonSchemaGenerator.Sampling sampling = new JsonSchemaGenerator.Sampling();
+            sampling.maxDocuments = 10;
+            JsonSchemaGenerator.Sampler sampler = new JsonSchemaGenerator.Sampler(sampling);
+            sampler.sampleFile(file);
+            JSONObject schema = JsonSchemaGenerator.toJsonSchema(sampler.result());
+
+            assertEquals(200, sampler.documentsSeen);
+            assertEquals(new JSONArray("[\"id\"]").toString(), schema.getJSONArray("required").toString(),
+                    "Document " + missing + " lacks 'name'");
+        }
+    }
+
+    /**
+     * Tests the sampling options together over documents of one shape: the value cap holds across
+     * documents, and documents the reservoir skips count toward the stable streak.
+     *
+     * @param maxDocuments  {@code --sample-documents}, or 0 for none.
+     * @param maxValues     {@code --sample-values}.
+     * @param stableAfter   {@code --stop-when-stable}.
+     * @param documentsSeen Documents read before stopping.
+     * @param typed         Values typed for each key, or -1 when the reservoir may have evicted some.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "0, 3, 5, 6, 3",
+        "10, 3, 5, 6, 3",
+        "10, 1, 1, 2, 1",
+        "10, 100, 8, 9, 9",
+        "2, 3, 5, 6, -1",
+        "1, 1, 50, 51, -1"
+    })
+    public void testSamplingOptionsCombined(int maxDocuments, long maxValues, int stableAfter, long documentsSeen,
+                                            long typed) throws IOException {
+        StringBuilder documents = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            documents.append("{\"id\":").append(i).append(",\"tags\":[{\"name\":\"t\"}]}\n");
+        }
+        Path file = Files.write(directory.resolve("documents.ndjson"),
+                documents.toString().getBytes(StandardCharsets.UTF_8));
+
+        JsonSchemaGenerator.Sampling sampling = new JsonSchemaGenerator.Sampling();
+        sampling.maxDocuments = maxDocuments;
+        sampling.maxValuesPerKey = maxValues;
+        sampling.stableAfter = stableAfter;
+        JsonSchemaGenerator.Sampler sampler = new JsonSchemaGenerator.Sampler(sampling);
+        sampler.sampleFile(file);
+        assertTrue(sampler.stoppedEarly);
+        assertEquals(documentsSeen, sampler.documentsSeen);
+
+        SchemaNode result = sampler.result();
+        SchemaNode id = result.properties.get("id");
+        assertTrue(id.typedCount() <= maxValues);
+        if (typed >= 0) {
+            assertEquals(typed, id.typedCount());
+            assertEquals(documentsSeen - typed, id.unsampledCount);
+            assertEquals(typed, result.properties.get("tags").items().properties.get("name").typedCount());
+        }
+    }
+
+    /**
+     * Tests that valid text is reported token by token, with numbers typed by their syntax.
+     */
+    @Test
+    public void testParsesValidJson() throws IOException {
+        assertEquals(Arrays.asList(Token.START_OBJECT, Token.FIELD_NAME, Token.START_ARRAY, Token.VALUE_INTEGER,
+                Token.VALUE_NUMBER, Token.START_OBJECT, Token.END_OBJECT, Token.START_ARRAY, Token.END_ARRAY,
+                Token.END_ARRAY, Token.FIELD_NAME, Token.VALUE_NUMBER, Token.FIELD_NAME, Token.VALUE_NULL,
+                Token.END_OBJECT, Token.END_DOCUMENT),
+                tokens(" { \"a\" : [ -0 , 1.5 , { } , [ ] ] , \"b\":-12.0e+3,\"c\":null}\n"));
+        assertEquals(Arrays.asList(Token.VALUE_INTEGER, Token.VALUE_NUMBER, Token.VALUE_STRING, Token.VALUE_BOOLEAN,
+                Token.START_OBJECT, Token.END_OBJECT, Token.END_DOCUMENT),
+                tokens("10\n2E5 \"x\"\ntrue\n{}"));
+    }
+
+    /**
+     * Tests that malformed separators and numbers are rejected.
+     *
+     * @param json Invalid JSON text.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "[1 2]", "{\"a\":1 \"b\":2}", "[1,,2]", "[1,2,]", "{\"a\":1,}", "[,1]", "{,}", "{\"a\":}", "{\"a\" 1}",
+        "{1:2}", "1,2", "{\"a\":--5}", "{\"a\":1e}", "[1.]", "[.5]", "[01]", "[-]", "[1e+]", "[1", "{\"a\":1]"
+    })
+    public void testRejectsInvalidJson(String json) {
+        assertThrows(IllegalStateException.class, () -> tokens(json));
+    }
+
+    /**
+     * Tests that invalid escapes and unescaped control characters are rejected in field names and
+     * in string values alike.
+     *
+     * @param text The content between the quotes, with a {@code ~} for a raw control character.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "\\u12G4", "\\u00", "\\uZZZZ", "\\u-123", "\\x41", "\\a", "\\0", "\\U0041", "a~b", "~", "tab~"
+    })
+    public void testRejectsInvalidEscapesAndControlCharacters(String text) {
+        for (char control : new char[] {'\u0000', '\n', '\t', '\u001F'}) {
+            String string = "\"" + text.replace('~', control) + "\"";
+            assertThrows(IllegalStateException.class, () -> tokens("{" + string + ":1}"), "Name " + string);
+            assertThrows(IllegalStateException.class, () -> tokens("{\"a\":" + string + "}"), "Value " + string);
+            assertThrows(IllegalStateException.class, () -> tokens("[" + string + "]"), "Value " + string);
+        }
+    }
+
+    /**
+     * Tests that every valid escape is accepted, and decoded in field names.
+     *
+     * @param escaped The escaped name between the quotes.
+     * @param decoded The decoded name.
+     */
+    @ParameterizedTest
+    @CsvSource(value = {
+        "\\\"|\"", "\\\\|\\", "\\/|/", "\\u0041|A", "\\u00e9|\u00e9", "\\u00E9|\u00e9",
+        "a\\u0020b|a b", "\\u007f|\u007f", "\u007f|\u007f", "a\\bb\\fc\\td|a\bb\fc\td"
+    }, delimiter = '|')
+    public void testDecodesValidEscapes(String escaped, String decoded) throws IOException {
+        JsonPullParser parser = new JsonPullParser(ByteBuffer.wrap(("{\"" + escaped + "\":\"" + escaped + "\"}")
+                .getBytes(StandardCharsets.UTF_8)));
+        assertEquals(Token.START_OBJECT, parser.next());
+        assertEquals(Token.FIELD_NAME, parser.next());
+        assertEquals(decoded, parser.name());
+        assertEquals(Token.VALUE_STRING, parser.next());
+        assertEquals(Token.END_OBJECT, parser.next());
+    }
+
+    private static List<Token> tokens(String json) throws IOException {
+        JsonPullParser parser = new JsonPullParser(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        do {
+            token = parser.next();
+            tokens.add(token);
+        } while (token != Token.END_DOCUMENT);
+        return tokens;
+    }
+
+    /**
+     * Tests that NDJSON records, multibyte and escaped field names, and a byte order mark parse the
+     * same when every record, character and escape is split across mapping windows.
+     */
+    @Test
+    public void testWindowBoundaries() throws IOException {
+        String records = "{\"名前\":\"x\",\"é\":[1,2.5]}\n"
+                + "{\"\uD83D\uDE00\":true,\"a\\\"b\":null,\"\\u00e9\\t\":{\"\\uD83D\\uDE00\":-1}}\r\n"
+                + "[\"long string value\",{}]\n";
+        Path file = directory.resolve("records.ndjson");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        bytes.write(records.getBytes(StandardCharsets.UTF_8));
+        Files.write(file, bytes.toByteArray());
+
+        List<String> expected = Arrays.asList("START_OBJECT", "名前", "VALUE_STRING", "é", "START_ARRAY",
+                "VALUE_INTEGER", "VALUE_NUMBER", "END_ARRAY", "END_OBJECT",
+                "START_OBJECT", "\uD83D\uDE00", "VALUE_BOOLEAN", "a\"b", "VALUE_NULL", "é\t", "START_OBJECT",
+                "\uD83D\uDE00", "VALUE_INTEGER", "END_OBJECT", "END_OBJECT",
+                "START_ARRAY", "VALUE_STRING", "START_OBJECT", "END_OBJECT", "END_ARRAY");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int windowSize = 1; windowSize <= channel.size(); windowSize++) {
+                assertEquals(expected, events(new JsonPullParser(channel, windowSize)), "Window of " + windowSize);
+            }
+            assertEquals(expected, events(new JsonPullParser(channel)));
+        }
+        assertEquals(expected, events(new JsonPullParser(ByteBuffer.wrap(bytes.toByteArray()))));
+    }
+
+    /**
+     * Tests that the streaming modes find NDJSON files by either extension, and skip other files.
+     */
+    @Test
+    public void testReadsNdjsonFiles() throws IOException {
+        Files.write(directory.resolve("a.json"), "{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("b.ndjson"), "{\"b\":1}\n{\"b\":2}\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("c.jsonl"), "{\"c\":1}\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("d.txt"), "{\"d\":1}\n".getBytes(StandardCharsets.UTF_8));
+
+        JSONObject streamed = printedSchema(() -> JsonSchemaGenerator.generateSchemaFromFolderStreaming(directory.toString()));
+        assertEquals(3, streamed.getJSONObject("properties").length());
+        assertFalse(streamed.getJSONObject("properties").has("d"));
+
+        Path state = directory.resolve("schemagen.state");
+        JSONObject incremental = printedSchema(() -> JsonSchemaGenerator.generateSchemaIncrementally(directory.toString(), state));
+        assertEquals(streamed.getJSONObject("properties").keySet(), incremental.getJSONObject("properties").keySet());
+
+        JsonSchemaGenerator.Sampling sampling = new JsonSchemaGenerator.Sampling();
+        sampling.maxDocuments = 10;
+        JSONObject sampled = printedSchema(() -> JsonSchemaGenerator.generateSchemaSampled(directory.toString(), sampling));
+        assertEquals(4, sampled.getJSONObject("x-sampling").getLong("documentsSeen"));
+    }
+
+    /** @return The schema a generator mode prints. */
+    private static JSONObject printedSchema(Runnable mode) {
+        String text = printed(mode);
+        return new JSONObject(text.substring(text.indexOf('{')));
+    }
+
+    /** @return Everything a generator mode prints. */
+    private static String printed(Runnable mode) {
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(printed, true));
+        try {
+            mode.run();
+        } finally {
+            System.setOut(out);
+        }
+        return new String(printed.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /** @return Every token of a parse, with field names in place of {@code FIELD_NAME}. */
+    private static List<String> events(JsonPullParser parser) throws IOException {
+        List<String> events = new ArrayList<>();
+        for (Token token = parser.next(); token != Token.END_DOCUMENT; token = parser.next()) {
+            events.add(token == Token.FIELD_NAME ? parser.name() : token.name());
+        }
+        return events;
+    }
+
+    /**
+     * Tests that the streaming mode moves object shapes to {@code $defs}, that identical ones share
+     * a definition, and that a shared one is not named after either property.
+     */
+    @Test
+    public void testDeduplicatesDefinitions() throws IOException {
+        Files.write(directory.resolve("orders.json"), ("{\"shipping\":{\"street\":\"a\",\"zip\":1},"
+                + "\"billing\":{\"zip\":2,\"street\":\"b\"},\"owner\":{\"name\":\"n\"},\"lines\":[{\"sku\":\"x\"}]}")
+                .getBytes(StandardCharsets.UTF_8));
+        JSONObject schema = printedSchema(() -> JsonSchemaGenerator.generateSchemaFromFolderStreaming(directory.toString()));
+
+        JSONObject properties = schema.getJSONObject("properties");
+        assertEquals("#/$defs/street_zip", properties.getJSONObject("shipping").getString("$ref"));
+        assertEquals("#/$defs/street_zip", properties.getJSONObject("billing").getString("$ref"));
+        assertEquals("#/$defs/owner", properties.getJSONObject("owner").getString("$ref"));
+        assertEquals("#/$defs/lines_item", properties.getJSONObject("lines").getJSONObject("items").getString("$ref"));
+        assertEquals(3, schema.getJSONObject("$defs").length());
+        assertEquals(new JSONArray("[\"street\",\"zip\"]").toString(),
+                schema.getJSONObject("$defs").getJSONObject("street_zip").getJSONArray("required").toString());
+    }
+
+    /**
+     * Tests that nested shapes are deduplicated bottom-up: enclosing shapes are shared only when
+     * their nested shapes are, and every reference resolves.
+     */
+    @Test
+    public void testDeduplicatesNestedDefinitions() throws IOException {
+        Path file = directory.resolve("tree.json");
+        Files.write(file, ("{\"a\":{\"child\":{\"leaf\":1}},\"b\":{\"child\":{\"leaf\":2}},"
+                + "\"c\":{\"child\":{\"leaf\":\"s\"}}}").getBytes(StandardCharsets.UTF_8));
+        JSONObject schema = JsonSchemaGenerator.toJsonSchema(JsonSchemaGenerator.inferFile(file));
+
+        JSONObject definitions = schema.getJSONObject("$defs");
+        assertEquals(4, definitions.length());
+        JSONObject a = resolve(schema, schema.getJSONObject("properties").getJSONObject("a"));
+        JSONObject b = resolve(schema, schema.getJSONObject("properties").getJSONObject("b"));
+        JSONObject c = resolve(schema, schema.getJSONObject("properties").getJSONObject("c"));
+        assertSame(a, b);
+        assertNotSame(a, c);
+        JSONObject leaf = resolve(schema, a.getJSONObject("properties").getJSONObject("child"));
+        assertEquals("integer", leaf.getJSONObject("properties").getJSONObject("leaf").getString("type"));
+        leaf = resolve(schema, c.getJSONObject("properties").getJSONObject("child"));
+        assertEquals("string", leaf.getJSONObject("properties").getJSONObject("leaf").getString("type"));
+    }
+
+    /** @return The definition a {@code $ref} points at, which must exist. */
+    private static JSONObject resolve(JSONObject schema, JSONObject reference) {
+        String ref = reference.getString("$ref");
+        assertTrue(ref.startsWith("#/$defs/"), ref);
+        return schema.getJSONObject("$defs").getJSONObject(ref.substring("#/$defs/".length()));
+    }
+
+    /**
+     * Tests that the org.json mode records each stage of each file, and the bytes read.
+     */
+    @Test
+    public void testTimesOrgJsonStages() throws IOException {
+        byte[] document = "{\"a\":{\"b\":[1,2,3]},\"c\":\"text\"}".getBytes(StandardCharsets.UTF_8);
+        Files.write(directory.resolve("one.json"), document);
+        Files.write(directory.resolve("two.json"), document);
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        try {
+            printedSchema(() -> JsonSchemaGenerator.generateSchemaFromFolder(directory.toString()));
+
+            Metrics.Snapshot snapshot = Metrics.snapshot();
+            for (String stage : new String[] {"schema.io", "schema.parse", "schema.infer"}) {
+                assertEquals(2, snapshot.timer(stage).count(), stage);
+            }
+            assertEquals(2, snapshot.counter("schema.files"));
+            assertEquals(2L * document.length, snapshot.counter("schema.bytes"));
+        } finally {
+            Metrics.setEnabled(false);
+            Metrics.reset();
+        }
+    }
+
+    /** @return A random document with optional, nested, array and mixed-type properties. */
+    private static String randomDocument(Random random, int depth) {
+        StringBuilder json = new StringBuilder("{");
+        String[] keys = {"id", "name", "tags", "owner", "score", "flag"};
+        for (String key : keys) {
+            if (random.nextInt(3) == 0) continue;
+            if (json.length() > 1) json.append(',');
+            json.append('"').append(key).append("\":");
+            switch (random.nextInt(depth > 0 ? 6 : 4)) {
+                case 0: json.append(random.nextInt(100)); break;
+                case 1: json.append('"').append(key).append(random.nextInt(9)).append('"'); break;
+                case 2: json.append(random.nextBoolean() ? "1.5" : "null"); break;
+                case 3: json.append(random.nextBoolean()); break;
+                case 4: json.append(randomDocument(random, depth - 1)); break;
+                default:
+                    json.append('[');
+                    for (int i = random.nextInt(3); i > 0; i--) {
+                        json.append(randomDocument(random, depth - 1)).append(i > 1 ? "," : "");
+                    }
+                    json.append(']');
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    /** Writes JSON and NDJSON files of random documents, and one invalid file. */
+    private List<Path> writeRandomFiles(int count, long seed) throws IOException {
+        Random random = new Random(seed);
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int documents = i % 3 == 0 ? 1 + random.nextInt(5) : 1; documents > 0; documents--) {
+                content.append(randomDocument(random, 2)).append('\n');
+            }
+            files.add(Files.write(directory.resolve(String.format("doc-%03d.%s", i, i % 3 == 0 ? "ndjson" : "json")),
+                    content.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        files.add(Files.write(directory.resolve("broken.json"), "{\"id\":1,".getBytes(StandardCharsets.UTF_8)));
+        return files;
+    }
+
+    /**
+     * Tests that inferring files in parallel, and merging partial schemas in any grouping, gives
+     * the same counts and property order as folding the files one by one.
+     */
+    @Test
+    public void testParallelInferenceMatchesSequential() throws IOException {
+        List<Path> files = writeRandomFiles(100, 1);
+        SchemaNode sequential = new SchemaNode();
+        List<SchemaNode> partials = new ArrayList<>();
+        for (Path file : files.subList(0, files.size() - 1)) {
+            SchemaNode partial = JsonSchemaGenerator.inferFile(file);
+            partials.add(partial);
+            sequential.merge(partial);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SchemaNode parallel = quietly(() -> JsonSchemaGenerator.inferFiles(files, pool));
+            assertArrayEquals(sequential.toByteArray(), parallel.toByteArray());
+        } finally {
+            pool.shutdown();
+        }
+
+        // Regroup as (first third) + ((second third) + (last third))
+        int third = partials.size() / 3;
+        SchemaNode left = new SchemaNode(), middle = new SchemaNode(), right = new SchemaNode();
+        partials.subList(0, third).forEach(left::merge);
+        partials.subList(third, 2 * third).forEach(middle::merge);
+        partials.subList(2 * third, partials.size()).forEach(right::merge);
+        middle.merge(right);
+        left.merge(middle);
+        assertArrayEquals(sequential.toByteArray(), left.toByteArray());
+    }
+
+    /**
+     * Tests parallel inference around the number of files one task infers, with an empty file and
+     * a broken file among them, and with no files at all.
+     *
+     * @param count   Files of random documents.
+     * @param threads Parallelism of the pool.
+     */
+    @ParameterizedTest
+    @CsvSource({"0, 1", "0, 4", "1, 1", "1, 4", "6, 4", "7, 4", "8, 2", "15, 4"})
+    public void testParallelInferenceOfFewFiles(int count, int threads) throws IOException {
+        List<Path> files = writeRandomFiles(count, 10 + count);
+        files.add(Files.write(directory.resolve("empty.json"), new byte[0]));
+        SchemaNode sequential = new SchemaNode();
+        for (Path file : files) {
+            if (!file.getFileName().toString().equals("broken.json")) sequential.merge(JsonSchemaGenerator.inferFile(file));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            SchemaNode parallel = quietly(() -> JsonSchemaGenerator.inferFiles(files, pool));
+            assertArrayEquals(sequential.toByteArray(), parallel.toByteArray());
+            assertArrayEquals(new SchemaNode().toByteArray(),
+                    JsonSchemaGenerator.inferFiles(Collections.emptyList(), pool).toByteArray());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** @return What the call returns, with the files it reports as skipped silenced. */
+    private static <T> T quietly(Supplier<T> call) {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream(), true));
+        try {
+            return call.get();
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    /**
+     * Tests that incremental runs reuse the persisted state for unchanged files, and that after
+     * files are edited, deleted and added the schema is the one a full run infers.
+     */
+    @Test
+    public void testIncrementalMatchesFullRun() throws IOException {
+        List<Path> files = writeRandomFiles(30, 2);
+        Path state = directory.resolve("schemagen.state");
+        String folder = directory.toString();
+
+        String first = printed(() -> JsonSchemaGenerator.generateSchemaIncrementally(folder, state));
+        assertTrue(first.startsWith("Skipping invalid JSON file: broken.json"), first);
+        assertTrue(first.contains("Reparsed 31 of 31 files"), first);
+        assertSimilar(printedSchema(() -> JsonSchemaGenerator.generateSchemaFromFolderStreaming(folder)), schemaOf(first));
+
+        String unchanged = printed(() -> JsonSchemaGenerator.generateSchemaIncrementally(folder, state));
+        assertTrue(unchanged.startsWith("Reparsed 0 of 31 files"), unchanged);
+        assertSimilar(schemaOf(first), schemaOf(unchanged));
+
+        // Edit the first file to one of its own shape, so only counts change, and the second to a new shape
+        Files.write(files.get(0), (new String(Files.readAllBytes(files.get(0)), StandardCharsets.UTF_8) + "{\"id\":7}\n")
+                .getBytes(StandardCharsets.UTF_8));
+        Files.write(files.get(1), "{\"added\":[1,\"x\"],\"id\":\"s\"}".getBytes(StandardCharsets.UTF_8));
+        Files.delete(files.get(2));
+        Files.delete(files.get(files.size() - 1));
+        Files.write(directory.resolve("new.jsonl"), "{\"id\":1}\n{\"fresh\":{\"inner\":null}}\n"
+                .getBytes(StandardCharsets.UTF_8));
+
+        String updated = printed(() -> JsonSchemaGenerator.generateSchemaIncrementally(folder, state));
+        assertTrue(updated.startsWith("Reparsed 3 of 30 files"), updated);
+        JSONObject full = printedSchema(() -> JsonSchemaGenerator.generateSchemaFromFolderStreaming(folder));
+        assertSimilar(full, schemaOf(updated));
+        assertTrue(full.getJSONObject("properties").has("added"));
+
+        // Deleting the files that introduced new properties drops those properties
+        Files.delete(files.get(1));
+        Files.delete(directory.resolve("new.jsonl"));
+        String reverted = printed(() -> JsonSchemaGenerator.generateSchemaIncrementally(folder, state));
+        assertTrue(reverted.startsWith("Reparsed 0 of 28 files"), reverted);
+        JSONObject properties = schemaOf(reverted).getJSONObject("properties");
+        assertFalse(properties.has("added"));
+        assertFalse(properties.has("fresh"));
+        assertSimilar(printedSchema(() -> JsonSchemaGenerator.generateSchemaFromFolderStreaming(folder)), schemaOf(reverted));
+    }
+
+    /**
+     * Tests an incremental run after the only file in a folder is rewritten, against a full run, and
+     * after it is deleted, against the schema of no documents.
+     *
+     * @param before The documents first in the file.
+     * @param after  The documents it is rewritten with; its modification time always moves on.
+     */
+    @ParameterizedTest
+    @CsvSource(value = {
+        "{\"a\":1} | {\"a\":2}",
+        "{\"a\":1} | {\"a\":\"x\"}",
+        "{\"a\":1} | ''",
+        "'' | {\"a\":1}",
+        "{\"a\":1} | {\"a\":",
+        "{\"a\": | {\"a\":1}",
+        "{\"a\":1} {\"b\":null} | {\"b\":null}",
+        "{\"a\":{\"b\":[1]}} | {\"a\":{\"c\":true}}"
+    }, delimiter = '|')
+    public void testIncrementalSingleFileRewrite(String before, String after) throws IOException {
+        Path file = Files.write(directory.resolve("only.json"), before.getBytes(StandardCharsets.UTF_8));
+        Path state = directory.resolve("schemagen.state");
+        String folder = directory.toString();
+        assertTrue(printed(() -> JsonSchemaGenerator.generateSchemaIncrementally(folder, state))
+                .contains("Reparsed 1 of 1 files"));
+
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        Files.write(file, after.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified + 2000));
+        String updated = printed(() -> JsonSchemaGenerator.generateSchemaIncrementally(folder, state));
+        assertTrue(updated.contains("Reparsed 1 of 1 files"), updated);
+        assertSimilar(printedSchema(() -> JsonSchemaGenerator.generateSchemaFromFolderStreaming(folder)), schemaOf(updated));
+
+        Files.delete(file);
+        String emptied = printed(() -> JsonSchemaGenerator.generateSchemaIncrementally(folder, state));
+        assertTrue(emptied.startsWith("Reparsed 0 of 0 files"), emptied);
+        assertSimilar(JsonSchemaGenerator.toJsonSchema(new SchemaNode()), schemaOf(emptied));
+    }
+
+    @Test
+    public void testUnreadableStateIsReported() throws IOException {
+        writeRandomFiles(2, 3);
+        Path state = Files.write(directory.resolve("schemagen.state"), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        String printed = printed(() -> JsonSchemaGenerator.generateSchemaIncrementally(directory.toString(), state));
+        assertTrue(printed.startsWith("Cannot update schema state"), printed);
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}, Files.readAllBytes(state));
+    }
+
+    /** Tests that subtracting a merged partial restores the counts, and drops positions only it had. */
+    @Test
+    public void testSubtractUndoesMerge() throws IOException {
+        List<Path> files = writeRandomFiles(40, 4);
+        SchemaNode total = new SchemaNode();
+        for (Path file : files.subList(0, 20)) {
+            total.merge(JsonSchemaGenerator.inferFile(file));
+        }
+        byte[] before = total.toByteArray();
+
+        List<SchemaNode> added = new ArrayList<>();
+        for (Path file : files.subList(20, 40)) {
+            added.add(JsonSchemaGenerator.inferFile(file));
+        }
+        SchemaNode extra = JsonSchemaGenerator.inferFile(Files.write(directory.resolve("extra.json"),
+                "{\"only\":{\"here\":[true]},\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+        added.add(extra);
+        added.forEach(total::merge);
+        assertTrue(total.properties.containsKey("only"));
+
+        for (int i = added.size() - 1; i >= 0; i -= 2) total.subtract(added.get(i));
+        for (int i = added.size() - 2; i >= 0; i -= 2) total.subtract(added.get(i));
+        assertArrayEquals(before, total.toByteArray());
+    }
+
+    /** @return The schema printed after the incremental mode's summary line. */
+    private static JSONObject schemaOf(String printed) {
+        return new JSONObject(printed.substring(printed.indexOf('{')));
+    }
+
+    /** Compares schemas, ignoring the order of {@code required}, which follows the order keys were first seen. */
+    private static void assertSimilar(JSONObject expected, JSONObject actual) {
+        assertTrue(sortRequired(expected).similar(sortRequired(actual)), "Expected " + expected + " but was " + actual);
+    }
+
+    private static JSONObject sortRequired(JSONObject schema) {
+        for (String key : schema.keySet()) {
+            Object value = schema.get(key);
+            if (key.equals("required")) {
+                List<Object> names = ((JSONArray) value).toList();
+                names.sort(Comparator.comparing(Object::toString));
+                schema.put(key, new JSONArray(names));
+            } else if (value instanceof JSONObject) {
+                sortRequired((JSONObject) value);
+            } else if (value instanceof JSONArray) {
+                for (Object element : (JSONArray) value) {
+                    if (element instanceof JSONObject) sortRequired((JSONObject) element);
+                }
+            }
+        }
+        return schema;
+    }
+}
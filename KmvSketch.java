@@ -0,0 +1,184 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A K-minimum-values (theta) sketch for estimating distinct counts and intersection sizes.
+ * <p>
+ * Keys are hashed to 63-bit values and only the {@code k} smallest are retained, along with
+ * {@code theta}, the bound below which every hash is retained:
+ * <ul>
+ *     <li>While fewer than {@code k + 1} distinct hashes have been seen, nothing is dropped and
+ *         {@link #isExact()} holds: estimates are exact counts.</li>
+ *     <li>After that, a count of retained hashes {@code c} estimates {@code c / (theta / 2^63)},
+ *         with a relative standard error of about {@code 1 / sqrt(k)}.</li>
+ * </ul>
+ * {@link #intersectionEstimate} counts the hashes all sketches retain below their smallest theta.
+ * Its error is relative to the size of the union, so small overlaps of large sets are noisy.
+ * Sketches are mergeable with {@link #union} and serializable with {@link #toByteArray()}.
+ * </p>
+ */
+public final class KmvSketch {
+
+    private static final int MAGIC = 0x4B4D5631; // "KMV1"
+
+    private final int k;
+    private long[] hashes; // Sorted and distinct in [0, retained), unsorted in [retained, count)
+    private int retained;
+    private int count;
+    private long theta = Long.MAX_VALUE;
+
+    /**
+     * @param k The number of hashes to retain; at least 2.
+     */
+    public KmvSketch(int k) {
+        if (k < 2) {
+            throw new IllegalArgumentException("k must be at least 2: " + k);
+        }
+        this.k = k;
+        this.hashes = new long[Math.min(2 * k, 64)];
+    }
+
+    /**
+     * @param relativeError The wanted relative standard error of distinct-count estimates, e.g. {@code 0.01}.
+     * @return A sketch retaining enough hashes for that error.
+     */
+    public static KmvSketch forRelativeError(double relativeError) {
+        if (!(relativeError > 0 && relativeError < 1)) {
+            throw new IllegalArgumentException("Relative error must be in (0, 1): " + relativeError);
+        }
+        return new KmvSketch((int) Math.ceil(1 / (relativeError * relativeError)) + 2);
+    }
+
+    public void add(long key) {
+        addHash(SketchHashing.hash(key) >>> 1);
+    }
+
+    public void add(CharSequence key) {
+        addHash(SketchHashing.hash(key) >>> 1);
+    }
+
+    private void addHash(long hash) {
+        if (hash >= theta) return;
+        if (count == hashes.length) {
+            if (count < 2 * k) {
+                hashes = Arrays.copyOf(hashes, Math.min(2 * k, count * 2));
+            } else {
+                compact();
+                if (hash >= theta) return;
+            }
+        }
+        hashes[count++] = hash;
+    }
+
+    /** Sorts and deduplicates the buffered hashes, keeping the {@code k} smallest. */
+    private void compact() {
+        if (retained == count) return;
+        Arrays.sort(hashes, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || hashes[i] != hashes[distinct - 1]) hashes[distinct++] = hashes[i];
+        }
+        if (distinct > k) {
+            theta = hashes[k];
+            distinct = k;
+        }
+        retained = count = distinct;
+    }
+
+    /** @return {@code true} if no hash has been dropped, so estimates are exact counts. */
+    public boolean isExact() {
+        return theta == Long.MAX_VALUE;
+    }
+
+    /** @return The estimated number of distinct keys added. */
+    public double estimate() {
+        compact();
+        return scale(retained, theta);
+    }
+
+    /** @return The relative standard error of {@link #estimate()}, or 0 while exact. */
+    public double relativeStandardError() {
+        return isExact() ? 0 : 1 / Math.sqrt(k - 1);
+    }
+
+    /** @return A new sketch of the keys added to either sketch. */
+    public KmvSketch union(KmvSketch other) {
+        KmvSketch result = new KmvSketch(Math.min(k, other.k));
+        result.theta = Math.min(theta, other.theta);
+        compact();
+        other.compact();
+        for (int i = 0; i < retained; i++) result.addHash(hashes[i]);
+        for (int i = 0; i < other.retained; i++) result.addHash(other.hashes[i]);
+        result.compact();
+        return result;
+    }
+
+    /**
+     * Estimates how many distinct keys were added to every one of the sketches.
+     *
+     * @param sketches At least one sketch.
+     * @return The estimate; exact if every sketch {@linkplain #isExact() is exact}.
+     */
+    public static double intersectionEstimate(KmvSketch... sketches) {
+        if (sketches.length == 0) {
+            throw new IllegalArgumentException("At least one sketch is required");
+        }
+        long theta = Long.MAX_VALUE;
+        for (KmvSketch sketch : sketches) {
+            sketch.compact();
+            theta = Math.min(theta, sketch.theta);
+        }
+
+        long[] common = below(sketches[0], theta);
+        for (int i = 1; i < sketches.length && common.length > 0; i++) {
+            common = SetIntersection.findIntersection(common, below(sketches[i], theta));
+        }
+        return scale(common.length, theta);
+    }
+
+    private static long[] below(KmvSketch sketch, long theta) {
+        int n = Arrays.binarySearch(sketch.hashes, 0, sketch.retained, theta);
+        return Arrays.copyOf(sketch.hashes, n >= 0 ? n : -n - 1);
+    }
+
+    private static double scale(int hashes, long theta) {
+        return theta == Long.MAX_VALUE ? hashes : hashes / ((double) theta / Long.MAX_VALUE);
+    }
+
+    /** @return The serialized sketch: magic, k, theta, then the retained hashes. */
+    public byte[] toByteArray() {
+        compact();
+        ByteBuffer buffer = ByteBuffer.allocate(20 + 8 * retained);
+        buffer.putInt(MAGIC).putInt(k).putLong(theta).putInt(retained);
+        for (int i = 0; i < retained; i++) {
+            buffer.putLong(hashes[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @param bytes A sketch written by {@link #toByteArray()}.
+     * @return The sketch.
+     * @throws IllegalArgumentException if the bytes are not a serialized sketch.
+     */
+    public static KmvSketch fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < 20 || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a serialized KmvSketch");
+        }
+        KmvSketch sketch = new KmvSketch(buffer.getInt());
+        sketch.theta = buffer.getLong();
+        int retained = buffer.getInt();
+        sketch.hashes = new long[Math.max(retained, sketch.hashes.length)];
+        for (int i = 0; i < retained; i++) {
+            sketch.hashes[i] = buffer.getLong();
+        }
+        sketch.retained = sketch.count = retained;
+        return sketch;
+    }
+
+    @Override
+    public String toString() {
+        return "KmvSketch{k=" + k + ", estimate=" + estimate() + ", exact=" + isExact() + "}";
+    }
+}
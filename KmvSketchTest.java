@@ -0,0 +1,145 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code KmvSketch}.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Below {@code k} distinct keys the sketch is exact, duplicates included, and it stops being
+ *         exact at {@code k + 1} keys, from the smallest {@code k} up.</li>
+ *     <li>Distinct-count and intersection estimates stay within the stated relative standard error
+ *         over many independent key sets.</li>
+ *     <li>A union equals the sketch of all keys, and serialization round-trips.</li>
+ * </ul>
+ * </p>
+ */
+public class KmvSketchTest {
+
+    private static final int TRIALS = 30;
+
+    private static KmvSketch sketch(int k, long from, long to) {
+        KmvSketch sketch = new KmvSketch(k);
+        for (long key = from; key < to; key++) {
+            sketch.add(key);
+        }
+        return sketch;
+    }
+
+    @Test
+    public void testExactBelowK() {
+        KmvSketch sketch = new KmvSketch(100);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("key-" + i % 60);
+        }
+        assertTrue(sketch.isExact());
+        assertEquals(60, sketch.estimate());
+        assertEquals(0, sketch.relativeStandardError());
+
+        KmvSketch other = sketch(100, 40, 90);
+        assertEquals(20, KmvSketch.intersectionEstimate(sketch(100, 0, 60), other));
+        assertEquals(50, KmvSketch.intersectionEstimate(other));
+        assertEquals(0, new KmvSketch(2).estimate());
+    }
+
+    @Test
+    public void testEstimateWithinStandardError() {
+        int k = 1024, n = 50_000;
+        double sumSquares = 0;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            KmvSketch sketch = sketch(k, trial * 1_000_000_000L, trial * 1_000_000_000L + n);
+            assertFalse(sketch.isExact());
+            double error = (sketch.estimate() - n) / n;
+            assertTrue(Math.abs(error) < 4 * sketch.relativeStandardError(), "Trial " + trial + ": " + error);
+            sumSquares += error * error;
+        }
+        double rms = Math.sqrt(sumSquares / TRIALS);
+        assertTrue(rms < 1.5 / Math.sqrt(k - 1), "RMS error " + rms);
+    }
+
+    @Test
+    public void testIntersectionWithinStandardError() {
+        int k = 2048, n = 40_000, overlap = 10_000, union = 2 * n - overlap;
+        double bound = 4 / Math.sqrt(k - 1) * union;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            long base = trial * 1_000_000_000L;
+            KmvSketch a = sketch(k, base, base + n), b = sketch(k, base + n - overlap, base + 2 * n - overlap);
+            double estimate = KmvSketch.intersectionEstimate(a, b);
+            assertEquals(overlap, estimate, bound, "Trial " + trial);
+
+            KmvSketch c = sketch(k, base + n - overlap / 2, base + 3 * n);
+            assertEquals(overlap / 2.0, KmvSketch.intersectionEstimate(a, b, c), 4 / Math.sqrt(k - 1) * 3 * n,
+                    "Trial " + trial);
+        }
+        assertThrows(IllegalArgumentException.class, () -> KmvSketch.intersectionEstimate());
+    }
+
+    @Test
+    public void testUnionEqualsSketchOfAllKeys() {
+        for (int k : new int[] {2, 16, 500}) {
+            KmvSketch a = sketch(k, 0, 3000), b = sketch(k, 2000, 7000);
+            assertArrayEquals(sketch(k, 0, 7000).toByteArray(), a.union(b).toByteArray(), "k = " + k);
+            assertArrayEquals(sketch(k, 0, 7000).toByteArray(), b.union(a).toByteArray(), "k = " + k);
+        }
+        KmvSketch smaller = sketch(64, 0, 5000).union(sketch(256, 0, 5000));
+        assertEquals(1 / Math.sqrt(63), smaller.relativeStandardError(), 1e-12);
+    }
+
+    @Test
+    public void testSerializationRoundTrip() {
+        for (KmvSketch sketch : new KmvSketch[] {new KmvSketch(8), sketch(8, 0, 5), sketch(300, 0, 100_000)}) {
+            byte[] bytes = sketch.toByteArray();
+            KmvSketch read = KmvSketch.fromByteArray(bytes);
+            assertEquals(sketch.estimate(), read.estimate());
+            assertEquals(sketch.isExact(), read.isExact());
+            assertArrayEquals(bytes, read.toByteArray());
+
+            // A deserialized sketch keeps accepting keys
+            read.add(-1L);
+            sketch.add(-1L);
+            assertArrayEquals(sketch.toByteArray(), read.toByteArray());
+        }
+        assertThrows(IllegalArgumentException.class, () -> KmvSketch.fromByteArray(new byte[24]));
+        assertThrows(IllegalArgumentException.class, () -> new KmvSketch(1));
+        assertThrows(IllegalArgumentException.class, () -> KmvSketch.forRelativeError(0));
+        assertTrue(KmvSketch.forRelativeError(0.02).relativeStandardError() <= 0.02
+                || KmvSketch.forRelativeError(0.02).isExact());
+    }
+
+    /**
+     * Tests the point where a sketch stops being exact, each key added twice.
+     *
+     * @param k     Hashes retained.
+     * @param n     Distinct keys added.
+     * @param exact Whether the estimate is still the exact count.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "2, 0, true",
+        "2, 1, true",
+        "2, 2, true",
+        "2, 3, false",
+        "100, 99, true",
+        "100, 100, true",
+        "100, 101, false",
+        "4096, 4096, true",
+        "4096, 4097, false"
+    })
+    public void testExactUpToK(int k, int n, boolean exact) {
+        KmvSketch sketch = sketch(k, 0, n);
+        for (long key = 0; key < n; key++) {
+            sketch.add(key);
+        }
+        double estimate = sketch.estimate();
+        assertEquals(exact, sketch.isExact());
+        if (exact) {
+            assertEquals(n, estimate);
+            assertEquals(n, KmvSketch.intersectionEstimate(sketch, sketch(k, 0, n)));
+        } else {
+            assertEquals(n, estimate, 4 * sketch.relativeStandardError() * n);
+        }
+        assertEquals(estimate, KmvSketch.fromByteArray(sketch.toByteArray()).estimate());
+    }
+}
@@ -0,0 +1,455 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Process-wide counters, latency histograms and gauges for the hot paths: version parsing,
+ * condition resolution and schema inference.
+ * <p>
+ * Recording is off by default. While it is off, a counter increment or a timed section costs one
+ * volatile read and nothing is allocated. It is configured with system properties:
+ * <ul>
+ *     <li>{@code -Dmetrics.enabled=true} turns recording on; {@link #setEnabled} does the same at run time.</li>
+ *     <li>{@code -Dmetrics.jfr=true} also emits every timed section as a {@code com.example.Operation}
+ *         JFR event, so it lines up with GC and I/O events in a flight recording.</li>
+ *     <li>{@code -Dmetrics.export=<file>} turns recording on and writes a snapshot to the file when
+ *         the JVM exits, as JSON if the name ends in {@code .json} and as text otherwise.</li>
+ * </ul>
+ * Latencies are kept in nanoseconds in a histogram with exponentially sized buckets, each split
+ * into 64 linear sub-buckets as in HdrHistogram, so every percentile is within about 1.6% of the
+ * recorded value whatever its magnitude, and recording is a single atomic increment.
+ * </p>
+ * <p>Recorded names:
+ * <ul>
+ *     <li>{@code semver.constructed} counts parsed {@code SemanticVersion}s; the gauges
+ *         {@code semver.cache.hits}, {@code .misses} and {@code .evictions} read the shared cache.</li>
+ *     <li>{@code condition.preferLarger}, {@code condition.preferSmaller} and their numeric
+ *         counterparts time each condition selection.</li>
+ *     <li>{@code schema.io}, {@code schema.parse} and {@code schema.infer} time the stages of a file
+ *         read with org.json, where {@code schema.io} is opening the file and each read from it
+ *         while org.json parses the stream. {@code schema.stream} times parsing and folding with
+ *         the pull parser, which interleaves them, and {@code schema.merge} times combining
+ *         partial schemas.
+ *         {@code schema.files} and {@code schema.bytes} count what was read.</li>
+ * </ul>
+ * </p>
+ */
+public final class Metrics {
+
+    /** Returned by {@link #start()} while recording is off; {@link Timer#stop} ignores it. */
+    public static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private static volatile boolean enabled = Boolean.getBoolean("metrics.enabled");
+    private static volatile boolean jfr = Boolean.getBoolean("metrics.jfr");
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    static {
+        String export = System.getProperty("metrics.export");
+        if (export != null) {
+            enabled = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    export(Paths.get(export));
+                } catch (IOException e) {
+                    System.err.println("Cannot export metrics to " + export + ": " + e.getMessage());
+                }
+            }, "metrics-export"));
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /** @return Whether counters and timers currently record. */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /** Turns JFR events for timed sections on or off; they are only emitted while recording is enabled. */
+    public static void setJfrEnabled(boolean jfrEnabled) {
+        jfr = jfrEnabled;
+    }
+
+    /**
+     * @param name Dot-separated name, e.g. {@code semver.constructed}.
+     * @return The counter with this name, created on first use. Keep it in a static field on hot paths.
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * @param name Dot-separated name, e.g. {@code schema.io}.
+     * @return The timer with this name, created on first use. Keep it in a static field on hot paths.
+     */
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, Timer::new);
+    }
+
+    /**
+     * Registers a value that is read when a snapshot is taken, e.g. a count some class already keeps.
+     * A later registration under the same name replaces the earlier one.
+     */
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    /**
+     * Starts a timed section; pass the result to {@link Timer#stop} or {@link #stop(String, long)}.
+     *
+     * @return The current {@link System#nanoTime()}, or {@link #NOT_STARTED} while recording is off.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : NOT_STARTED;
+    }
+
+    /**
+     * Ends a timed section by name. The timer is only looked up when the section was started
+     * with recording on, so this suits code that has no class of its own to hold a {@link Timer}.
+     */
+    public static void stop(String name, long start) {
+        if (start != NOT_STARTED) timer(name).record(System.nanoTime() - start);
+    }
+
+    /** Clears every counter and timer. Gauges are kept, since they only read state owned elsewhere. */
+    public static void reset() {
+        COUNTERS.values().forEach(Counter::reset);
+        TIMERS.values().forEach(Timer::reset);
+    }
+
+    /** @return A point-in-time copy of every counter, gauge and timer, sorted by name. */
+    public static Snapshot snapshot() {
+        Map<String, Long> counters = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> counters.put(name, counter.count()));
+        GAUGES.forEach((name, gauge) -> counters.put(name, gauge.getAsLong()));
+        Map<String, TimerSnapshot> timers = new TreeMap<>();
+        TIMERS.forEach((name, timer) -> timers.put(name, timer.snapshot()));
+        return new Snapshot(counters, timers);
+    }
+
+    /**
+     * Writes a snapshot to a file, replacing it atomically.
+     *
+     * @param file Written as JSON if its name ends in {@code .json}, as aligned text otherwise.
+     */
+    public static void export(Path file) throws IOException {
+        Snapshot snapshot = snapshot();
+        String content = file.getFileName().toString().endsWith(".json") ? snapshot.toJson() : snapshot.toText();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** A monotonically increasing count. */
+    public static final class Counter {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public void increment() {
+            if (enabled) count.increment();
+        }
+
+        public void add(long amount) {
+            if (enabled) count.add(amount);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        private void reset() {
+            count.reset();
+        }
+
+        @Override
+        public String toString() {
+            return name + "=" + count();
+        }
+    }
+
+    /** A latency histogram in nanoseconds. */
+    public static final class Timer {
+        private final String name;
+        private final Histogram histogram = new Histogram();
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        /** Same as {@link Metrics#start()}. */
+        public long start() {
+            return Metrics.start();
+        }
+
+        /** Records the time since {@code start}, unless the section was started with recording off. */
+        public void stop(long start) {
+            if (start != NOT_STARTED) record(System.nanoTime() - start);
+        }
+
+        /** Records a duration measured elsewhere, e.g. summed over several calls. */
+        public void record(long nanos) {
+            if (!enabled) return;
+            histogram.record(Math.max(0, nanos));
+            if (jfr) OperationEvent.emit(name, nanos);
+        }
+
+        public TimerSnapshot snapshot() {
+            return histogram.snapshot();
+        }
+
+        private void reset() {
+            histogram.reset();
+        }
+
+        @Override
+        public String toString() {
+            return name + "=" + snapshot();
+        }
+    }
+
+    /**
+     * Log-linear buckets: values below 128 have a bucket each, and every power of two above that
+     * is split into 64 equal sub-buckets. Bucket {@code shift * 64 + top} holds the values whose
+     * seven most significant bits are {@code top} once shifted right by {@code shift}.
+     */
+    private static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 6;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (63 - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        static int index(long value) {
+            if (value < 2 * SUB_BUCKETS) return (int) value;
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+        }
+
+        /** @return The largest value that falls into {@code index}. */
+        static long highestValue(int index) {
+            if (index < 2 * SUB_BUCKETS) return index;
+            int shift = (index >>> SUB_BUCKET_BITS) - 1;
+            long top = (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+            return ((top + 1) << shift) - 1;
+        }
+
+        void record(long value) {
+            counts.incrementAndGet(index(value));
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        TimerSnapshot snapshot() {
+            long[] copy = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+                count += copy[i];
+            }
+            return new TimerSnapshot(copy, count, total.sum(), max.get());
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+            total.reset();
+            max.reset();
+        }
+    }
+
+    /** The recorded latencies of a {@link Timer} at the time of a {@link #snapshot()}. */
+    public static final class TimerSnapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private TimerSnapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long totalNanos() {
+            return totalNanos;
+        }
+
+        public long maxNanos() {
+            return maxNanos;
+        }
+
+        public double meanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * @param percentile Between 0 and 100.
+         * @return The smallest bucket bound that at least {@code percentile}% of the recorded values
+         *         are at or below, capped at the maximum; 0 if nothing was recorded.
+         */
+        public long percentileNanos(double percentile) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(Histogram.highestValue(i), maxNanos);
+            }
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count + ", mean=" + (long) meanNanos() + "ns, p50=" + percentileNanos(50)
+                    + "ns, p99=" + percentileNanos(99) + "ns, max=" + maxNanos + "ns}";
+        }
+    }
+
+    /** Counters (including gauges) and timers at one point in time. */
+    public static final class Snapshot {
+        private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+        private final Map<String, Long> counters;
+        private final Map<String, TimerSnapshot> timers;
+
+        private Snapshot(Map<String, Long> counters, Map<String, TimerSnapshot> timers) {
+            this.counters = Collections.unmodifiableMap(counters);
+            this.timers = Collections.unmodifiableMap(timers);
+        }
+
+        public Map<String, Long> counters() {
+            return counters;
+        }
+
+        public Map<String, TimerSnapshot> timers() {
+            return timers;
+        }
+
+        /** @return The count of a counter or gauge, 0 if none has this name. */
+        public long counter(String name) {
+            return counters.getOrDefault(name, 0L);
+        }
+
+        /** @return The snapshot of a timer, or {@code null} if none has this name. */
+        public TimerSnapshot timer(String name) {
+            return timers.get(name);
+        }
+
+        /** One line per counter, then one per timer with its percentiles in microseconds. */
+        public String toText() {
+            StringBuilder out = new StringBuilder();
+            counters.forEach((name, count) -> out.append(String.format("%-40s %d%n", name, count)));
+            if (!timers.isEmpty()) {
+                out.append(String.format("%-40s %10s %10s %10s %10s %10s %10s %10s%n",
+                        "timer (us)", "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+            }
+            timers.forEach((name, timer) -> {
+                out.append(String.format("%-40s %10d %10.1f", name, timer.count(), micros(timer.meanNanos())));
+                for (double percentile : PERCENTILES) {
+                    out.append(String.format(" %10.1f", micros(timer.percentileNanos(percentile))));
+                }
+                out.append(String.format(" %10.1f%n", micros(timer.maxNanos())));
+            });
+            return out.toString();
+        }
+
+        /** {@code {"counters": {name: count}, "timers": {name: {"count", "totalNanos", "meanNanos", "p50Nanos", ..., "maxNanos"}}}} */
+        public String toJson() {
+            StringBuilder out = new StringBuilder("{\n  \"counters\": {");
+            String separator = "\n";
+            for (Map.Entry<String, Long> entry : counters.entrySet()) {
+                out.append(separator).append("    ").append(quote(entry.getKey())).append(": ").append(entry.getValue());
+                separator = ",\n";
+            }
+            out.append(counters.isEmpty() ? "}" : "\n  }").append(",\n  \"timers\": {");
+            separator = "\n";
+            for (Map.Entry<String, TimerSnapshot> entry : timers.entrySet()) {
+                TimerSnapshot timer = entry.getValue();
+                out.append(separator).append("    ").append(quote(entry.getKey()))
+                        .append(": {\"count\": ").append(timer.count())
+                        .append(", \"totalNanos\": ").append(timer.totalNanos())
+                        .append(", \"meanNanos\": ").append(Math.round(timer.meanNanos()));
+                for (double percentile : PERCENTILES) {
+                    String label = percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+                    out.append(", \"p").append(label).append("Nanos\": ").append(timer.percentileNanos(percentile));
+                }
+                out.append(", \"maxNanos\": ").append(timer.maxNanos()).append('}');
+                separator = ",\n";
+            }
+            return out.append(timers.isEmpty() ? "}" : "\n  }").append("\n}\n").toString();
+        }
+
+        private static double micros(double nanos) {
+            return nanos / TimeUnit.MICROSECONDS.toNanos(1);
+        }
+
+        private static String quote(String name) {
+            StringBuilder quoted = new StringBuilder("\"");
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c == '"' || c == '\\') quoted.append('\\').append(c);
+                else if (c < 0x20) quoted.append(String.format("\\u%04x", (int) c));
+                else quoted.append(c);
+            }
+            return quoted.append('"').toString();
+        }
+    }
+
+    /** A timed section, for correlating the metrics with the rest of a flight recording. */
+    @Name("com.example.Operation")
+    @Label("Instrumented Operation")
+    @Category("Hot Paths")
+    static final class OperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+
+        static void emit(String operation, long nanos) {
+            OperationEvent event = new OperationEvent();
+            if (!event.isEnabled()) return;
+            event.operation = operation;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import com.example.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code Metrics}.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Nothing is recorded while metrics are disabled, which is the default.</li>
+ *     <li>{@code SemanticVersion} constructions are counted, and the shared cache is visible as gauges.</li>
+ *     <li>Histogram percentiles stay within the bucket precision across magnitudes.</li>
+ *     <li>Snapshots export as text and as JSON.</li>
+ * </ul>
+ * </p>
+ */
+public class MetricsTest {
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void resetMetrics() {
+        Metrics.reset();
+    }
+
+    @AfterEach
+    public void disableMetrics() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void testDisabledByDefaultAndRecordsNothing() {
+        assertFalse(Metrics.isEnabled());
+        assertEquals(Metrics.NOT_STARTED, Metrics.start());
+
+        new SemanticVersion("1.2.3");
+        Metrics.timer("test.disabled").record(1000);
+        Metrics.stop("test.disabled", Metrics.start());
+
+        assertEquals(0, Metrics.snapshot().counter("semver.constructed"));
+        assertEquals(0, Metrics.snapshot().timer("test.disabled").count());
+    }
+
+    @Test
+    public void testCountsVersionConstructions() {
+        Metrics.setEnabled(true);
+        new SemanticVersion("1.2.3-beta.1");
+        SemanticVersion.parse("v2.0.0".toCharArray(), 1, 5);
+        assertThrows(IllegalArgumentException.class, () -> new SemanticVersion("1.x"));
+
+        Metrics.Snapshot snapshot = Metrics.snapshot();
+        assertEquals(2, snapshot.counter("semver.constructed"));
+
+        long misses = snapshot.counter("semver.cache.misses");
+        String fresh = "7.7.7-metrics-test." + System.nanoTime();
+        SemanticVersion.of(fresh);
+        SemanticVersion.of(fresh);
+        assertEquals(misses + 1, Metrics.snapshot().counter("semver.cache.misses"));
+        assertEquals(3, Metrics.snapshot().counter("semver.constructed"));
+    }
+
+    @Test
+    public void testPercentilesWithinBucketPrecision() {
+        Metrics.setEnabled(true);
+        Metrics.Timer timer = Metrics.timer("test.latency");
+        for (long nanos = 1; nanos <= 1_000_000; nanos++) {
+            timer.record(nanos);
+        }
+
+        Metrics.TimerSnapshot snapshot = timer.snapshot();
+        assertEquals(1_000_000, snapshot.count());
+        assertEquals(1_000_000, snapshot.maxNanos());
+        assertEquals(500_000.5, snapshot.meanNanos(), 1e-9);
+        for (double percentile : new double[] {0.001, 0.01, 1, 50, 90, 99, 99.9}) {
+            double expected = percentile / 100 * 1_000_000;
+            assertEquals(expected, snapshot.percentileNanos(percentile), Math.max(1, expected / 64),
+                    "p" + percentile);
+        }
+        assertEquals(1_000_000, snapshot.percentileNanos(100));
+    }
+
+    @Test
+    public void testTimesSections() throws InterruptedException {
+        Metrics.setEnabled(true);
+        long start = Metrics.start();
+        Thread.sleep(5);
+        Metrics.stop("test.section", start);
+
+        Metrics.TimerSnapshot snapshot = Metrics.snapshot().timer("test.section");
+        assertEquals(1, snapshot.count());
+        assertTrue(snapshot.maxNanos() >= 5_000_000, "Slept for at least 5 ms, recorded " + snapshot.maxNanos());
+    }
+
+    @Test
+    public void testExportsTextAndJson() throws IOException {
+        Metrics.setEnabled(true);
+        Metrics.counter("test.files").add(3);
+        Metrics.timer("test.read").record(2_000);
+
+        Path text = directory.resolve("metrics.txt");
+        Path json = directory.resolve("metrics.json");
+        Metrics.export(text);
+        Metrics.export(json);
+
+        assertTrue(Files.readString(text).matches("(?s).*test\\.files +3\n.*test\\.read +1 +2\\.0 .*"));
+        String exported = Files.readString(json);
+        assertTrue(exported.contains("\"test.files\": 3"), exported);
+        assertTrue(exported.contains("\"test.read\": {\"count\": 1, \"totalNanos\": 2000, \"meanNanos\": 2000, \"p50Nanos\": 2000"), exported);
+        assertTrue(exported.contains("\"p99.9Nanos\": 2000, \"maxNanos\": 2000}"), exported);
+    }
+}
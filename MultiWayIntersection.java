@@ -0,0 +1,223 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The N-way {@code int[]} intersection behind {@link SetIntersection#findIntersection(int[]...)}.
+ * <p>
+ * The inputs are ordered by size and the smallest one, without duplicates, becomes the running
+ * result. Each following input only marks which running keys it contains, in a {@code boolean[]}
+ * parallel to the running result, which is then compacted:
+ * <ul>
+ *     <li>If the running result and the input are both sorted, slices of the running result gallop
+ *         through the input.</li>
+ *     <li>Otherwise the running result is loaded into a linear-probing table of indices, and slices
+ *         of the input probe it.</li>
+ * </ul>
+ * Work stops as soon as the running result is empty. Above {@link #PARALLEL_THRESHOLD} keys the
+ * slices run on a {@link ForkJoinPool}. They share the read-only arrays and only store {@code true}
+ * into the marks, so they need no locking and allocate nothing per key.
+ * </p>
+ */
+final class MultiWayIntersection {
+
+    /** Inputs with fewer keys to scan than this are marked on the calling thread. */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /** Keys per fork/join leaf. */
+    private static final int SLICE_SIZE = 1 << 13;
+
+    private MultiWayIntersection() {
+    }
+
+    static int[] intersect(int[][] sets, ForkJoinPool pool) {
+        if (sets.length == 0) {
+            throw new IllegalArgumentException("At least one set is required");
+        }
+        int[][] ordered = sets.clone();
+        Arrays.sort(ordered, Comparator.comparingInt(set -> set.length));
+
+        boolean runningSorted = SetIntersection.isSorted(ordered[0]);
+        int[] running = distinct(ordered[0], runningSorted);
+
+        for (int k = 1; k < ordered.length && running.length > 0; k++) {
+            int[] other = ordered[k];
+            boolean[] marks = new boolean[running.length];
+            if (runningSorted && SetIntersection.isSorted(other)) {
+                markSorted(running, other, marks, pool);
+            } else {
+                markHashed(running, other, marks, pool);
+            }
+            running = compact(running, marks);
+        }
+        return running;
+    }
+
+    private static void markSorted(int[] running, int[] other, boolean[] marks, ForkJoinPool pool) {
+        if (running.length < PARALLEL_THRESHOLD) {
+            gallop(running, other, marks, 0, running.length);
+        } else {
+            pool.invoke(new GallopTask(running, other, marks, 0, running.length));
+        }
+    }
+
+    private static void markHashed(int[] running, int[] other, boolean[] marks, ForkJoinPool pool) {
+        IndexTable table = new IndexTable(running);
+        if (other.length < PARALLEL_THRESHOLD) {
+            probe(table, other, marks, 0, other.length);
+        } else {
+            pool.invoke(new ProbeTask(table, other, marks, 0, other.length));
+        }
+    }
+
+    /** Marks {@code running[from, to)} keys that occur in the sorted {@code other}. */
+    private static void gallop(int[] running, int[] other, boolean[] marks, int from, int to) {
+        int position = Arrays.binarySearch(other, running[from]);
+        if (position < 0) position = -position - 1;
+
+        for (int i = from; i < to && position < other.length; i++) {
+            int key = running[i];
+            int step = 1, hi = position;
+            while (hi < other.length && other[hi] < key) {
+                position = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(other, position, Math.min(hi + 1, other.length), key);
+            if (found >= 0) {
+                marks[i] = true;
+                position = found + 1;
+            } else {
+                position = -found - 1;
+            }
+        }
+    }
+
+    /** Marks the running keys that occur in {@code other[from, to)}. */
+    private static void probe(IndexTable table, int[] other, boolean[] marks, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int index = table.indexOf(other[i]);
+            if (index >= 0) marks[index] = true;
+        }
+    }
+
+    private static int[] distinct(int[] keys, boolean sorted) {
+        int[] result = new int[keys.length];
+        int count = 0;
+        if (sorted) {
+            for (int i = 0; i < keys.length; i++) {
+                if (i == 0 || keys[i] != keys[i - 1]) result[count++] = keys[i];
+            }
+        } else {
+            IndexTable seen = new IndexTable(keys.length);
+            for (int key : keys) {
+                if (seen.add(key, count)) result[count++] = key;
+            }
+        }
+        return count == keys.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static int[] compact(int[] running, boolean[] marks) {
+        int count = 0;
+        for (int i = 0; i < running.length; i++) {
+            if (marks[i]) running[count++] = running[i];
+        }
+        return count == running.length ? running : Arrays.copyOf(running, count);
+    }
+
+    /** A linear-probing map from distinct keys to their index in the running result. */
+    private static final class IndexTable {
+        private final int[] keys;
+        private final int[] indices; // index + 1, so that 0 marks a free slot
+        private final int mask, shift;
+
+        IndexTable(int size) {
+            int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+            keys = new int[capacity];
+            indices = new int[capacity];
+            mask = capacity - 1;
+            shift = Integer.numberOfLeadingZeros(mask);
+        }
+
+        IndexTable(int[] distinctKeys) {
+            this(distinctKeys.length);
+            for (int i = 0; i < distinctKeys.length; i++) {
+                add(distinctKeys[i], i);
+            }
+        }
+
+        /** @return {@code false} if the key was already present. */
+        boolean add(int key, int index) {
+            int slot = (key * 0x9E3779B9) >>> shift & mask;
+            while (indices[slot] != 0) {
+                if (keys[slot] == key) return false;
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            indices[slot] = index + 1;
+            return true;
+        }
+
+        /** @return The index of the key, or {@code -1} if absent. */
+        int indexOf(int key) {
+            int slot = (key * 0x9E3779B9) >>> shift & mask;
+            while (indices[slot] != 0) {
+                if (keys[slot] == key) return indices[slot] - 1;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+    }
+
+    private static final class GallopTask extends RecursiveAction {
+        private final int[] running, other;
+        private final boolean[] marks;
+        private final int from, to;
+
+        GallopTask(int[] running, int[] other, boolean[] marks, int from, int to) {
+            this.running = running;
+            this.other = other;
+            this.marks = marks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE_SIZE) {
+                gallop(running, other, marks, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GallopTask(running, other, marks, from, mid),
+                      new GallopTask(running, other, marks, mid, to));
+        }
+    }
+
+    private static final class ProbeTask extends RecursiveAction {
+        private final IndexTable table;
+        private final int[] other;
+        private final boolean[] marks;
+        private final int from, to;
+
+        ProbeTask(IndexTable table, int[] other, boolean[] marks, int from, int to) {
+            this.table = table;
+            this.other = other;
+            this.marks = marks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE_SIZE) {
+                probe(table, other, marks, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ProbeTask(table, other, marks, from, mid),
+                      new ProbeTask(table, other, marks, mid, to));
+        }
+    }
+}
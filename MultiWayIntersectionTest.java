@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code MultiWayIntersection} and the N-way {@code SetIntersection.findIntersection} overloads.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>The result is the {@code HashSet} intersection of all inputs, without duplicates, in the
+ *         order of the smallest input, for sorted, unsorted and mixed inputs.</li>
+ *     <li>Inputs above the parallel threshold give the same result on the common pool and on a given pool.</li>
+ *     <li>A single input is deduplicated, an empty input empties the result, and no input is rejected.</li>
+ *     <li>Hand-picked inputs, from single keys to keys at the ends of the range, give the expected keys.</li>
+ * </ul>
+ * </p>
+ */
+public class MultiWayIntersectionTest {
+
+    /** @return The distinct keys of the smallest set (the first of equal size) that are in every set, in order. */
+    private static int[] expected(int[]... sets) {
+        int[] smallest = sets[0];
+        for (int[] set : sets) {
+            if (set.length < smallest.length) smallest = set;
+        }
+        return TestData.distinctCommon(smallest, sets);
+    }
+
+    /**
+     * Tests random inputs, each sorted or not according to a bit of the mask.
+     *
+     * @param sortedMask Bit {@code k} sorts input {@code k}.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {0, 0b1111, 0b0101, 0b1000, 0b0001})
+    public void testMatchesHashSet(int sortedMask) {
+        Random random = new Random(sortedMask);
+        int[][] sets = {TestData.randomInts(random, 3_000, 5_000), TestData.randomInts(random, 20_000, 5_000),
+                TestData.randomInts(random, 800, 5_000), TestData.randomInts(random, 9_000, 5_000)};
+        for (int k = 0; k < sets.length; k++) {
+            if ((sortedMask & 1 << k) != 0) Arrays.sort(sets[k]);
+        }
+        int[][] copies = new int[sets.length][];
+        for (int k = 0; k < sets.length; k++) {
+            copies[k] = sets[k].clone();
+        }
+
+        assertArrayEquals(expected(sets), SetIntersection.findIntersection(sets));
+        assertArrayEquals(expected(sets[1], sets[3]), SetIntersection.findIntersection(new int[][] {sets[1], sets[3]}));
+        for (int k = 0; k < sets.length; k++) {
+            assertArrayEquals(copies[k], sets[k], "Inputs are left unchanged");
+        }
+    }
+
+    /**
+     * Tests inputs large enough to be split across the pool.
+     *
+     * @param sorted Whether the inputs are sorted, to gallop rather than probe.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testParallelMatchesSequential(boolean sorted) {
+        Random random = new Random(sorted ? 1 : 2);
+        int n = MultiWayIntersection.PARALLEL_THRESHOLD * 3;
+        int[][] sets = {TestData.randomInts(random, n, n * 2), TestData.randomInts(random, n + 1, n * 2),
+                TestData.randomInts(random, n * 2, n * 2)};
+        if (sorted) {
+            for (int[] set : sets) Arrays.sort(set);
+        }
+        int[] expected = expected(sets);
+        assertTrue(expected.length > MultiWayIntersection.PARALLEL_THRESHOLD / 4, "Overlap exercises every slice");
+
+        assertArrayEquals(expected, SetIntersection.findIntersection(sets));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(expected, SetIntersection.findIntersection(pool, sets));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testEdgeCases() {
+        assertArrayEquals(new int[] {3, 1, 2}, SetIntersection.findIntersection(new int[] {3, 1, 3, 2, 1}));
+        assertArrayEquals(new int[] {1, 2, 3}, SetIntersection.findIntersection(new int[] {1, 1, 2, 3, 3}));
+        assertEquals(0, SetIntersection.findIntersection(new int[] {1, 2}, new int[0], new int[] {1, 2}).length);
+        assertEquals(0, SetIntersection.findIntersection(new int[] {1, 2}, new int[] {3, 4}, new int[] {1, 2}).length);
+        assertArrayEquals(new int[] {Integer.MIN_VALUE, Integer.MAX_VALUE}, SetIntersection.findIntersection(
+                new int[] {Integer.MIN_VALUE, 0, Integer.MAX_VALUE}, new int[] {Integer.MAX_VALUE, Integer.MIN_VALUE, 5},
+                new int[] {Integer.MIN_VALUE, Integer.MAX_VALUE}));
+        assertThrows(IllegalArgumentException.class, () -> SetIntersection.findIntersection(new int[0][]));
+    }
+
+    @Test
+    public void testGenericSets() {
+        List<Set<String>> sets = new ArrayList<>();
+        sets.add(new HashSet<>(Arrays.asList("a", "b", "c", "d")));
+        sets.add(new HashSet<>(Arrays.asList("b", "c", "d", "e", "f")));
+        sets.add(new HashSet<>(Arrays.asList("c", "d", "x")));
+        assertEquals(new HashSet<>(Arrays.asList("c", "d")), SetIntersection.findIntersection(sets));
+
+        sets.add(Collections.emptySet());
+        assertTrue(SetIntersection.findIntersection(sets).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> SetIntersection.findIntersection(new ArrayList<Set<String>>()));
+    }
+
+    /**
+     * Tests hand-picked inputs.
+     *
+     * @param inputs   The inputs separated by {@code |}, each with space-separated keys, possibly none.
+     * @param expected Space-separated common keys, in the order of the smallest input.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "5, 5",
+        "'', ''",
+        "5 | 5 | 5, 5",
+        "5 | 5 | 6, ''",
+        "1 2 | | 1 2, ''",
+        "9 9 1 | 1 9 | 9 1 9 9, 1 9",
+        "1 2 3 4 5 | 5 3 1 | 3 5 7 9 11 13, 5 3",
+        "-2147483648 0 2147483647 | 2147483647 -2147483648 | 0 2147483647 -2147483648 1, 2147483647 -2147483648",
+        "1 2 3 | 1 2 3 | 1 2 3 | 1 2 3 | 1 2 3 | 4, ''"
+    })
+    public void testHandPickedInputs(String inputs, String expected) {
+        String[] parts = inputs.split("\\|", -1);
+        int[][] sets = new int[parts.length][];
+        for (int k = 0; k < parts.length; k++) {
+            sets[k] = ints(parts[k].trim());
+        }
+        assertArrayEquals(ints(expected), SetIntersection.findIntersection(sets));
+    }
+
+    private static int[] ints(String keys) {
+        return keys.isEmpty() ? new int[0] : Arrays.stream(keys.split(" ")).mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * The comparison operators that can appear in a {@code Condition}'s criteria.
+ * <p>
+ * Resolving the operator string once to an {@code Operator} lets hot paths switch on an enum
+ * instead of re-running {@code String.equals} chains on every evaluation.
+ * </p>
+ */
+public enum Operator {
+    GREATER_THAN(">"),
+    GREATER_THAN_OR_EQUAL(">="),
+    LESS_THAN("<"),
+    LESS_THAN_OR_EQUAL("<="),
+    EQUAL("=="),
+    NOT_EQUAL("!=");
+
+    private final String symbol;
+
+    Operator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /** @return The operator as written in criteria, e.g. {@code ">="}. */
+    public String symbol() {
+        return symbol;
+    }
+
+    /**
+     * Resolves an operator symbol.
+     *
+     * @param symbol One of {@code >}, {@code >=}, {@code <}, {@code <=}, {@code ==}, {@code !=}.
+     * @return The matching operator.
+     * @throws IllegalArgumentException if the symbol is unknown.
+     */
+    public static Operator of(String symbol) {
+        switch (symbol) {
+            case ">":  return GREATER_THAN;
+            case ">=": return GREATER_THAN_OR_EQUAL;
+            case "<":  return LESS_THAN;
+            case "<=": return LESS_THAN_OR_EQUAL;
+            case "==": return EQUAL;
+            case "!=": return NOT_EQUAL;
+            default: throw new IllegalArgumentException("Unknown operator: " + symbol);
+        }
+    }
+
+    /**
+     * Applies the operator to the result of a comparison.
+     *
+     * @param comparison {@code actual.compareTo(expected)} or an equivalent three-way result.
+     * @return {@code true} if {@code actual <operator> expected} holds.
+     */
+    public boolean test(int comparison) {
+        switch (this) {
+            case GREATER_THAN:          return comparison > 0;
+            case GREATER_THAN_OR_EQUAL: return comparison >= 0;
+            case LESS_THAN:             return comparison < 0;
+            case LESS_THAN_OR_EQUAL:    return comparison <= 0;
+            case EQUAL:                 return comparison == 0;
+            default:                    return comparison != 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
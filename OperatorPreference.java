@@ -0,0 +1,60 @@
+/**
+ * Precomputed 6x6 decision tables for choosing between two conditions, shared by
+ * {@code preferLarger}/{@code preferSmaller} (semantic versions) and
+ * {@code preferConditionForLargerValue}/{@code preferConditionForSmallerValue} (numbers).
+ * <p>
+ * Every pair of {@link Operator}s has a cell with three bits, one for each outcome of
+ * {@code compare(value2, value1)}. Each bit says whether to prefer the second condition when
+ * its value is lower, equal or higher. A decision is one array load and a shift, with no
+ * string comparisons, allocation or data-dependent branches.
+ * </p>
+ * <p>Rules encoded in the tables:
+ * <ul>
+ *     <li>{@link #LARGER} prefers the condition with the larger value and {@link #SMALLER} the one
+ *         with the smaller value, whatever the operators.</li>
+ *     <li>On equal values the operator that admits more values on the preferred side wins.
+ *         For {@code LARGER} the order is {@code >=}, then {@code >} and {@code !=}, then {@code <=},
+ *         {@code ==}, {@code <}. {@code SMALLER} mirrors it: {@code <=}, then {@code <} and
+ *         {@code !=}, then {@code >=}, {@code ==}, {@code >}. Operators of equal rank keep the
+ *         first condition.</li>
+ * </ul>
+ * </p>
+ */
+public enum OperatorPreference {
+    // Tie ranks indexed by Operator.ordinal(): >, >=, <, <=, ==, !=
+    LARGER(true, new int[] {5, 6, 1, 3, 2, 5}),
+    SMALLER(false, new int[] {1, 3, 5, 6, 2, 5});
+
+    private static final int OPERATORS = 6; // Operator.values().length; a constant so the constructor can use it
+
+    private static final int SECOND_IF_LOWER = 1;
+    private static final int SECOND_IF_EQUAL = 1 << 1;
+    private static final int SECOND_IF_HIGHER = 1 << 2;
+
+    private final byte[] table = new byte[OPERATORS * OPERATORS];
+
+    OperatorPreference(boolean preferHigher, int[] tieRank) {
+        for (int op1 = 0; op1 < OPERATORS; op1++) {
+            for (int op2 = 0; op2 < OPERATORS; op2++) {
+                int cell = preferHigher ? SECOND_IF_HIGHER : SECOND_IF_LOWER;
+                if (tieRank[op2] > tieRank[op1]) {
+                    cell |= SECOND_IF_EQUAL;
+                }
+                table[op1 * OPERATORS + op2] = (byte) cell;
+            }
+        }
+    }
+
+    /**
+     * Decides whether the second of two conditions is preferred.
+     *
+     * @param operator1  Operator of the first condition.
+     * @param operator2  Operator of the second condition.
+     * @param comparison {@code value2.compareTo(value1)}, or {@code Double.compare(value2, value1)}.
+     * @return {@code true} if the second condition should be returned.
+     */
+    public boolean preferSecond(Operator operator1, Operator operator2, int comparison) {
+        int cell = table[operator1.ordinal() * OPERATORS + operator2.ordinal()];
+        return ((cell >>> (Integer.signum(comparison) + 1)) & 1) != 0;
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exhaustive tests for the {@code OperatorPreference} decision tables behind
+ * {@code preferLarger}, {@code preferSmaller} and their numeric counterparts.
+ * <p>
+ * These tests verify, for all 36 pairs of {@code >}, {@code >=}, {@code <}, {@code <=}, {@code ==} and {@code !=}:
+ * <ul>
+ *     <li>The larger (or smaller) value always wins when the values differ, as in {@code testoperatorcombos}.</li>
+ *     <li>Which operator wins when the values are equal.</li>
+ * </ul>
+ * </p>
+ */
+public class OperatorPreferenceTest {
+
+    static Stream<Arguments> allOperatorPairs() {
+        return Stream.of(Operator.values())
+                .flatMap(op1 -> Stream.of(Operator.values()).map(op2 -> Arguments.of(op1, op2)));
+    }
+
+    /**
+     * Tests that differing values decide the preference regardless of the operators.
+     *
+     * @param op1 Operator of the first condition.
+     * @param op2 Operator of the second condition.
+     */
+    @ParameterizedTest
+    @MethodSource("allOperatorPairs")
+    public void testDifferentValues(Operator op1, Operator op2) {
+        assertTrue(OperatorPreference.LARGER.preferSecond(op1, op2, Double.compare(10, 5)));
+        assertFalse(OperatorPreference.LARGER.preferSecond(op1, op2, Double.compare(5, 10)));
+        assertTrue(OperatorPreference.SMALLER.preferSecond(op1, op2, Double.compare(5, 10)));
+        assertFalse(OperatorPreference.SMALLER.preferSecond(op1, op2, Double.compare(10, 5)));
+
+        SemanticVersion lower = new SemanticVersion("1.8.0-beta");
+        SemanticVersion higher = new SemanticVersion("1.8.0");
+        assertTrue(OperatorPreference.LARGER.preferSecond(op1, op2, higher.compareTo(lower)));
+        assertTrue(OperatorPreference.SMALLER.preferSecond(op1, op2, lower.compareTo(higher)));
+    }
+
+    /**
+     * Tests which condition wins when both values are equal.
+     *
+     * @param op1 Operator of the first condition.
+     * @param op2 Operator of the second condition.
+     * @param larger Expected winner ({@code first} or {@code second}) for {@code LARGER}.
+     * @param smaller Expected winner ({@code first} or {@code second}) for {@code SMALLER}.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "> , > , first , first",
+        "> , >=, second, second",
+        "> , < , first , second",
+        "> , <=, first , second",
+        "> , ==, first , second",
+        "> , !=, first , second",
+        ">=, > , first , first",
+        ">=, >=, first , first",
+        ">=, < , first , second",
+        ">=, <=, first , second",
+        ">=, ==, first , first",
+        ">=, !=, first , second",
+        "< , > , second, first",
+        "< , >=, second, first",
+        "< , < , first , first",
+        "< , <=, second, second",
+        "< , ==, second, first",
+        "< , !=, second, first",
+        "<=, > , second, first",
+        "<=, >=, second, first",
+        "<=, < , first , first",
+        "<=, <=, first , first",
+        "<=, ==, first , first",
+        "<=, !=, second, first",
+        "==, > , second, first",
+        "==, >=, second, second",
+        "==, < , first , second",
+        "==, <=, second, second",
+        "==, ==, first , first",
+        "==, !=, second, second",
+        "!=, > , first , first",
+        "!=, >=, second, first",
+        "!=, < , first , first",
+        "!=, <=, first , second",
+        "!=, ==, first , first",
+        "!=, !=, first , first"
+    })
+    public void testEqualValues(String op1, String op2, String larger, String smaller) {
+        Operator operator1 = Operator.of(op1);
+        Operator operator2 = Operator.of(op2);
+
+        assertEquals("second".equals(larger), OperatorPreference.LARGER.preferSecond(operator1, operator2, 0),
+            "Unexpected LARGER winner for " + op1 + " vs " + op2);
+        assertEquals("second".equals(smaller), OperatorPreference.SMALLER.preferSecond(operator1, operator2, 0),
+            "Unexpected SMALLER winner for " + op1 + " vs " + op2);
+    }
+}
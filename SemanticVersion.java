@@ -1,5 +1,7 @@
-import java.util.*;
-import java.util.regex.*;
+import com.example.Metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * A class for parsing and comparing Semantic Versions based on the SemVer 2.0 specification.
@@ -10,18 +12,56 @@ import java.util.regex.*;
  * <ul>
  *     <li>MAJOR, MINOR, and PATCH numbers are compared numerically.</li>
  *     <li>Pre-release versions (e.g., "alpha", "beta") are considered lower than stable versions.</li>
+ *     <li>Pre-release identifiers are split once at construction, so comparisons do not allocate.</li>
  *     <li>Build metadata (e.g., "+build.1") is ignored when comparing versions.</li>
  * </ul>
  * </p>
  */
 public class SemanticVersion implements Comparable<SemanticVersion> {
-    private final Integer major, minor, patch;
+    /**
+     * Sentinel stored in {@code major}, {@code minor} or {@code patch} when the part is a
+     * wildcard ({@code *}) or absent (e.g. the minor and patch of {@code "1"}).
+     */
+    public static final int WILDCARD = -1;
+
+    /** Returned by {@link #sortKey()} for versions that cannot be packed into a {@code long}. */
+    public static final long NO_SORT_KEY = -1L;
+
+    // Sort key layout, high to low: major | minor | patch | pre-release label | pre-release number
+    private static final int MAJOR_BITS = 15;
+    private static final int MINOR_BITS = 15;
+    private static final int PATCH_BITS = 20;
+    private static final int LABEL_BITS = 3;
+    private static final int PRE_NUMBER_BITS = 10;
+    private static final int PRE_RELEASE_BITS = LABEL_BITS + PRE_NUMBER_BITS;
+    private static final long STABLE_LABEL = 4;
+
+    /** Marks a pre-release identifier that is not purely numeric. */
+    private static final long NON_NUMERIC = -1L;
+    /** Marks a numeric pre-release identifier too large for a {@code long}; compared by its digits instead. */
+    private static final long BIG_NUMERIC = -2L;
+
+    /**
+     * Canonical instances of recently seen alphanumeric pre-release identifiers, so that equal
+     * identifiers are usually the same instance. Direct-mapped by hash: a collision replaces the
+     * slot, which keeps memory bounded whatever the input, unlike {@code String.intern()}.
+     * Unsynchronized, as a lost or stale slot only costs a {@code compareTo}.
+     */
+    private static final String[] IDENTIFIERS = new String[1024];
+
+    /** Successful parses, whichever entry point or cache miss led to them. */
+    private static final Metrics.Counter CONSTRUCTED = Metrics.counter("semver.constructed");
+
+    private final int major, minor, patch;
     private final String preRelease;
     private final String buildMetadata;
 
-    private static final Pattern SEMVER_PATTERN = Pattern.compile(
-        "^(\\d+|\\*)(?:\\.(\\d+|\\*))?(?:\\.(\\d+|\\*))?(?:-([0-9A-Za-z.-]+))?(?:\\+([0-9A-Za-z.-]+))?$"
-    );
+    /** Dot-separated pre-release identifiers (alphanumeric ones canonicalized), or {@code null} for a stable version. */
+    private final String[] preReleaseIdentifiers;
+    /** Numeric value of each pre-release identifier, or {@link #NON_NUMERIC}/{@link #BIG_NUMERIC}. */
+    private final long[] preReleaseNumbers;
+
+    private final long sortKey;
 
     /**
      * Constructs a {@code SemanticVersion} object by parsing a version string.
@@ -30,20 +70,338 @@ public class SemanticVersion implements Comparable<SemanticVersion> {
      * @throws IllegalArgumentException if the input version string is not in valid SemVer format.
      */
     public SemanticVersion(String version) {
-        Matcher matcher = SEMVER_PATTERN.matcher(version);
-        if (!matcher.matches()) {
-            throw new IllegalArgumentException("Invalid SemVer format: " + version);
+        this(version, 0, version.length());
+    }
+
+    /**
+     * Constructs a {@code SemanticVersion} object by parsing any character sequence
+     * (e.g. a {@code StringBuilder} or a {@code CharBuffer}) without copying it first.
+     *
+     * @param version The semantic version characters to be parsed.
+     * @throws IllegalArgumentException if the input is not in valid SemVer format.
+     */
+    public SemanticVersion(CharSequence version) {
+        this(version, 0, version.length());
+    }
+
+    /**
+     * Returns the version for a string, reusing a previously parsed instance from the
+     * {@linkplain SemanticVersionCache#shared() shared cache} when possible. Prefer this over
+     * the constructor when the same version strings recur.
+     *
+     * @param version The semantic version string to be parsed.
+     * @return The parsed, possibly shared, version.
+     * @throws IllegalArgumentException if the input version string is not in valid SemVer format.
+     */
+    public static SemanticVersion of(String version) {
+        return SemanticVersionCache.shared().get(version);
+    }
+
+    /**
+     * Parses a version from a slice of a character sequence.
+     *
+     * @param version The characters holding the version.
+     * @param offset  Index of the first character of the version.
+     * @param length  Number of characters in the version.
+     * @return The parsed version.
+     * @throws IllegalArgumentException if the slice is not in valid SemVer format.
+     */
+    public static SemanticVersion parse(CharSequence version, int offset, int length) {
+        checkSlice(offset, length, version.length());
+        return new SemanticVersion(version, offset, length);
+    }
+
+    /**
+     * Parses a version from a slice of a {@code char[]} buffer.
+     *
+     * @param version The buffer holding the version.
+     * @param offset  Index of the first character of the version.
+     * @param length  Number of characters in the version.
+     * @return The parsed version.
+     * @throws IllegalArgumentException if the slice is not in valid SemVer format.
+     */
+    public static SemanticVersion parse(char[] version, int offset, int length) {
+        checkSlice(offset, length, version.length);
+        return new SemanticVersion(version, offset, length);
+    }
+
+    /**
+     * Parses a version from a slice of an ASCII/UTF-8 {@code byte[]} buffer, such as one
+     * filled straight from a network channel. Any non-ASCII byte makes the version invalid.
+     *
+     * @param version The buffer holding the version.
+     * @param offset  Index of the first byte of the version.
+     * @param length  Number of bytes in the version.
+     * @return The parsed version.
+     * @throws IllegalArgumentException if the slice is not in valid SemVer format.
+     */
+    public static SemanticVersion parse(byte[] version, int offset, int length) {
+        checkSlice(offset, length, version.length);
+        return new SemanticVersion(version, offset, length);
+    }
+
+    /**
+     * Single-pass parser shared by every entry point. It accepts exactly the grammar
+     * {@code ^(\d+|\*)(?:\.(\d+|\*))?(?:\.(\d+|\*))?(?:-([0-9A-Za-z.-]+))?(?:\+([0-9A-Za-z.-]+))?$},
+     * keeps the numeric parts as primitives and only allocates strings for the
+     * pre-release and build metadata when they are present.
+     *
+     * @param src    A {@code CharSequence}, {@code char[]} or {@code byte[]}.
+     * @param offset Index of the first character to parse.
+     * @param length Number of characters to parse.
+     */
+    private SemanticVersion(Object src, int offset, int length) {
+        final int end = offset + length;
+        int pos = offset;
+        int maj = WILDCARD, min = WILDCARD, pat = WILDCARD;
+
+        for (int part = 0; part < 3; part++) {
+            if (part > 0) {
+                if (pos >= end || charAt(src, pos) != '.') break;
+                pos++;
+            }
+
+            int value;
+            if (pos < end && charAt(src, pos) == '*') {
+                value = WILDCARD;
+                pos++;
+            } else {
+                int start = pos;
+                long acc = 0;
+                while (pos < end) {
+                    char c = charAt(src, pos);
+                    if (c < '0' || c > '9') break;
+                    acc = acc * 10 + (c - '0');
+                    if (acc > Integer.MAX_VALUE) throw invalid(src, offset, length);
+                    pos++;
+                }
+                if (pos == start) throw invalid(src, offset, length);
+                value = (int) acc;
+            }
+
+            if (part == 0) maj = value;
+            else if (part == 1) min = value;
+            else pat = value;
+        }
+
+        String pre = null;
+        if (pos < end && charAt(src, pos) == '-') {
+            int start = ++pos;
+            pos = skipIdentifier(src, pos, end);
+            if (pos == start) throw invalid(src, offset, length);
+            pre = substring(src, start, pos);
+        }
+
+        String build = null;
+        if (pos < end && charAt(src, pos) == '+') {
+            int start = ++pos;
+            pos = skipIdentifier(src, pos, end);
+            if (pos == start) throw invalid(src, offset, length);
+            build = substring(src, start, pos);
+        }
+
+        if (pos != end) throw invalid(src, offset, length);
+
+        this.major = maj;
+        this.minor = min;
+        this.patch = pat;
+        this.preRelease = pre;  // Can be null if absent
+        this.buildMetadata = build;  // Can be null if absent
+        this.preReleaseIdentifiers = splitPreRelease(pre);
+        this.preReleaseNumbers = parsePreReleaseNumbers(preReleaseIdentifiers);
+        this.sortKey = packSortKey(maj, min, pat, preReleaseIdentifiers, preReleaseNumbers);
+        CONSTRUCTED.increment();
+    }
+
+    private static char charAt(Object src, int index) {
+        if (src instanceof byte[]) return (char) (((byte[]) src)[index] & 0xFF);
+        if (src instanceof char[]) return ((char[]) src)[index];
+        return ((CharSequence) src).charAt(index);
+    }
+
+    /** Advances past a run of {@code [0-9A-Za-z.-]} characters. */
+    private static int skipIdentifier(Object src, int pos, int end) {
+        while (pos < end) {
+            char c = charAt(src, pos);
+            if (!((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || c == '.' || c == '-')) {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private static String substring(Object src, int start, int end) {
+        if (src instanceof byte[]) return new String((byte[]) src, start, end - start, StandardCharsets.US_ASCII);
+        if (src instanceof char[]) return new String((char[]) src, start, end - start);
+        return ((CharSequence) src).subSequence(start, end).toString();
+    }
+
+    private static IllegalArgumentException invalid(Object src, int offset, int length) {
+        return new IllegalArgumentException("Invalid SemVer format: " + substring(src, offset, offset + length));
+    }
+
+    /**
+     * Splits a pre-release into its dot-separated identifiers. Trailing empty identifiers
+     * are dropped, as {@code String.split} did, so precedence is unchanged.
+     */
+    private static String[] splitPreRelease(String preRelease) {
+        if (preRelease == null) return null;
+
+        int count = 1;
+        for (int i = 0; i < preRelease.length(); i++) {
+            if (preRelease.charAt(i) == '.') count++;
+        }
+
+        String[] identifiers = new String[count];
+        int n = 0, start = 0;
+        for (int i = 0; i <= preRelease.length(); i++) {
+            if (i == preRelease.length() || preRelease.charAt(i) == '.') {
+                String identifier = preRelease.substring(start, i);
+                identifiers[n++] = parseNumericIdentifier(identifier) == NON_NUMERIC ? canonical(identifier) : identifier;
+                start = i + 1;
+            }
+        }
+
+        while (n > 0 && identifiers[n - 1].isEmpty()) n--;
+        return n == identifiers.length ? identifiers : Arrays.copyOf(identifiers, n);
+    }
+
+    /** @return The instance in {@link #IDENTIFIERS} equal to {@code identifier}, or {@code identifier}, which takes its slot. */
+    private static String canonical(String identifier) {
+        int h = identifier.hashCode();
+        int slot = (h ^ (h >>> 16)) & (IDENTIFIERS.length - 1);
+        String cached = IDENTIFIERS[slot];
+        if (identifier.equals(cached)) return cached;
+        IDENTIFIERS[slot] = identifier;
+        return identifier;
+    }
+
+    private static long[] parsePreReleaseNumbers(String[] identifiers) {
+        if (identifiers == null) return null;
+
+        long[] numbers = new long[identifiers.length];
+        for (int i = 0; i < identifiers.length; i++) {
+            numbers[i] = parseNumericIdentifier(identifiers[i]);
         }
+        return numbers;
+    }
 
-        this.major = parsePart(matcher.group(1));
-        this.minor = parsePart(matcher.group(2));
-        this.patch = parsePart(matcher.group(3));
-        this.preRelease = matcher.group(4);  // Can be null if absent
-        this.buildMetadata = matcher.group(5);  // Can be null if absent
+    /**
+     * @return The value of an all-digit identifier, {@link #BIG_NUMERIC} if it does not fit
+     *         in a {@code long}, or {@link #NON_NUMERIC} otherwise.
+     */
+    private static long parseNumericIdentifier(String identifier) {
+        if (identifier.isEmpty()) return NON_NUMERIC;
+
+        long value = 0;
+        boolean big = false;
+        for (int i = 0; i < identifier.length(); i++) {
+            int digit = identifier.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return NON_NUMERIC;
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                big = true;
+            } else {
+                value = value * 10 + digit;
+            }
+        }
+        return big ? BIG_NUMERIC : value;
     }
 
-    private Integer parsePart(String part) {
-        return (part == null || part.equals("*")) ? null : Integer.parseInt(part);
+    private static long packSortKey(int major, int minor, int patch, String[] identifiers, long[] numbers) {
+        if (major < 0 || major >= 1 << MAJOR_BITS) return NO_SORT_KEY;
+        if (minor < 0 || minor >= 1 << MINOR_BITS) return NO_SORT_KEY;
+        if (patch < 0 || patch >= 1 << PATCH_BITS) return NO_SORT_KEY;
+
+        long rank = preReleaseRank(identifiers, numbers);
+        if (rank < 0) return NO_SORT_KEY;
+
+        return ((long) major << (MINOR_BITS + PATCH_BITS + PRE_RELEASE_BITS))
+             | ((long) minor << (PATCH_BITS + PRE_RELEASE_BITS))
+             | ((long) patch << PRE_RELEASE_BITS)
+             | rank;
+    }
+
+    /**
+     * Ranks the pre-releases that can be packed: none (stable), a single numeric identifier
+     * ({@code 1.0.0-3}), or {@code alpha}, {@code beta} or {@code rc} optionally followed by
+     * one numeric identifier ({@code 1.0.0-rc.2}). Numbers are stored plus one so that a
+     * label without a number ranks below the same label with any number.
+     *
+     * @return The 13-bit rank, or {@code -1} if the pre-release cannot be packed.
+     */
+    private static long preReleaseRank(String[] identifiers, long[] numbers) {
+        if (identifiers == null) return STABLE_LABEL << PRE_NUMBER_BITS;
+        if (identifiers.length == 0 || identifiers.length > 2) return -1;
+
+        long label;
+        int numberIndex;
+        if (numbers[0] >= 0) {
+            if (identifiers.length != 1) return -1;
+            label = 0; // Numeric identifiers sort before alphanumeric ones
+            numberIndex = 0;
+        } else {
+            switch (identifiers[0]) {
+                case "alpha": label = 1; break;
+                case "beta":  label = 2; break;
+                case "rc":    label = 3; break;
+                default: return -1;
+            }
+            if (identifiers.length == 1) return label << PRE_NUMBER_BITS;
+            numberIndex = 1;
+        }
+
+        long number = numbers[numberIndex];
+        if (number < 0 || number + 1 >= 1 << PRE_NUMBER_BITS) return -1;
+        return (label << PRE_NUMBER_BITS) | (number + 1);
+    }
+
+    private static void checkSlice(int offset, int length, int capacity) {
+        if (offset < 0 || length < 0 || offset > capacity - length) {
+            throw new IndexOutOfBoundsException("Slice [" + offset + ", " + (offset + length) + ") out of bounds for length " + capacity);
+        }
+    }
+
+    /** @return The major version, or {@link #WILDCARD} if it is {@code *}. */
+    public int getMajor() {
+        return major;
+    }
+
+    /** @return The minor version, or {@link #WILDCARD} if it is {@code *} or absent. */
+    public int getMinor() {
+        return minor;
+    }
+
+    /** @return The patch version, or {@link #WILDCARD} if it is {@code *} or absent. */
+    public int getPatch() {
+        return patch;
+    }
+
+    /** @return The pre-release identifiers (e.g. {@code beta.1}), or {@code null} for a stable version. */
+    public String getPreRelease() {
+        return preRelease;
+    }
+
+    /** @return The build metadata, or {@code null} if absent. */
+    public String getBuildMetadata() {
+        return buildMetadata;
+    }
+
+    /**
+     * Returns a non-negative key such that comparing the keys of two versions gives the same
+     * order as {@link #compareTo}. The key packs major (15 bits), minor (15 bits),
+     * patch (20 bits) and a pre-release rank (13 bits) into one {@code long}.
+     * <p>
+     * Only versions without wildcards, within those bit widths, and with a stable or simple
+     * pre-release ({@code 3}, {@code alpha}, {@code beta.2}, {@code rc.1}, numbers up to 1022)
+     * have a key. Every other version returns {@link #NO_SORT_KEY} and must be ordered with
+     * {@link #compareTo} instead.
+     * </p>
+     *
+     * @return The packed sort key, or {@link #NO_SORT_KEY}.
+     */
+    public long sortKey() {
+        return sortKey;
     }
 
     @Override
@@ -66,9 +424,9 @@ public class SemanticVersion implements Comparable<SemanticVersion> {
      * @return {@code true} if this version matches the pattern, otherwise {@code false}.
      */
     public boolean matchesWildcard(SemanticVersion pattern) {
-        if (pattern.major != null && !pattern.major.equals(this.major)) return false;
-        if (pattern.minor != null && !pattern.minor.equals(this.minor)) return false;
-        if (pattern.patch != null && !pattern.patch.equals(this.patch)) return false;
+        if (pattern.major != WILDCARD && pattern.major != this.major) return false;
+        if (pattern.minor != WILDCARD && pattern.minor != this.minor) return false;
+        if (pattern.patch != WILDCARD && pattern.patch != this.patch) return false;
         return true;
     }
 
@@ -89,41 +447,56 @@ public class SemanticVersion implements Comparable<SemanticVersion> {
         result = Integer.compare(v1.patch, v2.patch);
         if (result != 0) return result;
 
-        return comparePreRelease(v1.preRelease, v2.preRelease);
+        return comparePreRelease(v1, v2);
     }
 
-    private static int comparePreRelease(String pr1, String pr2) {
-        if (pr1 == null && pr2 == null) return 0; // Both are stable
-        if (pr1 == null) return 1;  // Stable > Pre-release
-        if (pr2 == null) return -1; // Pre-release < Stable
+    private static int comparePreRelease(SemanticVersion v1, SemanticVersion v2) {
+        String[] ids1 = v1.preReleaseIdentifiers;
+        String[] ids2 = v2.preReleaseIdentifiers;
 
-        String[] parts1 = pr1.split("\\.");
-        String[] parts2 = pr2.split("\\.");
+        if (ids1 == null && ids2 == null) return 0; // Both are stable
+        if (ids1 == null) return 1;  // Stable > Pre-release
+        if (ids2 == null) return -1; // Pre-release < Stable
 
-        for (int i = 0; i < Math.max(parts1.length, parts2.length); i++) {
-            if (i >= parts1.length) return -1;
-            if (i >= parts2.length) return 1;
+        long[] nums1 = v1.preReleaseNumbers;
+        long[] nums2 = v2.preReleaseNumbers;
 
-            boolean isNumeric1 = parts1[i].matches("\\d+");
-            boolean isNumeric2 = parts2[i].matches("\\d+");
+        int common = Math.min(ids1.length, ids2.length);
+        for (int i = 0; i < common; i++) {
+            long num1 = nums1[i];
+            long num2 = nums2[i];
 
-            if (isNumeric1 && isNumeric2) {
-                int num1 = Integer.parseInt(parts1[i]);
-                int num2 = Integer.parseInt(parts2[i]);
-                if (num1 != num2) return Integer.compare(num1, num2);
-            } else {
-                int cmp = parts1[i].compareTo(parts2[i]);
+            if (num1 != NON_NUMERIC && num2 != NON_NUMERIC) {
+                int cmp = (num1 == BIG_NUMERIC || num2 == BIG_NUMERIC)
+                        ? compareBigNumeric(ids1[i], ids2[i])
+                        : Long.compare(num1, num2);
+                if (cmp != 0) return cmp;
+            } else if (ids1[i] != ids2[i]) { // Canonicalized, so equal identifiers are usually the same instance
+                int cmp = ids1[i].compareTo(ids2[i]);
                 if (cmp != 0) return cmp;
             }
         }
-        return 0;
+        return Integer.compare(ids1.length, ids2.length); // Fewer identifiers have lower precedence
+    }
+
+    /** Compares two all-digit identifiers numerically, ignoring leading zeros. */
+    private static int compareBigNumeric(String digits1, String digits2) {
+        int start1 = 0, start2 = 0;
+        while (start1 < digits1.length() - 1 && digits1.charAt(start1) == '0') start1++;
+        while (start2 < digits2.length() - 1 && digits2.charAt(start2) == '0') start2++;
+
+        int cmp = Integer.compare(digits1.length() - start1, digits2.length() - start2);
+        for (int i = 0; cmp == 0 && start1 + i < digits1.length(); i++) {
+            cmp = Character.compare(digits1.charAt(start1 + i), digits2.charAt(start2 + i));
+        }
+        return cmp;
     }
 
     @Override
     public String toString() {
-        return (major != null ? major : "*") + "." +
-               (minor != null ? minor : "*") + "." +
-               (patch != null ? patch : "*") +
+        return (major != WILDCARD ? String.valueOf(major) : "*") + "." +
+               (minor != WILDCARD ? String.valueOf(minor) : "*") + "." +
+               (patch != WILDCARD ? String.valueOf(patch) : "*") +
                (preRelease != null ? "-" + preRelease : "") +
                (buildMetadata != null ? "+" + buildMetadata : "");
     }
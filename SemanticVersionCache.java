@@ -0,0 +1,170 @@
+import com.example.Metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, size-bounded cache of parsed {@link SemanticVersion}s keyed by their version string.
+ * <p>
+ * {@code SemanticVersion} is immutable, so one instance can be shared by every caller that
+ * parses the same string. The cache works as follows:
+ * <ul>
+ *     <li>Hits are a single {@code ConcurrentHashMap} lookup plus setting a "recently used" flag,
+ *         with no lock.</li>
+ *     <li>Misses parse outside any lock, then take a short lock to claim a slot in a CLOCK
+ *         (second-chance LRU) ring. Entries used since the hand last passed get a second chance,
+ *         and the first unused one is evicted.</li>
+ *     <li>Hit, miss and eviction counts are kept in {@code LongAdder}s so that counting does not
+ *         become a contention point either.</li>
+ * </ul>
+ * </p>
+ */
+public class SemanticVersionCache {
+
+    /** Default capacity of the {@linkplain #shared() shared} cache. */
+    public static final int DEFAULT_MAXIMUM_SIZE = 8192;
+
+    private static final SemanticVersionCache SHARED = new SemanticVersionCache(DEFAULT_MAXIMUM_SIZE);
+
+    static {
+        Metrics.gauge("semver.cache.hits", SHARED::hitCount);
+        Metrics.gauge("semver.cache.misses", SHARED::missCount);
+        Metrics.gauge("semver.cache.evictions", SHARED::evictionCount);
+    }
+
+    private static final class Entry {
+        final SemanticVersion version;
+        volatile boolean referenced;
+
+        Entry(SemanticVersion version) {
+            this.version = version;
+        }
+    }
+
+    private final int maximumSize;
+    private final ConcurrentHashMap<String, Entry> entries;
+
+    // CLOCK ring, guarded by "ring"; only touched on a miss
+    private final String[] ring;
+    private int hand;
+    private int filled;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maximumSize The maximum number of versions kept.
+     * @throws IllegalArgumentException if {@code maximumSize} is not positive.
+     */
+    public SemanticVersionCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.entries = new ConcurrentHashMap<>(maximumSize * 4 / 3 + 1);
+        this.ring = new String[maximumSize];
+    }
+
+    /**
+     * @return The process-wide cache used by {@link SemanticVersion#of(String)}.
+     */
+    public static SemanticVersionCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the cached version for a string, parsing and caching it on a miss.
+     *
+     * @param version The semantic version string.
+     * @return The parsed version; the same instance for repeated calls while it stays cached.
+     * @throws IllegalArgumentException if the string is not in valid SemVer format. Invalid strings are not cached.
+     */
+    public SemanticVersion get(String version) {
+        Entry entry = entries.get(version);
+        if (entry != null) {
+            if (!entry.referenced) entry.referenced = true; // Avoid dirtying the cache line on every hit
+            hits.increment();
+            return entry.version;
+        }
+
+        misses.increment();
+        Entry created = new Entry(new SemanticVersion(version));
+        Entry raced = entries.putIfAbsent(version, created);
+        if (raced != null) {
+            return raced.version; // Another thread parsed the same string first
+        }
+        admit(version);
+        return created.version;
+    }
+
+    /** Places a newly inserted key in the CLOCK ring, evicting an unreferenced entry when full. */
+    private void admit(String key) {
+        synchronized (ring) {
+            if (filled < maximumSize) {
+                ring[filled++] = key;
+                return;
+            }
+
+            while (true) {
+                String candidate = ring[hand];
+                Entry entry = entries.get(candidate);
+                if (entry != null && entry.referenced) {
+                    entry.referenced = false; // Second chance
+                    hand = (hand + 1) % maximumSize;
+                    continue;
+                }
+                if (entries.remove(candidate) != null) {
+                    evictions.increment();
+                }
+                ring[hand] = key;
+                hand = (hand + 1) % maximumSize;
+                return;
+            }
+        }
+    }
+
+    /** @return The number of lookups served from the cache. */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /** @return The number of lookups that had to parse the version. */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /** @return The number of versions evicted to stay within the maximum size. */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /** @return The number of versions currently cached. */
+    public int size() {
+        return entries.size();
+    }
+
+    /** @return The maximum number of versions kept. */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /** Removes every cached version; counters are left untouched. */
+    public void clear() {
+        synchronized (ring) {
+            entries.clear();
+            Arrays.fill(ring, null);
+            hand = 0;
+            filled = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SemanticVersionCache{size=" + size() + "/" + maximumSize
+                + ", hits=" + hitCount() + ", misses=" + missCount() + ", evictions=" + evictionCount() + "}";
+    }
+}
@@ -0,0 +1,150 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code SemanticVersionCache}.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Repeated lookups return the same instance and count as hits.</li>
+ *     <li>When full, CLOCK gives recently used entries a second chance and evicts the first unused one.</li>
+ *     <li>Size and evictions stay within the bound from a single entry up, and invalid strings are
+ *         not cached; clearing keeps the counters.</li>
+ *     <li>Under concurrent lookups the counters add up and the size stays within the bound.</li>
+ * </ul>
+ * </p>
+ */
+public class SemanticVersionCacheTest {
+
+    @Test
+    public void testHitsReturnSameInstance() {
+        SemanticVersionCache cache = new SemanticVersionCache(4);
+        SemanticVersion first = cache.get("1.2.3-rc.1");
+
+        assertSame(first, cache.get("1.2.3-rc.1"));
+        assertNotSame(first, cache.get("1.2.3-rc.2"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(0, cache.evictionCount());
+        assertEquals(2, cache.size());
+        assertEquals(4, cache.maximumSize());
+    }
+
+    @Test
+    public void testClockGivesReferencedEntriesSecondChance() {
+        SemanticVersionCache cache = new SemanticVersionCache(3);
+        SemanticVersion a = cache.get("1.0.0");
+        SemanticVersion b = cache.get("2.0.0");
+        SemanticVersion c = cache.get("3.0.0");
+        cache.get("1.0.0"); // Marks 1.0.0 as used
+
+        // The hand clears 1.0.0's flag and evicts 2.0.0, the first unused entry
+        cache.get("4.0.0");
+        assertEquals(1, cache.evictionCount());
+        assertEquals(3, cache.size());
+        assertSame(a, cache.get("1.0.0"));
+        assertSame(c, cache.get("3.0.0"));
+        long misses = cache.missCount();
+        assertNotSame(b, cache.get("2.0.0"));
+        assertEquals(misses + 1, cache.missCount());
+
+        // 3.0.0 was used again since the hand passed it, 4.0.0 was not
+        assertEquals(2, cache.evictionCount());
+        assertSame(c, cache.get("3.0.0"));
+        assertEquals(3, cache.size());
+    }
+
+    /**
+     * Tests that distinct lookups fill the cache up to its bound and then evict one entry each.
+     *
+     * @param maximumSize The bound.
+     * @param distinct    Distinct versions looked up once each.
+     */
+    @ParameterizedTest
+    @CsvSource({"1, 1", "1, 5", "2, 2", "3, 3", "3, 4", "64, 63", "64, 200"})
+    public void testSizeStaysBounded(int maximumSize, int distinct) {
+        SemanticVersionCache cache = new SemanticVersionCache(maximumSize);
+        for (int i = 0; i < distinct; i++) {
+            assertEquals(i, cache.get("0." + i + ".0").getMinor());
+        }
+        assertEquals(Math.min(maximumSize, distinct), cache.size());
+        assertEquals(distinct, cache.missCount());
+        assertEquals(0, cache.hitCount());
+        assertEquals(Math.max(0, distinct - maximumSize), cache.evictionCount());
+
+        // The newest entry always survives
+        assertSame(cache.get("0." + (distinct - 1) + ".0"), cache.get("0." + (distinct - 1) + ".0"));
+    }
+
+    /**
+     * Tests that strings the parser rejects are neither cached nor counted as hits.
+     *
+     * @param version An invalid version string.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1.x", "1..0", "1.0.0-", "v1.0.0", "1.0.0+"})
+    public void testInvalidNotCached(String version) {
+        SemanticVersionCache cache = new SemanticVersionCache(2);
+        assertThrows(IllegalArgumentException.class, () -> cache.get(version));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(version));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    public void testInvalidNotCachedAndClearKeepsCounters() {
+        SemanticVersionCache cache = new SemanticVersionCache(2);
+        assertThrows(IllegalArgumentException.class, () -> cache.get("1.x"));
+        assertEquals(0, cache.size());
+
+        cache.get("1.0.0");
+        cache.get("1.0.0");
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.hitCount());
+        cache.get("1.0.0");
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.missCount());
+
+        assertThrows(IllegalArgumentException.class, () -> new SemanticVersionCache(0));
+    }
+
+    @Test
+    public void testConcurrentLookupsStayBounded() throws Exception {
+        SemanticVersionCache cache = new SemanticVersionCache(64);
+        int threads = 8, lookups = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < lookups; i++) {
+                        // Mostly a hot set that fits, with a tail that forces evictions
+                        int key = (i * 31 + seed) % 10 == 0 ? i % 500 : i % 32;
+                        assertEquals(key, cache.get("1." + key + ".0").getMinor());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals((long) threads * lookups, cache.hitCount() + cache.missCount());
+        assertTrue(cache.evictionCount() > 0);
+        assertTrue(cache.size() <= cache.maximumSize(), cache.toString());
+        assertTrue(cache.size() <= cache.missCount() - cache.evictionCount(), cache.toString());
+    }
+}
@@ -26,6 +26,7 @@ public class SemanticVersionComparatorTest {
      *     <li>Comparing versions numerically for {@code >} and {@code >=} cases.</li>
      *     <li>Ensuring {@code >=} is slightly preferred over {@code >}.</li>
      *     <li>Checking equality for {@code ==} and difference for {@code !=}.</li>
+     *     <li>Choosing the larger version when the operators point in different directions.</li>
      * </ul>
      * </p>
      *
@@ -59,7 +60,18 @@ public class SemanticVersionComparatorTest {
 
         // Not Equal Cases
         "!=, 2.0.0, !=, 2.0.1, !=",
-        "!=, 2.0.1, !=, 2.0.0, !="
+        "!=, 2.0.1, !=, 2.0.0, !=",
+
+        // Equal versions: the more inclusive operator wins
+        "> , 1.8.0, >=, 1.8.0, >=",
+        ">=, 1.8.0, > , 1.8.0, >=",
+        "< , 1.8.0, <=, 1.8.0, <=",
+
+        // Mixed directions: the larger version wins
+        "> , 1.8.0, < , 2.0.0, <",
+        "< , 2.0.0, > , 1.8.0, <",
+        "==, 1.9.0, <=, 1.8.0, ==",
+        "!=, 1.8.0, >=, 1.8.1, >="
     })
     public void testPreferLarger(String op1, String v1, String op2, String v2, String expected) {
         Condition cond1 = new Condition(op1 + " " + v1);
@@ -79,6 +91,7 @@ public class SemanticVersionComparatorTest {
      *     <li>Comparing versions numerically for {@code <} and {@code <=} cases.</li>
      *     <li>Ensuring {@code <=} is slightly preferred over {@code <}.</li>
      *     <li>Checking equality for {@code ==} and difference for {@code !=}.</li>
+     *     <li>Choosing the smaller version when the operators point in different directions.</li>
      * </ul>
      * </p>
      *
@@ -99,8 +112,8 @@ public class SemanticVersionComparatorTest {
         "<=, 1.8.1, <=, 1.8.0, <=",
 
         // Mixed < and <= cases
-        "<=, 1.8.0, < , 1.8.1, <",
-        "< , 1.8.0, <=, 1.8.1, <=",
+        "<=, 1.8.0, < , 1.8.1, <=",
+        "< , 1.8.0, <=, 1.8.1, <",
 
         // Stable vs Pre-release (Pre-release should be preferred)
         "<=, 1.8.0-beta, < , 1.8.0, <=",
@@ -112,7 +125,18 @@ public class SemanticVersionComparatorTest {
 
         // Not Equal Cases
         "!=, 2.0.0, !=, 2.0.1, !=",
-        "!=, 2.0.1, !=, 2.0.0, !="
+        "!=, 2.0.1, !=, 2.0.0, !=",
+
+        // Equal versions: the more inclusive operator wins
+        "< , 1.8.0, <=, 1.8.0, <=",
+        "<=, 1.8.0, < , 1.8.0, <=",
+        "> , 1.8.0, >=, 1.8.0, >=",
+
+        // Mixed directions: the smaller version wins
+        "> , 1.8.0, < , 2.0.0, >",
+        "< , 2.0.0, > , 1.8.0, >",
+        "==, 1.7.0, >=, 1.8.0, ==",
+        "!=, 1.8.1, <=, 1.8.0, <="
     })
     public void testPreferSmaller(String op1, String v1, String op2, String v2, String expected) {
         Condition cond1 = new Condition(op1 + " " + v1);
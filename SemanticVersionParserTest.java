@@ -0,0 +1,105 @@
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the hand-written {@code SemanticVersion} parser.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Every input accepted by the original SemVer regex is still accepted, with the same parts.</li>
+ *     <li>Every input rejected by the original SemVer regex is still rejected.</li>
+ *     <li>The {@code CharSequence}, {@code char[]} and {@code byte[]} slice entry points agree.</li>
+ *     <li>Pre-release precedence does not depend on identifiers being shared instances.</li>
+ * </ul>
+ * </p>
+ */
+public class SemanticVersionParserTest {
+
+    /**
+     * Tests that valid versions are parsed into primitive parts.
+     *
+     * @param input Version string to parse.
+     * @param major Expected major part ({@code -1} for a wildcard).
+     * @param minor Expected minor part ({@code -1} for a wildcard or absent part).
+     * @param patch Expected patch part ({@code -1} for a wildcard or absent part).
+     * @param preRelease Expected pre-release, or empty if absent.
+     * @param build Expected build metadata, or empty if absent.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "1.8.0,             1,  8,  0,  ,          ",
+        "1.8.0-beta,        1,  8,  0,  beta,      ",
+        "2.0.0-beta.1+b.7,  2,  0,  0,  beta.1,    b.7",
+        "1.0.0+exp.sha.5,   1,  0,  0,  ,          exp.sha.5",
+        "1.2.3-a-b,         1,  2,  3,  a-b,       ",
+        "1,                 1, -1, -1,  ,          ",
+        "1.2,               1,  2, -1,  ,          ",
+        "1.2.*,             1,  2, -1,  ,          ",
+        "*,                -1, -1, -1,  ,          ",
+        "1-rc.1,            1, -1, -1,  rc.1,      ",
+        "007.010.001,       7, 10,  1,  ,          ",
+        "2147483647.0.0,    2147483647, 0, 0, ,    "
+    })
+    public void testValidVersions(String input, int major, int minor, int patch, String preRelease, String build) {
+        SemanticVersion version = new SemanticVersion(input);
+
+        assertEquals(major, version.getMajor());
+        assertEquals(minor, version.getMinor());
+        assertEquals(patch, version.getPatch());
+        assertEquals(preRelease, version.getPreRelease());
+        assertEquals(build, version.getBuildMetadata());
+    }
+
+    /**
+     * Tests that inputs rejected by the original SemVer regex are still rejected.
+     *
+     * @param input Invalid version string.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "", "a", ".1", "1.", "1..2", "1.2.3.4", "1.2.3-", "1.2.3+", "1.2.3-beta_1",
+        "1.2.3+b+c", "**", "1.2*", " 1.2.3", "1.2.3\n", "2147483648", "1.0.0-é"
+    })
+    public void testInvalidVersions(String input) {
+        assertThrows(IllegalArgumentException.class, () -> new SemanticVersion(input));
+    }
+
+    /**
+     * Tests that parsing a slice of a larger buffer gives the same result as parsing a string.
+     */
+    @Test
+    public void testSliceEntryPoints() {
+        String buffer = "name=2.0.0-beta.1+b.7;";
+        String expected = new SemanticVersion("2.0.0-beta.1+b.7").toString();
+
+        assertEquals(expected, SemanticVersion.parse(buffer, 5, 16).toString());
+        assertEquals(expected, SemanticVersion.parse(buffer.toCharArray(), 5, 16).toString());
+        assertEquals(expected, SemanticVersion.parse(buffer.getBytes(StandardCharsets.US_ASCII), 5, 16).toString());
+        assertEquals(expected, new SemanticVersion(new StringBuilder("2.0.0-beta.1+b.7")).toString());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> SemanticVersion.parse(buffer, 20, 16));
+    }
+
+    /**
+     * Tests that pre-release identifiers order by their text when far more distinct ones are parsed
+     * than are kept canonical, so that most equal identifiers are separate instances.
+     */
+    @Test
+    public void testPreReleasePrecedenceBeyondCanonicalTable() {
+        int count = 20_000;
+        SemanticVersion[] versions = new SemanticVersion[count];
+        for (int i = 0; i < count; i++) {
+            versions[i] = new SemanticVersion("1.0.0-id" + Integer.toString(i, 36) + ".x");
+        }
+        for (int i = 1; i < count; i++) {
+            String id1 = "id" + Integer.toString(i - 1, 36), id2 = "id" + Integer.toString(i, 36);
+            assertEquals(Integer.signum(id1.compareTo(id2)), Integer.signum(versions[i - 1].compareTo(versions[i])));
+            assertEquals(0, versions[i].compareTo(new SemanticVersion(new String("1.0.0-" + id2 + ".x"))));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Bulk operations over {@link SemanticVersion} collections.
+ * <p>
+ * Sorting uses {@link SemanticVersion#sortKey()} so that most of the work is done on a
+ * {@code long[]} rather than through {@code compareTo}:
+ * <ul>
+ *     <li>Versions with a sort key are ordered with an LSD radix sort over their keys.</li>
+ *     <li>Versions without one (wildcards, very large parts, complex pre-releases) are
+ *         sorted with {@code compareTo}.</li>
+ *     <li>The two sorted runs are merged with {@code compareTo}.</li>
+ * </ul>
+ * </p>
+ */
+public final class SemanticVersions {
+
+    /** Below this size a plain {@code Arrays.sort} is faster than setting up the radix passes. */
+    private static final int RADIX_THRESHOLD = 256;
+
+    private SemanticVersions() {
+    }
+
+    /**
+     * Sorts versions into ascending precedence order, as {@code Arrays.sort(versions)} would.
+     * Versions that compare equal (e.g. differing only in build metadata) may be reordered.
+     *
+     * @param versions The versions to sort in place.
+     */
+    public static void sort(SemanticVersion[] versions) {
+        int n = versions.length;
+        if (n < RADIX_THRESHOLD) {
+            Arrays.sort(versions);
+            return;
+        }
+
+        int[] order = order(versions);
+        SemanticVersion[] unsorted = versions.clone();
+        for (int i = 0; i < n; i++) {
+            versions[i] = unsorted[order[i]];
+        }
+    }
+
+    /**
+     * Computes the permutation that sorts versions into ascending precedence order, without
+     * moving them, so that callers can keep columns indexed by original position.
+     *
+     * @param versions The versions to order.
+     * @return Indices into {@code versions}, such that {@code versions[order[0]]} has the lowest precedence.
+     */
+    public static int[] order(SemanticVersion[] versions) {
+        int n = versions.length;
+
+        // Split into versions that can be ordered by key and those that need compareTo
+        long[] keys = new long[n];
+        int[] keyed = new int[n];
+        Integer[] unkeyed = new Integer[n];
+        int keyedCount = 0, unkeyedCount = 0;
+        for (int i = 0; i < n; i++) {
+            long key = versions[i].sortKey();
+            if (key == SemanticVersion.NO_SORT_KEY) {
+                unkeyed[unkeyedCount++] = i;
+            } else {
+                keys[keyedCount] = key;
+                keyed[keyedCount++] = i;
+            }
+        }
+
+        radixSort(keys, keyed, keyedCount);
+
+        // Unkeyed versions are rare, so boxing their indices for a comparator sort is acceptable
+        Arrays.sort(unkeyed, 0, unkeyedCount, (a, b) -> versions[a].compareTo(versions[b]));
+
+        // Merge the two runs
+        int[] order = new int[n];
+        int k = 0, u = 0, out = 0;
+        while (k < keyedCount && u < unkeyedCount) {
+            if (versions[keyed[k]].compareTo(versions[unkeyed[u]]) <= 0) {
+                order[out++] = keyed[k++];
+            } else {
+                order[out++] = unkeyed[u++];
+            }
+        }
+        while (k < keyedCount) order[out++] = keyed[k++];
+        while (u < unkeyedCount) order[out++] = unkeyed[u++];
+        return order;
+    }
+
+    /**
+     * Sorts a list of versions into ascending precedence order.
+     *
+     * @param versions The list to sort in place; must support {@code set}.
+     */
+    public static void sort(List<SemanticVersion> versions) {
+        SemanticVersion[] array = versions.toArray(new SemanticVersion[0]);
+        sort(array);
+
+        ListIterator<SemanticVersion> it = versions.listIterator();
+        for (SemanticVersion version : array) {
+            it.next();
+            it.set(version);
+        }
+    }
+
+    /**
+     * Stable LSD radix sort of the first {@code n} non-negative keys, one byte per pass,
+     * carrying {@code order} along with them. Passes where every key has the same byte are
+     * skipped, which removes most of the work when the major/minor spread is narrow.
+     */
+    private static void radixSort(long[] keys, int[] order, int n) {
+        long[] srcKeys = keys, dstKeys = new long[n];
+        int[] srcOrder = order, dstOrder = new int[n];
+        int[] count = new int[257];
+
+        for (int shift = 0; shift < Long.SIZE - 1; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < n; i++) {
+                count[(int) ((srcKeys[i] >>> shift) & 0xFF) + 1]++;
+            }
+            if (n == 0 || count[(int) ((srcKeys[0] >>> shift) & 0xFF) + 1] == n) continue;
+
+            for (int d = 0; d < 256; d++) {
+                count[d + 1] += count[d];
+            }
+            for (int i = 0; i < n; i++) {
+                int dst = count[(int) ((srcKeys[i] >>> shift) & 0xFF)]++;
+                dstKeys[dst] = srcKeys[i];
+                dstOrder[dst] = srcOrder[i];
+            }
+
+            long[] tmpKeys = srcKeys; srcKeys = dstKeys; dstKeys = tmpKeys;
+            int[] tmpOrder = srcOrder; srcOrder = dstOrder; dstOrder = tmpOrder;
+        }
+
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, n);
+            System.arraycopy(srcOrder, 0, order, 0, n);
+        }
+    }
+}
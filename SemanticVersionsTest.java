@@ -0,0 +1,167 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code SemanticVersions} and {@code SemanticVersion.sortKey}.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Sort keys order versions exactly as {@code compareTo} does, and only packable versions have one,
+ *         up to the last value of each packed field.</li>
+ *     <li>The radix sort and its merge with unkeyed versions agree with {@code Arrays.sort}, on
+ *         either side of the radix threshold.</li>
+ *     <li>{@code order} is a permutation that sorts without moving the versions.</li>
+ * </ul>
+ * </p>
+ */
+public class SemanticVersionsTest {
+
+    /**
+     * Tests that two keyed versions have keys in the same order as their precedence.
+     *
+     * @param lower  A version of lower precedence.
+     * @param higher A version of higher precedence.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        // Each part, and the carry into the next one
+        "0.0.0, 0.0.1",
+        "0.0.1048575, 0.1.0",
+        "0.32767.0, 1.0.0",
+        "32766.32767.1048575, 32767.0.0",
+
+        // Pre-releases rank below their release, numeric below alphanumeric, labels in order
+        "1.0.0-0, 1.0.0-7",
+        "1.0.0-1021, 1.0.0-alpha",
+        "1.0.0-alpha, 1.0.0-alpha.0",
+        "1.0.0-alpha.1022, 1.0.0-beta",
+        "1.0.0-beta.9, 1.0.0-beta.10",
+        "1.0.0-rc.1022, 1.0.0",
+        "0.9.9, 1.0.0-0"
+    })
+    public void testSortKeyOrder(String lower, String higher) {
+        SemanticVersion low = new SemanticVersion(lower), high = new SemanticVersion(higher);
+        assertTrue(low.compareTo(high) < 0);
+        assertNotEquals(SemanticVersion.NO_SORT_KEY, low.sortKey());
+        assertNotEquals(SemanticVersion.NO_SORT_KEY, high.sortKey());
+        assertTrue(low.sortKey() < high.sortKey(), low.sortKey() + " vs " + high.sortKey());
+    }
+
+    /**
+     * Tests which versions can be packed.
+     *
+     * @param version The version.
+     * @param keyed   Whether it has a sort key.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "32767.32767.1048575-rc.1022, true",
+        "32768.0.0, false",
+        "0.32768.0, false",
+        "0.0.1048576, false",
+        "1.0.0-rc.1023, false",
+        "1.0.0-1022, true",
+        "1.0.0-1023, false",
+        "1.0.0+build.7, true",
+        "1.0.0-gamma, false",
+        "1.0.0-alpha.beta, false",
+        "1.0.0-rc.1.2, false",
+        "2.0.0-99999999999999999999, false",
+        "1.*, false",
+        "*, false"
+    })
+    public void testSortKeyAvailability(String version, boolean keyed) {
+        long key = new SemanticVersion(version).sortKey();
+        assertEquals(keyed, key != SemanticVersion.NO_SORT_KEY, version);
+        if (keyed) assertTrue(key >= 0);
+    }
+
+    @Test
+    public void testSortKeyMatchesCompareTo() {
+        SemanticVersion[] versions = TestData.randomVersions(2000, 1);
+        for (int i = 1; i < versions.length; i++) {
+            SemanticVersion a = versions[i - 1], b = versions[i];
+            if (a.sortKey() == SemanticVersion.NO_SORT_KEY || b.sortKey() == SemanticVersion.NO_SORT_KEY) continue;
+            assertEquals(Integer.signum(a.compareTo(b)), Long.signum(Long.compare(a.sortKey(), b.sortKey())), a + " vs " + b);
+        }
+        for (String version : TestData.UNKEYED) {
+            assertEquals(SemanticVersion.NO_SORT_KEY, new SemanticVersion(version).sortKey(), version);
+        }
+    }
+
+    /**
+     * Tests that sorting gives the same precedence at every position as {@code Arrays.sort}.
+     *
+     * @param n Number of versions, below and above the radix threshold.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 255, 256, 257, 5000})
+    public void testSortMatchesArraysSort(int n) {
+        assertSortsLikeArraysSort(TestData.randomVersions(n, n));
+    }
+
+    /**
+     * Tests sorting hand-picked lists, repeated past the radix threshold so both paths run.
+     *
+     * @param versions Space-separated versions.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "1.0.0",
+        "2.0.0 1.0.0",
+        "1.0.0+b 1.0.0 1.0.0+a",                              // Equal precedence
+        "1.*.* * 1.2.* 0.0.0",                                 // Wildcards have no key
+        "40000.0.0 1.0.0-x.y.z 2.0.0-rc.1.2 1.0.0-alpha.beta",  // No key at all
+        "32767.32767.1048575 32768.0.0 0.0.0 32767.32767.1048575-rc.1022"
+    })
+    public void testSortEdgeCases(String versions) {
+        List<SemanticVersion> list = new ArrayList<>();
+        for (int copy = 0; copy < 300; copy++) {
+            for (String version : versions.split(" ")) {
+                list.add(new SemanticVersion(version));
+            }
+            if (copy == 0) assertSortsLikeArraysSort(list.toArray(new SemanticVersion[0]));
+        }
+        assertSortsLikeArraysSort(list.toArray(new SemanticVersion[0]));
+    }
+
+    private static void assertSortsLikeArraysSort(SemanticVersion[] versions) {
+        SemanticVersion[] expected = versions.clone();
+        Arrays.sort(expected);
+
+        SemanticVersion[] sorted = versions.clone();
+        SemanticVersions.sort(sorted);
+        for (int i = 0; i < versions.length; i++) {
+            assertEquals(0, expected[i].compareTo(sorted[i]), "Position " + i);
+        }
+
+        List<SemanticVersion> list = new ArrayList<>(Arrays.asList(versions));
+        SemanticVersions.sort(list);
+        for (int i = 0; i < versions.length; i++) {
+            assertEquals(0, expected[i].compareTo(list.get(i)), "Position " + i);
+        }
+    }
+
+    @Test
+    public void testOrderIsSortingPermutation() {
+        SemanticVersion[] versions = TestData.randomVersions(3000, 7);
+        SemanticVersion[] original = versions.clone();
+        int[] order = SemanticVersions.order(versions);
+
+        assertArrayEquals(original, versions);
+        boolean[] seen = new boolean[versions.length];
+        for (int i = 0; i < order.length; i++) {
+            assertFalse(seen[order[i]], "Index " + order[i] + " repeated");
+            seen[order[i]] = true;
+            if (i > 0) assertTrue(versions[order[i - 1]].compareTo(versions[order[i]]) <= 0, "Position " + i);
+        }
+        assertEquals(0, SemanticVersions.order(new SemanticVersion[0]).length);
+    }
+}
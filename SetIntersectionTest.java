@@ -0,0 +1,114 @@
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the primitive overloads of {@code SetIntersection.findIntersection}.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Sorted inputs gallop to a sorted result equal to the {@code HashSet} intersection.</li>
+ *     <li>Unsorted inputs give the common keys once each, in the order of the larger array.</li>
+ *     <li>Duplicates, negative and extreme keys, and empty inputs are handled for {@code int[]} and {@code long[]}.</li>
+ *     <li>Hand-picked pairs, from empty and single keys to keys at the ends of the range, give the expected keys.</li>
+ * </ul>
+ * </p>
+ */
+public class SetIntersectionTest {
+
+    /**
+     * Tests both strategies on inputs of different sizes and overlap.
+     *
+     * @param m     Keys in the first array.
+     * @param n     Keys in the second array.
+     * @param bound Range of the keys, small enough to give duplicates when below the sizes.
+     */
+    @ParameterizedTest
+    @CsvSource({"0, 10, 100", "1, 1, 2", "10, 10_000, 20_000", "500, 500, 300", "3000, 40, 100_000", "5000, 8000, 6000"})
+    public void testMatchesHashSet(int m, int n, int bound) {
+        Random random = new Random(m * 31L + n);
+        int[] a = TestData.randomInts(random, m, bound), b = TestData.randomInts(random, n, bound);
+        int[] small = m <= n ? a : b, large = m <= n ? b : a;
+        assertArrayEquals(TestData.distinctCommon(large, small), SetIntersection.findIntersection(a, b), "Unsorted");
+
+        int[] sortedA = a.clone(), sortedB = b.clone();
+        Arrays.sort(sortedA);
+        Arrays.sort(sortedB);
+        assertArrayEquals(TestData.distinctCommon(sortedB, sortedA), SetIntersection.findIntersection(sortedA, sortedB), "Sorted");
+        assertArrayEquals(TestData.distinctCommon(sortedB, sortedA), SetIntersection.findIntersection(sortedB, sortedA), "Sorted");
+
+        long[] c = TestData.randomLongs(random, m, bound), d = TestData.randomLongs(random, n, bound);
+        long[] smallL = m <= n ? c : d, largeL = m <= n ? d : c;
+        assertArrayEquals(TestData.distinctCommon(largeL, smallL), SetIntersection.findIntersection(c, d), "Unsorted");
+
+        long[] sortedC = c.clone(), sortedD = d.clone();
+        Arrays.sort(sortedC);
+        Arrays.sort(sortedD);
+        assertArrayEquals(TestData.distinctCommon(sortedD, sortedC), SetIntersection.findIntersection(sortedC, sortedD), "Sorted");
+    }
+
+    @Test
+    public void testEdgeKeys() {
+        int[] ints = {Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE};
+        assertArrayEquals(ints, SetIntersection.findIntersection(ints, ints.clone()));
+        assertArrayEquals(new int[] {Integer.MAX_VALUE, Integer.MIN_VALUE},
+                SetIntersection.findIntersection(new int[] {Integer.MIN_VALUE, 7, Integer.MAX_VALUE},
+                        new int[] {Integer.MAX_VALUE, 0, Integer.MIN_VALUE, Integer.MAX_VALUE}));
+
+        long[] longs = {Long.MIN_VALUE, -1L << 40, 0, 1L << 40, Long.MAX_VALUE};
+        assertArrayEquals(longs, SetIntersection.findIntersection(longs, longs.clone()));
+        assertArrayEquals(new long[] {Long.MAX_VALUE}, SetIntersection.findIntersection(new long[] {Long.MAX_VALUE, 5, 5},
+                new long[] {1L << 32, Long.MAX_VALUE, 6, Long.MAX_VALUE}));
+
+        assertEquals(0, SetIntersection.findIntersection(new int[0], new int[0]).length);
+        assertEquals(0, SetIntersection.findIntersection(new long[] {1, 2}, new long[0]).length);
+    }
+
+    @Test
+    public void testGallopsPastLongGaps() {
+        int[] small = {-5, 0, 700_000, 700_001, 1_399_993, Integer.MAX_VALUE};
+        int[] large = new int[200_000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i * 7;
+        }
+        assertArrayEquals(new int[] {0, 700_000, 1_399_993}, SetIntersection.findIntersection(small, large));
+        assertArrayEquals(TestData.distinctCommon(large, small), SetIntersection.findIntersection(large, small));
+    }
+
+    /**
+     * Tests hand-picked pairs as {@code int[]} and as {@code long[]}, in both argument orders.
+     *
+     * @param first    Space-separated keys of the first array, possibly none.
+     * @param second   Space-separated keys of the second array, possibly none.
+     * @param expected Space-separated common keys, in the order of the larger array.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "'', '', ''",
+        "'', 1 2 3, ''",
+        "5, 5, 5",
+        "5, 6, ''",
+        "5, 1 5 5 9, 5",
+        "7 7 7, 7 7, 7",
+        "3 1 2, 2 9 3 8, 2 3",
+        "1 2 3 4, 4 3 2 1 0, 4 3 2 1",
+        "-2147483648 2147483647, 2147483647 0 -2147483648, 2147483647 -2147483648",
+        "-1 0 1, -2 -1 1 2, -1 1"
+    })
+    public void testHandPickedPairs(String first, String second, String expected) {
+        int[] a = ints(first), b = ints(second), common = ints(expected);
+        assertArrayEquals(common, SetIntersection.findIntersection(a, b));
+        assertArrayEquals(common, SetIntersection.findIntersection(b, a));
+
+        long[] c = Arrays.stream(a).asLongStream().toArray(), d = Arrays.stream(b).asLongStream().toArray();
+        assertArrayEquals(Arrays.stream(common).asLongStream().toArray(), SetIntersection.findIntersection(c, d));
+    }
+
+    private static int[] ints(String keys) {
+        return keys.isEmpty() ? new int[0] : Arrays.stream(keys.split(" ")).mapToInt(Integer::parseInt).toArray();
+    }
+}
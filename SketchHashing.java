@@ -0,0 +1,27 @@
+/**
+ * 64-bit hashing shared by {@link KmvSketch} and {@link HyperLogLog}, so that sketches built
+ * from the same keys agree on their hashes.
+ */
+final class SketchHashing {
+
+    private SketchHashing() {
+    }
+
+    /** The MurmurHash3 64-bit finalizer: a bijection, so distinct keys never collide. */
+    static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    static long hash(CharSequence key) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        return hash(h ^ key.length());
+    }
+}
@@ -0,0 +1,354 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Intersects two or more sorted files without loading them, for ID sets that do not fit in heap.
+ * <p>
+ * Each input is read through a {@link FileChannel} into one fixed-size buffer, and the inputs
+ * are joined leapfrog-style: the largest current key becomes the candidate, every other input
+ * skips ahead to it, and it is written out once all of them agree. Memory use is one buffer per
+ * input plus one for the output, whatever the file sizes. Supported inputs:
+ * <ul>
+ *     <li>{@link Format#INT32} / {@link Format#INT64}: big-endian signed integers in ascending
+ *         order. Skipping ahead gallops over the file with positional reads, so long gaps are
+ *         never read.</li>
+ *     <li>{@link Format#LINES}: newline-delimited keys in ascending byte order (as produced by
+ *         {@code LC_ALL=C sort}). Skipping ahead scans the buffer.</li>
+ * </ul>
+ * Each common key is written once, in the input format, as soon as it is found.
+ * </p>
+ */
+public final class SortedFileIntersection {
+
+    /** The layout of the input and output files. */
+    public enum Format {
+        INT32(Integer.BYTES), INT64(Long.BYTES), LINES(0);
+
+        private final int width;
+
+        Format(int width) {
+            this.width = width;
+        }
+    }
+
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private SortedFileIntersection() {
+    }
+
+    /**
+     * Intersects sorted files with {@link #DEFAULT_BUFFER_SIZE}-byte buffers.
+     *
+     * @see #intersect(List, Format, WritableByteChannel, int)
+     */
+    public static long intersect(List<Path> inputs, Format format, WritableByteChannel out) throws IOException {
+        return intersect(inputs, format, out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Intersects sorted files and writes the common keys to a channel as they are found.
+     *
+     * @param inputs     At least one file, each sorted ascending.
+     * @param format     The layout of the inputs and of the output.
+     * @param out        Where to write the common keys; not closed.
+     * @param bufferSize Bytes buffered per input and for the output; also the longest allowed line.
+     * @return The number of keys written.
+     * @throws IOException if an input cannot be read, is truncated mid-record, or has an over-long line.
+     */
+    public static long intersect(List<Path> inputs, Format format, WritableByteChannel out, int bufferSize)
+            throws IOException {
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("At least one input is required");
+        }
+        if (bufferSize < Long.BYTES) {
+            throw new IllegalArgumentException("Buffer size too small: " + bufferSize);
+        }
+
+        FileChannel[] channels = new FileChannel[inputs.size()];
+        try {
+            for (int i = 0; i < channels.length; i++) {
+                channels[i] = FileChannel.open(inputs.get(i), StandardOpenOption.READ);
+            }
+            Output output = new Output(out, bufferSize);
+            long count = format == Format.LINES
+                    ? intersectLines(channels, output, bufferSize)
+                    : intersectFixed(channels, format, output, bufferSize);
+            output.flush();
+            return count;
+        } finally {
+            for (FileChannel channel : channels) {
+                if (channel != null) channel.close();
+            }
+        }
+    }
+
+    private static long intersectFixed(FileChannel[] channels, Format format, Output output, int bufferSize)
+            throws IOException {
+        FixedWidthCursor[] cursors = new FixedWidthCursor[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            cursors[i] = new FixedWidthCursor(channels[i], format.width, bufferSize);
+            if (!cursors[i].advanceTo(Long.MIN_VALUE)) return 0;
+        }
+
+        long count = 0;
+        long candidate = cursors[0].current();
+        int agreed = 0;
+        for (int i = 0; ; i = (i + 1) % cursors.length) {
+            FixedWidthCursor cursor = cursors[i];
+            if (!cursor.advanceTo(candidate)) return count;
+
+            if (cursor.current() != candidate) {
+                candidate = cursor.current();
+                agreed = 0;
+            }
+            if (++agreed == cursors.length) {
+                output.writeFixed(candidate, format.width);
+                count++;
+                // Every input now skips to the next possible key
+                if (candidate == Long.MAX_VALUE) return count;
+                candidate++;
+                agreed = 0;
+            }
+        }
+    }
+
+    private static long intersectLines(FileChannel[] channels, Output output, int bufferSize) throws IOException {
+        LineCursor[] cursors = new LineCursor[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            cursors[i] = new LineCursor(channels[i], bufferSize);
+            if (!cursors[i].next()) return 0;
+        }
+
+        long count = 0;
+        byte[] candidate = new byte[bufferSize + 1];
+        int candidateLength = cursors[0].copyTo(candidate);
+        int agreed = 0;
+        for (int i = 0; ; i = (i + 1) % cursors.length) {
+            LineCursor cursor = cursors[i];
+            if (!cursor.advanceTo(candidate, candidateLength)) return count;
+
+            if (cursor.compareTo(candidate, candidateLength) != 0) {
+                candidateLength = cursor.copyTo(candidate);
+                agreed = 0;
+            }
+            if (++agreed == cursors.length) {
+                output.writeLine(candidate, candidateLength);
+                count++;
+                // The smallest key after the candidate is the candidate followed by a zero byte
+                candidate[candidateLength++] = 0;
+                agreed = 0;
+            }
+        }
+    }
+
+    /** Reads fixed-width big-endian integers, galloping over the file to skip ahead. */
+    private static final class FixedWidthCursor {
+        private final FileChannel channel;
+        private final int width;
+        private final long records;
+        private final ByteBuffer buffer;
+        private final ByteBuffer probe;
+        private long bufferStart; // Index of the first record in the buffer
+        private int buffered;     // Records in the buffer
+        private int position = -1;
+
+        FixedWidthCursor(FileChannel channel, int width, int bufferSize) throws IOException {
+            this.channel = channel;
+            this.width = width;
+            long size = channel.size();
+            if (size % width != 0) {
+                throw new EOFException("File size " + size + " is not a multiple of " + width);
+            }
+            this.records = size / width;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize / width * width);
+            this.probe = ByteBuffer.allocate(width);
+        }
+
+        long current() {
+            return valueAt(position);
+        }
+
+        /** Moves to the first record not less than {@code target}; returns {@code false} at end of file. */
+        boolean advanceTo(long target) throws IOException {
+            if (position < 0) {
+                if (records == 0) return false;
+                load(0);
+            }
+            if (valueAt(buffered - 1) < target) {
+                long next = bufferStart + buffered;
+                if (next >= records) return false;
+                load(seek(next, target));
+            }
+
+            // The target is now at or before the last buffered record
+            int lo = position, hi = buffered - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (valueAt(mid) < target) lo = mid + 1; else hi = mid;
+            }
+            position = lo;
+            return valueAt(position) >= target;
+        }
+
+        /**
+         * @return The index of a record at or after {@code from} such that the target lies within
+         *         one buffer of it; every record before it is less than the target.
+         */
+        private long seek(long from, long target) throws IOException {
+            long lo = from, step = buffer.capacity() / width, hi;
+            // Gallop: double the distance until a record at or beyond the target
+            while (true) {
+                hi = Math.min(records - 1, lo + step);
+                if (hi == records - 1 || read(hi) >= target) break;
+                lo = hi + 1;
+                step <<= 1;
+            }
+            // Binary search until the remaining range fits in one buffer
+            long capacity = buffer.capacity() / width;
+            while (hi - lo >= capacity) {
+                long mid = (lo + hi) >>> 1;
+                if (read(mid) < target) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        private long read(long record) throws IOException {
+            probe.clear();
+            readFully(probe, record * width);
+            return width == Long.BYTES ? probe.getLong(0) : probe.getInt(0);
+        }
+
+        private void load(long record) throws IOException {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (records - record) * width));
+            readFully(buffer, record * width);
+            bufferStart = record;
+            buffered = buffer.limit() / width;
+            position = 0;
+        }
+
+        private void readFully(ByteBuffer target, long offset) throws IOException {
+            while (target.hasRemaining()) {
+                int read = channel.read(target, offset + target.position());
+                if (read < 0) throw new EOFException("Unexpected end of file at " + (offset + target.position()));
+            }
+        }
+
+        private long valueAt(int index) {
+            return width == Long.BYTES ? buffer.getLong(index * width) : buffer.getInt(index * width);
+        }
+    }
+
+    /** Reads newline-delimited keys through a buffer that is compacted and refilled as it drains. */
+    private static final class LineCursor {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private boolean endOfFile;
+        private int keyStart, keyEnd = -1; // The current key, excluding its newline
+
+        LineCursor(FileChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+            this.buffer.limit(0);
+        }
+
+        /** Moves to the next key; returns {@code false} at end of file. */
+        boolean next() throws IOException {
+            int from = keyEnd < 0 ? 0 : keyEnd + 1;
+            while (true) {
+                for (int i = from; i < buffer.limit(); i++) {
+                    if (buffer.get(i) == '\n') {
+                        keyStart = from;
+                        keyEnd = i;
+                        return true;
+                    }
+                }
+                if (endOfFile) {
+                    // A final key without a trailing newline
+                    if (from < buffer.limit()) {
+                        keyStart = from;
+                        keyEnd = buffer.limit();
+                        return true;
+                    }
+                    return false;
+                }
+                from = refill(from);
+            }
+        }
+
+        /** Drops consumed bytes before {@code from}, reads more, and returns the new offset of {@code from}. */
+        private int refill(int from) throws IOException {
+            buffer.position(from);
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                throw new IOException("Line longer than the " + buffer.capacity() + "-byte buffer");
+            }
+            if (channel.read(buffer) < 0) endOfFile = true;
+            buffer.flip();
+            keyEnd = -1;
+            return 0;
+        }
+
+        /** Moves to the first key not less than the target; returns {@code false} at end of file. */
+        boolean advanceTo(byte[] target, int length) throws IOException {
+            while (compareTo(target, length) < 0) {
+                if (!next()) return false;
+            }
+            return true;
+        }
+
+        /** Compares the current key with the target as unsigned bytes. */
+        int compareTo(byte[] target, int length) {
+            int keyLength = keyEnd - keyStart;
+            for (int i = 0, n = Math.min(keyLength, length); i < n; i++) {
+                int cmp = Integer.compare(buffer.get(keyStart + i) & 0xFF, target[i] & 0xFF);
+                if (cmp != 0) return cmp;
+            }
+            return Integer.compare(keyLength, length);
+        }
+
+        int copyTo(byte[] target) {
+            // Absolute reads, like compareTo; the bulk get(int, byte[], int, int) needs Java 13
+            for (int i = keyStart; i < keyEnd; i++) {
+                target[i - keyStart] = buffer.get(i);
+            }
+            return keyEnd - keyStart;
+        }
+    }
+
+    /** Buffers the common keys and writes them out whenever the buffer fills. */
+    private static final class Output {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        Output(WritableByteChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize + 1);
+        }
+
+        void writeFixed(long value, int width) throws IOException {
+            if (buffer.remaining() < width) flush();
+            if (width == Long.BYTES) buffer.putLong(value); else buffer.putInt((int) value);
+        }
+
+        void writeLine(byte[] key, int length) throws IOException {
+            if (buffer.remaining() < length + 1) flush();
+            buffer.put(key, 0, length).put((byte) '\n');
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+}
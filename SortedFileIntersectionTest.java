@@ -0,0 +1,255 @@
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code SortedFileIntersection} against an in-memory intersection.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>{@code INT32} and {@code INT64} inputs intersect correctly with buffers far smaller than
+ *         the gaps being galloped over, including negative and extreme keys and duplicates.</li>
+ *     <li>{@code LINES} inputs intersect in byte order across buffer refills, with keys that are
+ *         prefixes of each other, duplicates and a missing trailing newline.</li>
+ *     <li>Empty inputs give no keys, and bad sizes, truncated records and over-long lines are reported.</li>
+ *     <li>Hand-picked fixed-width inputs, from single keys to the ends of the key range, give the expected keys
+ *         through the smallest buffer.</li>
+ * </ul>
+ * </p>
+ */
+public class SortedFileIntersectionTest {
+
+    @TempDir
+    Path directory;
+
+    private int files;
+
+    private Path writeLongs(long[] keys, SortedFileIntersection.Format format) throws IOException {
+        int width = format == SortedFileIntersection.Format.INT64 ? Long.BYTES : Integer.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(keys.length * width);
+        for (long key : keys) {
+            if (width == Long.BYTES) buffer.putLong(key); else buffer.putInt((int) key);
+        }
+        return Files.write(directory.resolve("keys-" + files++), buffer.array());
+    }
+
+    private Path writeLines(String content) throws IOException {
+        return Files.write(directory.resolve("lines-" + files++), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] intersect(List<Path> inputs, SortedFileIntersection.Format format, int bufferSize,
+                                    long expectedCount) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(expectedCount, SortedFileIntersection.intersect(inputs, format, Channels.newChannel(out), bufferSize));
+        return out.toByteArray();
+    }
+
+    private static long[] readLongs(byte[] bytes, SortedFileIntersection.Format format) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int width = format == SortedFileIntersection.Format.INT64 ? Long.BYTES : Integer.BYTES;
+        long[] keys = new long[bytes.length / width];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = width == Long.BYTES ? buffer.getLong() : buffer.getInt();
+        }
+        return keys;
+    }
+
+    /** @return Sorted keys: dense runs separated by gaps much longer than any buffer, with some duplicates. */
+    private static long[] sparseKeys(Random random, int runs, long scale) {
+        List<Long> keys = new ArrayList<>();
+        long key = -scale * runs / 2;
+        for (int run = 0; run < runs; run++) {
+            key += 1 + (long) (random.nextDouble() * scale);
+            int length = random.nextInt(300);
+            for (int i = 0; i < length; i++) {
+                keys.add(key);
+                if (random.nextInt(20) != 0) key += 1 + random.nextInt(3);
+            }
+        }
+        return keys.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long[] intersectInMemory(long[]... sets) {
+        TreeSet<Long> result = new TreeSet<>();
+        for (long key : sets[0]) result.add(key);
+        for (long[] set : sets) {
+            TreeSet<Long> keys = new TreeSet<>();
+            for (long key : set) keys.add(key);
+            result.retainAll(keys);
+        }
+        return result.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Tests fixed-width inputs with a dense file and sparse files whose gaps span many buffers.
+     *
+     * @param bufferSize Bytes per buffer, from the minimum up to the default.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {8, 13, 64, 4096, 1 << 20})
+    public void testFixedWidthMatchesMemory(int bufferSize) throws IOException {
+        Random random = new Random(bufferSize);
+        long[] dense = new long[200_000];
+        for (int i = 0; i < dense.length; i++) {
+            dense[i] = (i - dense.length / 2) * 3L;
+        }
+        long[] sparse = sparseKeys(random, 40, 20_000);
+        long[] other = sparseKeys(random, 400, 1_500);
+        long[] expected = intersectInMemory(dense, sparse, other);
+        assertTrue(expected.length > 10, "The inputs overlap");
+
+        for (SortedFileIntersection.Format format : new SortedFileIntersection.Format[] {
+                SortedFileIntersection.Format.INT32, SortedFileIntersection.Format.INT64}) {
+            List<Path> inputs = Arrays.asList(writeLongs(dense, format), writeLongs(sparse, format),
+                    writeLongs(other, format));
+            byte[] out = intersect(inputs, format, bufferSize, expected.length);
+            assertArrayEquals(expected, readLongs(out, format), format.toString());
+
+            List<Path> reversed = new ArrayList<>(inputs);
+            Collections.reverse(reversed);
+            assertArrayEquals(out, intersect(reversed, format, bufferSize, expected.length), format.toString());
+            long[] distinct = Arrays.stream(sparse).distinct().toArray();
+            assertArrayEquals(distinct, readLongs(intersect(inputs.subList(1, 2), format, bufferSize, distinct.length),
+                    format), "A single input is deduplicated");
+        }
+    }
+
+    @Test
+    public void testExtremeKeys() throws IOException {
+        long[] longs = {Long.MIN_VALUE, -1, 0, 1L << 40, Long.MAX_VALUE, Long.MAX_VALUE};
+        SortedFileIntersection.Format int64 = SortedFileIntersection.Format.INT64;
+        byte[] out = intersect(Arrays.asList(writeLongs(longs, int64), writeLongs(new long[] {Long.MIN_VALUE,
+                1L << 40, Long.MAX_VALUE}, int64)), int64, 8, 3);
+        assertArrayEquals(new long[] {Long.MIN_VALUE, 1L << 40, Long.MAX_VALUE}, readLongs(out, int64));
+
+        long[] ints = {Integer.MIN_VALUE, 0, Integer.MAX_VALUE};
+        SortedFileIntersection.Format int32 = SortedFileIntersection.Format.INT32;
+        out = intersect(Arrays.asList(writeLongs(ints, int32), writeLongs(ints, int32)), int32, 8, 3);
+        assertArrayEquals(ints, readLongs(out, int32));
+    }
+
+    /**
+     * Tests newline-delimited inputs of random keys, read through buffers that refill mid-line.
+     *
+     * @param bufferSize Bytes per buffer; at least the longest line.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {16, 17, 100, 1 << 20})
+    public void testLinesMatchMemory(int bufferSize) throws IOException {
+        Random random = new Random(bufferSize);
+        List<Path> inputs = new ArrayList<>();
+        TreeSet<String> expected = null;
+        for (int file = 0; file < 3; file++) {
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                // Short keys over a small alphabet, so that many are prefixes of others
+                int length = random.nextInt(6);
+                StringBuilder key = new StringBuilder();
+                for (int j = 0; j < length; j++) {
+                    key.append((char) ('a' + random.nextInt(3)));
+                }
+                keys.add(key.toString());
+            }
+            keys.add("~" + "z".repeat(bufferSize - 3));       // One line that nearly fills the buffer
+            Collections.sort(keys);
+            if (expected == null) expected = new TreeSet<>(keys); else expected.retainAll(keys);
+            String content = String.join("\n", keys);
+            inputs.add(writeLines(file == 1 ? content : content + "\n"));
+        }
+
+        String out = new String(intersect(inputs, SortedFileIntersection.Format.LINES, bufferSize, expected.size()),
+                StandardCharsets.UTF_8);
+        assertEquals(String.join("\n", expected) + "\n", out);
+    }
+
+    @Test
+    public void testLinesCompareAsUnsignedBytes() throws IOException {
+        List<Path> inputs = Arrays.asList(writeLines("a\nab\nb\nzz\né\n"), writeLines("ab\nb\nc\né"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3, SetIntersection.findIntersection(inputs, SortedFileIntersection.Format.LINES,
+                Channels.newChannel(out)));
+        assertEquals("ab\nb\né\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEmptyAndInvalidInputs() throws IOException {
+        Path empty = writeLines("");
+        Path keys = writeLongs(new long[] {1, 2, 3}, SortedFileIntersection.Format.INT64);
+        assertEquals(0, intersect(Arrays.asList(keys, empty), SortedFileIntersection.Format.INT64, 64, 0).length);
+        assertEquals(0, intersect(Arrays.asList(writeLines("a\nb\n"), empty), SortedFileIntersection.Format.LINES,
+                64, 0).length);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> intersect(Collections.emptyList(), SortedFileIntersection.Format.LINES, 64, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> intersect(Collections.singletonList(keys), SortedFileIntersection.Format.INT64, 7, 0));
+        Path truncated = Files.write(directory.resolve("truncated"), new byte[Long.BYTES + 3]);
+        assertThrows(EOFException.class,
+                () -> intersect(Arrays.asList(keys, truncated), SortedFileIntersection.Format.INT64, 64, 0));
+        Path longLine = writeLines("a\n" + "x".repeat(40) + "\nz\n");
+        assertThrows(IOException.class,
+                () -> intersect(Collections.singletonList(longLine), SortedFileIntersection.Format.LINES, 16, 0));
+    }
+
+    /**
+     * Tests hand-picked sorted inputs through the smallest buffer, as {@code INT64} and, where the keys
+     * fit, {@code INT32}.
+     *
+     * @param inputs   The inputs separated by {@code |}, each with space-separated sorted keys, possibly none.
+     * @param expected Space-separated common keys.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "5, 5",
+        "5 | 5, 5",
+        "5 | 6, ''",
+        " | 1 2, ''",
+        "1 1 1 | 1 1, 1",
+        "1 2 3 | 3, 3",
+        "1 | 1 2 3, 1",
+        "-2147483648 2147483647 | -2147483648 0 2147483647, -2147483648 2147483647",
+        "-2147483649 2147483648 | -2147483649 2147483648, -2147483649 2147483648",
+        "-9223372036854775808 9223372036854775807 | -9223372036854775808 9223372036854775807, -9223372036854775808 9223372036854775807",
+        "0 2 4 6 8 | 1 2 3 4 | 2 4 8, 2 4"
+    })
+    public void testHandPickedInputs(String inputs, String expected) throws IOException {
+        long[] common = longs(expected);
+        boolean fitsInt = true;
+        for (String part : inputs.split("\\|")) {
+            for (long key : longs(part.trim())) {
+                fitsInt &= key == (int) key;
+            }
+        }
+        for (SortedFileIntersection.Format format : new SortedFileIntersection.Format[] {
+                SortedFileIntersection.Format.INT64, SortedFileIntersection.Format.INT32}) {
+            if (format == SortedFileIntersection.Format.INT32 && !fitsInt) continue;
+            List<Path> files = new ArrayList<>();
+            for (String part : inputs.split("\\|")) {
+                files.add(writeLongs(longs(part.trim()), format));
+            }
+            assertArrayEquals(common, readLongs(intersect(files, format, 8, common.length), format), format.toString());
+        }
+    }
+
+    private static long[] longs(String keys) {
+        return keys.isEmpty() ? new long[0] : Arrays.stream(keys.split(" ")).mapToLong(Long::parseLong).toArray();
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeded random inputs shared by the tests. The same seed always gives the same values, so a
+ * failure reproduces from the seed and index in its message.
+ */
+final class TestData {
+
+    /** Concrete versions without a sort key: a part too wide to pack, or a pre-release that does not pack. */
+    static final String[] UNKEYED = {"40000.0.0", "1.0.0-rc.1023", "1.0.0-x.y.z", "1.0.0-alpha.beta",
+            "2.0.0-99999999999999999999", "2.0.0-rc.1.2"};
+
+    private static final String[] LABELS = {"", "", "", "-alpha", "-beta.3", "-rc", "-rc.1", "-rc.1021", "-7",
+            "+build.5", "-rc.1+build.5"};
+
+    private TestData() {
+    }
+
+    /**
+     * @return Concrete versions over a narrow spread, so that many share parts or differ only in
+     *         build metadata; about one in ten has no sort key.
+     */
+    static SemanticVersion[] randomVersions(int n, long seed) {
+        Random random = new Random(seed);
+        SemanticVersion[] versions = new SemanticVersion[n];
+        for (int i = 0; i < n; i++) {
+            versions[i] = new SemanticVersion(random.nextInt(10) == 0 ? UNKEYED[random.nextInt(UNKEYED.length)]
+                    : random.nextInt(4) + "." + random.nextInt(6) + "." + random.nextInt(8)
+                    + LABELS[random.nextInt(LABELS.length)]);
+        }
+        return versions;
+    }
+
+    /** @return Keys in {@code [-bound / 2, bound / 2)}, so duplicates appear when {@code n} nears {@code bound}. */
+    static int[] randomInts(Random random, int n, int bound) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt(bound) - bound / 2;
+        }
+        return keys;
+    }
+
+    /** @return Keys like {@link #randomInts}, spread over the whole {@code long} range so high bits take part. */
+    static long[] randomLongs(Random random, int n, int bound) {
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = (random.nextInt(bound) - bound / 2) * 0x0000_1000_0000_0001L;
+        }
+        return keys;
+    }
+
+    /** @return The distinct keys of {@code order} that are in every one of {@code sets}, in first-occurrence order. */
+    static int[] distinctCommon(int[] order, int[]... sets) {
+        Set<Integer> result = new LinkedHashSet<>();
+        for (int key : order) result.add(key);
+        for (int[] set : sets) {
+            Set<Integer> keys = new HashSet<>();
+            for (int key : set) keys.add(key);
+            result.retainAll(keys);
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** @return The distinct keys of {@code order} that are in every one of {@code sets}, in first-occurrence order. */
+    static long[] distinctCommon(long[] order, long[]... sets) {
+        Set<Long> result = new LinkedHashSet<>();
+        for (long key : order) result.add(key);
+        for (long[] set : sets) {
+            Set<Long> keys = new HashSet<>();
+            for (long key : set) keys.add(key);
+            result.retainAll(keys);
+        }
+        return result.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,301 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * A columnar batch of {@link SemanticVersion}s that resolves many {@link Condition}s at once,
+ * returning one {@link BitSet} per condition with bit {@code i} set when version {@code i} matches.
+ * <p>
+ * The batch is put into precedence order once, as two sorted columns of original positions: versions
+ * with a {@link SemanticVersion#sortKey()}, next to a {@code long[]} of their keys, and the rare
+ * versions without one. Each condition is then resolved as follows:
+ * <ul>
+ *     <li>It is collapsed by {@link ConditionSimplifier} into a {@link VersionRangeSet}, and each
+ *         interval is located with binary searches over both columns. The keyed column is searched on
+ *         the primitive keys whenever the bound itself has a key; {@code compareTo} is only used for the
+ *         unkeyed column and for bounds without a key. Matching positions are scattered into a
+ *         {@code long[]} of bit words, so a condition costs {@code O(intervals * log n + matches)}
+ *         rather than one tree walk per version.</li>
+ *     <li>Conditions that are not a union of ranges (e.g. {@code == 1.*.3}) fall back to the
+ *         {@link ConditionCompiler} predicate, tested over 64-aligned chunks of the batch so that
+ *         parallel chunks never share a bit word.</li>
+ * </ul>
+ * {@link #resolveAll} spreads the conditions over a {@link ForkJoinPool}. The batch is immutable and
+ * may be shared between threads; versions are expected to be concrete (no wildcards).
+ * </p>
+ */
+public final class VersionBatch {
+
+    /** Versions per fork/join leaf when a condition has to be tested one version at a time. */
+    private static final int CHUNK_SIZE = 64 * 64;
+
+    private final SemanticVersion[] versions;
+    private final long[] keys;          // Sort keys of the keyed versions, ascending
+    private final int[] keyedOrder;     // Position of the version with keys[i]
+    private final SemanticVersion[] unkeyed;
+    private final int[] unkeyedOrder;   // Position of unkeyed[i]
+
+    private VersionBatch(SemanticVersion[] versions) {
+        this.versions = versions;
+        int[] order = SemanticVersions.order(versions);
+
+        int keyedCount = 0;
+        for (SemanticVersion version : versions) {
+            if (version.sortKey() != SemanticVersion.NO_SORT_KEY) keyedCount++;
+        }
+        this.keys = new long[keyedCount];
+        this.keyedOrder = new int[keyedCount];
+        this.unkeyed = new SemanticVersion[versions.length - keyedCount];
+        this.unkeyedOrder = new int[unkeyed.length];
+
+        // Both columns inherit the precedence order
+        int k = 0, u = 0;
+        for (int position : order) {
+            long key = versions[position].sortKey();
+            if (key != SemanticVersion.NO_SORT_KEY) {
+                keys[k] = key;
+                keyedOrder[k++] = position;
+            } else {
+                unkeyed[u] = versions[position];
+                unkeyedOrder[u++] = position;
+            }
+        }
+    }
+
+    /**
+     * Builds a batch over a copy of the given versions; bit {@code i} of every result refers to {@code versions[i]}.
+     *
+     * @param versions The versions, in the caller's column order.
+     * @return The batch.
+     */
+    public static VersionBatch of(SemanticVersion[] versions) {
+        return new VersionBatch(versions.clone());
+    }
+
+    /**
+     * Builds a batch over the given versions, in iteration order.
+     *
+     * @param versions The versions.
+     * @return The batch.
+     */
+    public static VersionBatch of(Collection<SemanticVersion> versions) {
+        return new VersionBatch(versions.toArray(new SemanticVersion[0]));
+    }
+
+    /** @return The number of versions in the batch. */
+    public int size() {
+        return versions.length;
+    }
+
+    /** @return The version at the given column position. */
+    public SemanticVersion get(int index) {
+        return versions[index];
+    }
+
+    /**
+     * Resolves one condition against every version in the batch.
+     *
+     * @param condition A condition tree over semantic versions.
+     * @return The positions of the matching versions.
+     * @throws IllegalArgumentException if an operator or version in the tree is invalid.
+     */
+    public BitSet resolve(Condition condition) {
+        return BitSet.valueOf(resolveWords(condition, ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * Resolves every condition against every version in the batch, in parallel on the common pool.
+     *
+     * @param conditions Condition trees over semantic versions.
+     * @return One bitset per condition, in the same order.
+     * @throws IllegalArgumentException if an operator or version in any tree is invalid.
+     */
+    public List<BitSet> resolveAll(List<Condition> conditions) {
+        return resolveAll(conditions, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Resolves every condition against every version in the batch, in parallel on the given pool.
+     *
+     * @param conditions Condition trees over semantic versions.
+     * @param pool       The pool to run on.
+     * @return One bitset per condition, in the same order.
+     * @throws IllegalArgumentException if an operator or version in any tree is invalid.
+     */
+    public List<BitSet> resolveAll(List<Condition> conditions, ForkJoinPool pool) {
+        Condition[] array = conditions.toArray(new Condition[0]);
+        long[][] words = new long[array.length][];
+        pool.invoke(new ConditionsTask(array, words, 0, array.length, pool));
+
+        List<BitSet> results = new ArrayList<>(array.length);
+        for (long[] w : words) {
+            results.add(BitSet.valueOf(w));
+        }
+        return results;
+    }
+
+    private long[] resolveWords(Condition condition, ForkJoinPool pool) {
+        long[] words = new long[(versions.length + 63) >>> 6];
+
+        VersionRangeSet set;
+        try {
+            set = ConditionSimplifier.simplify(condition);
+        } catch (IllegalArgumentException e) {
+            // Not a union of ranges; the compiler reports genuinely invalid trees
+            Predicate<SemanticVersion> predicate = ConditionCompiler.compile(condition);
+            if (ForkJoinTask.inForkJoinPool()) {
+                new PredicateTask(predicate, words, 0, versions.length).invoke();
+            } else {
+                pool.invoke(new PredicateTask(predicate, words, 0, versions.length));
+            }
+            return words;
+        }
+
+        if (set.isAll()) {
+            setRange(words, 0, versions.length);
+            return words;
+        }
+
+        List<VersionRangeSet.Cut> lowers = set.lowerBounds();
+        List<VersionRangeSet.Cut> uppers = set.upperBounds();
+        int keyedFrom = 0, unkeyedFrom = 0;
+        for (int i = 0; i < lowers.size(); i++) {
+            int lo = firstKeyAbove(lowers.get(i), keyedFrom);
+            int hi = firstKeyAbove(uppers.get(i), lo);
+            scatter(words, keyedOrder, lo, hi);
+            keyedFrom = hi;
+
+            if (unkeyed.length > 0) {
+                lo = firstAbove(unkeyed, lowers.get(i), unkeyedFrom);
+                hi = firstAbove(unkeyed, uppers.get(i), lo);
+                scatter(words, unkeyedOrder, lo, hi);
+                unkeyedFrom = hi;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * @return The first keyed position at or after {@code from} whose version lies above the cut,
+     *         found on the primitive keys unless the cut's version has no key.
+     */
+    private int firstKeyAbove(VersionRangeSet.Cut cut, int from) {
+        if (cut == VersionRangeSet.Cut.BELOW_ALL) return from;
+        if (cut == VersionRangeSet.Cut.ABOVE_ALL) return keys.length;
+
+        long key = cut.version().sortKey();
+        if (key == SemanticVersion.NO_SORT_KEY) {
+            int lo = from, hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cut.isBelow(versions[keyedOrder[mid]])) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        // Keys are equal exactly when precedence is, so "after" starts at the next key
+        long target = cut.isBefore() ? key : key + 1;
+        int lo = from, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] >= target) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /** @return The first position at or after {@code from} in a sorted column whose version lies above the cut. */
+    private static int firstAbove(SemanticVersion[] sorted, VersionRangeSet.Cut cut, int from) {
+        int lo = from, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cut.isBelow(sorted[mid])) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private static void scatter(long[] words, int[] positions, int from, int to) {
+        for (int s = from; s < to; s++) {
+            int position = positions[s];
+            words[position >>> 6] |= 1L << position;
+        }
+    }
+
+    private static void setRange(long[] words, int from, int to) {
+        for (int i = from; i < to; i++) {
+            words[i >>> 6] |= 1L << i;
+        }
+    }
+
+    /** Splits the conditions in halves until each leaf resolves one condition. */
+    private final class ConditionsTask extends RecursiveAction {
+        private final Condition[] conditions;
+        private final long[][] words;
+        private final int from, to;
+        private final ForkJoinPool pool;
+
+        ConditionsTask(Condition[] conditions, long[][] words, int from, int to, ForkJoinPool pool) {
+            this.conditions = conditions;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+            this.pool = pool;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                words[from] = resolveWords(conditions[from], pool);
+            } else if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ConditionsTask(conditions, words, from, mid, pool),
+                          new ConditionsTask(conditions, words, mid, to, pool));
+            }
+        }
+    }
+
+    /** Tests a predicate over a range of columns; ranges split on 64-bit word boundaries. */
+    private final class PredicateTask extends RecursiveAction {
+        private final Predicate<SemanticVersion> predicate;
+        private final long[] words;
+        private final int from, to;
+
+        PredicateTask(Predicate<SemanticVersion> predicate, long[] words, int from, int to) {
+            this.predicate = predicate;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    if (predicate.test(versions[i])) {
+                        words[i >>> 6] |= 1L << i;
+                    }
+                }
+                return;
+            }
+            int mid = ((from + to) >>> 1) & ~63;
+            invokeAll(new PredicateTask(predicate, words, from, mid),
+                      new PredicateTask(predicate, words, mid, to));
+        }
+    }
+}
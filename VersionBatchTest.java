@@ -0,0 +1,152 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code VersionBatch} against the compiled predicate of each condition.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Range conditions and conditions that fall back to the predicate (inner wildcards) set
+ *         exactly the bits of the matching column positions, on a batch larger than one chunk.</li>
+ *     <li>Bounds with and without a sort key split a small batch of keyed and unkeyed versions at
+ *         the right place.</li>
+ *     <li>{@code resolveAll} on the common pool and on a given pool agrees with {@code resolve}.</li>
+ *     <li>Invalid conditions are rejected, and an empty batch resolves to empty bitsets.</li>
+ * </ul>
+ * </p>
+ */
+public class VersionBatchTest {
+
+    private static final String[] CONSTRAINTS = {">= 1.2.0", "< 2.0.0-rc.1", "== 1.3.*", "!= 0.*", "<= 1.4.4",
+            "> 2.1.7+build", "== 1.*.3", "!= *.2.*", "> 1.0.0-rc.1023", "< 40000.0.0", ">= 2.0.0-rc.1.2"};
+
+    private static List<SemanticVersion> randomVersions(int n, long seed) {
+        return Arrays.asList(TestData.randomVersions(n, seed));
+    }
+
+    private static List<Condition> randomConditions(int n, long seed) {
+        Random random = new Random(seed);
+        List<Condition> conditions = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            String criteria = CONSTRAINTS[random.nextInt(CONSTRAINTS.length)];
+            switch (random.nextInt(3)) {
+                case 0:
+                    conditions.add(new Condition(criteria));
+                    break;
+                case 1:
+                    conditions.add(new Condition(criteria, null,
+                            Arrays.asList(new Condition(CONSTRAINTS[random.nextInt(CONSTRAINTS.length)]),
+                                    new Condition(CONSTRAINTS[random.nextInt(CONSTRAINTS.length)])), null));
+                    break;
+                default:
+                    conditions.add(new Condition(null, Collections.singletonList(new Condition(criteria)), null,
+                            Collections.singletonList(new Condition(CONSTRAINTS[random.nextInt(CONSTRAINTS.length)]))));
+            }
+        }
+        return conditions;
+    }
+
+    private static BitSet expected(List<SemanticVersion> versions, Condition condition) {
+        Predicate<SemanticVersion> predicate = ConditionCompiler.compile(condition);
+        BitSet bits = new BitSet();
+        for (int i = 0; i < versions.size(); i++) {
+            if (predicate.test(versions.get(i))) bits.set(i);
+        }
+        return bits;
+    }
+
+    @Test
+    public void testResolveMatchesPredicate() {
+        List<SemanticVersion> versions = randomVersions(10_000, 1);
+        VersionBatch batch = VersionBatch.of(versions);
+        assertEquals(versions.size(), batch.size());
+        assertSame(versions.get(17), batch.get(17));
+
+        for (String criteria : CONSTRAINTS) {
+            Condition condition = new Condition(criteria);
+            assertEquals(expected(versions, condition), batch.resolve(condition), criteria);
+        }
+        for (Condition condition : randomConditions(50, 2)) {
+            assertEquals(expected(versions, condition), batch.resolve(condition), condition.toString());
+        }
+    }
+
+    @Test
+    public void testResolveAllMatchesResolve() {
+        List<SemanticVersion> versions = randomVersions(5_000, 3);
+        VersionBatch batch = VersionBatch.of(versions.toArray(new SemanticVersion[0]));
+        List<Condition> conditions = randomConditions(200, 4);
+
+        List<BitSet> common = batch.resolveAll(conditions);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        List<BitSet> pooled;
+        try {
+            pooled = batch.resolveAll(conditions, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(conditions.size(), common.size());
+        for (int i = 0; i < conditions.size(); i++) {
+            BitSet expected = expected(versions, conditions.get(i));
+            assertEquals(expected, common.get(i), conditions.get(i).toString());
+            assertEquals(expected, pooled.get(i), conditions.get(i).toString());
+        }
+    }
+
+    @Test
+    public void testInvalidAndEmpty() {
+        VersionBatch batch = VersionBatch.of(randomVersions(100, 5));
+        assertThrows(IllegalArgumentException.class, () -> batch.resolve(new Condition("=> 1.0.0")));
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.resolveAll(Arrays.asList(new Condition(">= 1.0.0"), new Condition("< 1.x"))));
+
+        VersionBatch empty = VersionBatch.of(new SemanticVersion[0]);
+        assertTrue(empty.resolve(new Condition(">= 0.0.0")).isEmpty());
+        assertTrue(empty.resolve(new Condition("== 1.*.3")).isEmpty());
+        assertTrue(empty.resolveAll(Collections.emptyList()).isEmpty());
+    }
+
+    /**
+     * Tests a single criteria over a small batch that mixes keyed and unkeyed versions.
+     *
+     * @param criteria The criteria.
+     * @param expected The matching column positions, space-separated.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        ">= 0.0.0, 0 1 2 3 4 5 6",
+        ">= 1.0.0, 0 1 2 3 4 5",
+        "> 1.0.0, 0 1 4 5",
+        "< 1.0.0, 6",
+        "== 1.0.0, 2 3",
+        "> 1.0.0-rc.1, 0 1 2 3 4 5",
+        "< 1.0.0-rc.1023, 6",
+        ">= 1.0.0-rc.1023, 0 1 2 3 4 5",
+        "< 40000.0.0, 1 2 3 4 5 6",
+        "> 32767.32767.1048575, 0",
+        "== 1.*, 1 2 3 4 5",
+        "== 1.*.3, 5",
+        "!= 1.0.0, 0 1 4 5 6"
+    })
+    public void testMixedKeyedAndUnkeyed(String criteria, String expected) {
+        VersionBatch batch = VersionBatch.of(new SemanticVersion[] {new SemanticVersion("40000.0.0"),
+                new SemanticVersion("1.2.0-x.y"), new SemanticVersion("1.0.0"), new SemanticVersion("1.0.0+b"),
+                new SemanticVersion("1.1.0"), new SemanticVersion("1.2.3"), new SemanticVersion("0.9.0-rc.1.2")});
+        BitSet bits = new BitSet();
+        for (String position : expected.split(" ")) {
+            bits.set(Integer.parseInt(position));
+        }
+        assertEquals(bits, batch.resolve(new Condition(criteria)));
+    }
+}
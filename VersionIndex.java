@@ -0,0 +1,234 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, sorted index of {@link SemanticVersion}s for answering constraint queries
+ * without scanning every candidate.
+ * <p>
+ * Supported queries:
+ * <ul>
+ *     <li>{@code >}, {@code >=}, {@code <}, {@code <=}, {@code ==} and {@code !=} against a version,
+ *         using {@code compareTo} precedence (build metadata is ignored).</li>
+ *     <li>Wildcard patterns such as {@code 1.2.*} or {@code 1.*}, with the same meaning as
+ *         {@link SemanticVersion#matchesWildcard}.</li>
+ * </ul>
+ * Every operator query and every wildcard whose {@code *} parts are trailing maps to at most two
+ * contiguous runs of the sorted array. They are found by binary search in O(log n); counts are
+ * O(log n) and results are O(1) list views. Wildcards with a fixed part after a {@code *}
+ * (e.g. {@code 1.*.3}) are narrowed to the run of the fixed prefix and then filtered.
+ * </p>
+ */
+public final class VersionIndex {
+
+    private final SemanticVersion[] sorted;
+    private final List<SemanticVersion> view;
+
+    private VersionIndex(SemanticVersion[] sorted) {
+        this.sorted = sorted;
+        this.view = Collections.unmodifiableList(Arrays.asList(sorted));
+    }
+
+    /**
+     * Builds an index over a copy of the given versions.
+     *
+     * @param versions The versions to index, in any order.
+     * @return The index.
+     */
+    public static VersionIndex of(Collection<SemanticVersion> versions) {
+        SemanticVersion[] sorted = versions.toArray(new SemanticVersion[0]);
+        SemanticVersions.sort(sorted);
+        return new VersionIndex(sorted);
+    }
+
+    /** @return The number of indexed versions. */
+    public int size() {
+        return sorted.length;
+    }
+
+    /** @return Every indexed version in ascending order. */
+    public List<SemanticVersion> versions() {
+        return view;
+    }
+
+    /**
+     * Returns the versions satisfying {@code version <operator> value}.
+     *
+     * @param operator One of {@code >}, {@code >=}, {@code <}, {@code <=}, {@code ==}, {@code !=}.
+     * @param value    The version on the right-hand side.
+     * @return An ascending, unmodifiable view of the matching versions.
+     * @throws IllegalArgumentException if the operator is unknown.
+     */
+    public List<SemanticVersion> query(String operator, SemanticVersion value) {
+        int lower = lowerBound(value);
+        switch (operator) {
+            case ">":  return view.subList(upperBound(value, lower), sorted.length);
+            case ">=": return view.subList(lower, sorted.length);
+            case "<":  return view.subList(0, lower);
+            case "<=": return view.subList(0, upperBound(value, lower));
+            case "==": return view.subList(lower, upperBound(value, lower));
+            case "!=": return concat(view.subList(0, lower), view.subList(upperBound(value, lower), sorted.length));
+            default: throw new IllegalArgumentException("Unknown operator: " + operator);
+        }
+    }
+
+    /**
+     * Counts the versions satisfying {@code version <operator> value} without building a result.
+     *
+     * @param operator One of {@code >}, {@code >=}, {@code <}, {@code <=}, {@code ==}, {@code !=}.
+     * @param value    The version on the right-hand side.
+     * @return The number of matching versions.
+     * @throws IllegalArgumentException if the operator is unknown.
+     */
+    public int count(String operator, SemanticVersion value) {
+        int lower = lowerBound(value);
+        switch (operator) {
+            case ">":  return sorted.length - upperBound(value, lower);
+            case ">=": return sorted.length - lower;
+            case "<":  return lower;
+            case "<=": return upperBound(value, lower);
+            case "==": return upperBound(value, lower) - lower;
+            case "!=": return sorted.length - (upperBound(value, lower) - lower);
+            default: throw new IllegalArgumentException("Unknown operator: " + operator);
+        }
+    }
+
+    /**
+     * Returns the versions matching a wildcard pattern.
+     *
+     * @param pattern A version pattern such as {@code 1.2.*}.
+     * @return An ascending, unmodifiable list of the matching versions.
+     */
+    public List<SemanticVersion> matching(SemanticVersion pattern) {
+        int prefix = fixedPrefixLength(pattern);
+        int from = prefixBound(pattern, prefix, false);
+        int to = prefixBound(pattern, prefix, true);
+        if (isTrailingWildcard(pattern, prefix)) {
+            return view.subList(from, to);
+        }
+
+        List<SemanticVersion> result = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            if (sorted[i].matchesWildcard(pattern)) result.add(sorted[i]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Counts the versions matching a wildcard pattern without building a result
+     * when the {@code *} parts are trailing.
+     *
+     * @param pattern A version pattern such as {@code 1.2.*}.
+     * @return The number of matching versions.
+     */
+    public int countMatching(SemanticVersion pattern) {
+        int prefix = fixedPrefixLength(pattern);
+        int from = prefixBound(pattern, prefix, false);
+        int to = prefixBound(pattern, prefix, true);
+        if (isTrailingWildcard(pattern, prefix)) {
+            return to - from;
+        }
+
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (sorted[i].matchesWildcard(pattern)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Answers a textual constraint: either {@code "<operator> <version>"} (e.g. {@code ">= 1.8.0"})
+     * or a bare wildcard pattern (e.g. {@code "1.2.*"}).
+     *
+     * @param constraint The constraint to evaluate.
+     * @return An ascending, unmodifiable list of the matching versions.
+     * @throws IllegalArgumentException if the operator or version is invalid.
+     */
+    public List<SemanticVersion> query(String constraint) {
+        String trimmed = constraint.trim();
+        int split = 0;
+        while (split < trimmed.length() && "<>=!".indexOf(trimmed.charAt(split)) >= 0) split++;
+        if (split == 0) {
+            return matching(SemanticVersion.of(trimmed));
+        }
+        return query(trimmed.substring(0, split), SemanticVersion.of(trimmed.substring(split).trim()));
+    }
+
+    /** @return The first index whose version is {@code >= value}. */
+    private int lowerBound(SemanticVersion value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].compareTo(value) < 0) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** @return The first index at or after {@code from} whose version is {@code > value}. */
+    private int upperBound(SemanticVersion value, int from) {
+        int lo = from, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].compareTo(value) <= 0) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** @return How many leading parts (major, minor, patch) of the pattern are fixed. */
+    private static int fixedPrefixLength(SemanticVersion pattern) {
+        if (pattern.getMajor() == SemanticVersion.WILDCARD) return 0;
+        if (pattern.getMinor() == SemanticVersion.WILDCARD) return 1;
+        if (pattern.getPatch() == SemanticVersion.WILDCARD) return 2;
+        return 3;
+    }
+
+    /** @return {@code true} if every part after the fixed prefix is a wildcard. */
+    private static boolean isTrailingWildcard(SemanticVersion pattern, int prefix) {
+        return (prefix >= 2 || pattern.getPatch() == SemanticVersion.WILDCARD)
+            && (prefix >= 1 || pattern.getMinor() == SemanticVersion.WILDCARD);
+    }
+
+    /**
+     * Binary search on the first {@code prefix} core parts only.
+     *
+     * @param upper {@code false} for the first index with an equal-or-greater prefix,
+     *              {@code true} for the first index with a strictly greater prefix.
+     */
+    private int prefixBound(SemanticVersion pattern, int prefix, boolean upper) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparePrefix(sorted[mid], pattern, prefix);
+            if (cmp < 0 || (upper && cmp == 0)) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int comparePrefix(SemanticVersion version, SemanticVersion pattern, int prefix) {
+        int cmp = 0;
+        if (prefix >= 1) cmp = Integer.compare(version.getMajor(), pattern.getMajor());
+        if (cmp == 0 && prefix >= 2) cmp = Integer.compare(version.getMinor(), pattern.getMinor());
+        if (cmp == 0 && prefix >= 3) cmp = Integer.compare(version.getPatch(), pattern.getPatch());
+        return cmp;
+    }
+
+    /** An unmodifiable view of two lists back to back. */
+    private static List<SemanticVersion> concat(List<SemanticVersion> first, List<SemanticVersion> second) {
+        if (second.isEmpty()) return first;
+        if (first.isEmpty()) return second;
+        return new AbstractList<SemanticVersion>() {
+            @Override
+            public SemanticVersion get(int index) {
+                return index < first.size() ? first.get(index) : second.get(index - first.size());
+            }
+
+            @Override
+            public int size() {
+                return first.size() + second.size();
+            }
+        };
+    }
+}
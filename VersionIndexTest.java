@@ -0,0 +1,144 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code VersionIndex} against a linear scan.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Every operator query and count matches a scan, for values inside and outside the index,
+ *         including versions equal in precedence but not in build metadata.</li>
+ *     <li>Trailing and inner wildcard patterns match a scan with {@code matchesWildcard}.</li>
+ *     <li>Textual constraints are split into operator and version, and results are unmodifiable.</li>
+ *     <li>Hand-picked queries at and beyond the ends of a small index, and on empty and single-version indexes.</li>
+ * </ul>
+ * </p>
+ */
+public class VersionIndexTest {
+
+    private static final String[] OPERATORS = {">", ">=", "<", "<=", "==", "!="};
+
+    private final List<SemanticVersion> versions = Arrays.asList(TestData.randomVersions(2000, 1));
+    private final VersionIndex index = VersionIndex.of(versions);
+
+    /** @return The versions accepted by the filter, in ascending order. */
+    private List<SemanticVersion> scan(Predicate<SemanticVersion> filter) {
+        List<SemanticVersion> result = new ArrayList<>();
+        for (SemanticVersion version : index.versions()) {
+            if (filter.test(version)) result.add(version);
+        }
+        return result;
+    }
+
+    private static boolean holds(String operator, int cmp) {
+        switch (operator) {
+            case ">":  return cmp > 0;
+            case ">=": return cmp >= 0;
+            case "<":  return cmp < 0;
+            case "<=": return cmp <= 0;
+            case "==": return cmp == 0;
+            default:   return cmp != 0;
+        }
+    }
+
+    @Test
+    public void testVersionsAreSorted() {
+        assertEquals(versions.size(), index.size());
+        for (int i = 1; i < index.size(); i++) {
+            assertTrue(index.versions().get(i - 1).compareTo(index.versions().get(i)) <= 0);
+        }
+        assertThrows(UnsupportedOperationException.class, () -> index.versions().set(0, versions.get(0)));
+    }
+
+    @Test
+    public void testOperatorQueriesMatchScan() {
+        List<SemanticVersion> values = new ArrayList<>(Arrays.asList(TestData.randomVersions(200, 2)));
+        values.addAll(Arrays.asList(new SemanticVersion("0.0.0-0"), new SemanticVersion("9.0.0"),
+                new SemanticVersion("1.2.3+other"), new SemanticVersion("2.0.0-rc.0")));
+        for (SemanticVersion value : values) {
+            for (String operator : OPERATORS) {
+                List<SemanticVersion> expected = scan(v -> holds(operator, v.compareTo(value)));
+                List<SemanticVersion> actual = index.query(operator, value);
+                assertEquals(expected, actual, operator + " " + value);
+                assertEquals(expected.size(), index.count(operator, value), operator + " " + value);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> index.query("=>", new SemanticVersion("1.0.0")));
+        assertThrows(IllegalArgumentException.class, () -> index.count("~", new SemanticVersion("1.0.0")));
+    }
+
+    /**
+     * Tests that a wildcard pattern matches the same versions as a scan.
+     *
+     * @param pattern A pattern with trailing or inner wildcards, or none.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"*", "1.*", "1.2.*", "1.2.3", "1.*.3", "*.2.*", "*.*.7", "7.*", "3.5.*"})
+    public void testWildcardsMatchScan(String pattern) {
+        SemanticVersion wildcard = new SemanticVersion(pattern);
+        List<SemanticVersion> expected = scan(v -> v.matchesWildcard(wildcard));
+
+        assertEquals(expected, index.matching(wildcard));
+        assertEquals(expected.size(), index.countMatching(wildcard));
+        assertEquals(expected, index.query(pattern));
+    }
+
+    /**
+     * Tests counts on the index {@code 1.0.0-rc.1, 1.0.0, 1.0.0+b, 1.2.3, 2.0.0}.
+     *
+     * @param constraint An operator and a value.
+     * @param expected   The number of matching versions.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        // Below, at and above the lowest version
+        "< 0.0.0, 0", "> 0.0.0, 5", "< 1.0.0-rc.1, 0", "<= 1.0.0-rc.1, 1", ">= 1.0.0-rc.1, 5",
+        // Versions equal in precedence but not in build metadata
+        "== 1.0.0, 2", "== 1.0.0+other, 2", "!= 1.0.0, 3", "> 1.0.0, 2", "<= 1.0.0+b, 3",
+        // At and above the highest version
+        ">= 2.0.0, 1", "> 2.0.0, 0", "< 2.0.0, 4", "<= 99999.0.0, 5", "== 3.0.0, 0",
+        // Wildcards
+        "1.*, 4", "1.0.*, 3", "*, 5", "2.*.0, 1", "3.*, 0"
+    })
+    public void testSmallIndex(String constraint, int expected) {
+        VersionIndex small = VersionIndex.of(Arrays.asList(new SemanticVersion("2.0.0"), new SemanticVersion("1.0.0+b"),
+                new SemanticVersion("1.2.3"), new SemanticVersion("1.0.0"), new SemanticVersion("1.0.0-rc.1")));
+        assertEquals(expected, small.query(constraint).size());
+    }
+
+    /**
+     * Tests an index of one version against every operator.
+     *
+     * @param operator The operator.
+     * @param below    Count for a value below the version.
+     * @param equal    Count for the version itself.
+     * @param above    Count for a value above the version.
+     */
+    @ParameterizedTest
+    @CsvSource({">, 1, 0, 0", ">=, 1, 1, 0", "<, 0, 0, 1", "<=, 0, 1, 1", "==, 0, 1, 0", "!=, 1, 0, 1"})
+    public void testSingleVersion(String operator, int below, int equal, int above) {
+        VersionIndex single = VersionIndex.of(Arrays.asList(new SemanticVersion("1.5.0")));
+        assertEquals(below, single.count(operator, new SemanticVersion("1.4.9")));
+        assertEquals(equal, single.count(operator, new SemanticVersion("1.5.0")));
+        assertEquals(above, single.count(operator, new SemanticVersion("1.5.1")));
+    }
+
+    @Test
+    public void testTextualConstraints() {
+        assertEquals(index.query(">=", new SemanticVersion("1.8.0")), index.query(" >= 1.8.0 "));
+        assertEquals(index.query("!=", new SemanticVersion("2.0.0")), index.query("!=2.0.0"));
+        assertThrows(IllegalArgumentException.class, () -> index.query(">= 1.x"));
+
+        VersionIndex empty = VersionIndex.of(new ArrayList<>());
+        assertTrue(empty.query("<", new SemanticVersion("1.0.0")).isEmpty());
+        assertEquals(0, empty.countMatching(new SemanticVersion("1.*")));
+    }
+}
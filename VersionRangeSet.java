@@ -0,0 +1,313 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable set of {@link SemanticVersion}s stored as a normalized union of disjoint,
+ * non-adjacent, half-open intervals {@code [lower, upper)}.
+ * <p>
+ * Interval endpoints are {@link Cut}s: positions just before or just after a version, or beyond
+ * either end of the version line. With cuts every constraint is exactly half-open, for example:
+ * <ul>
+ *     <li>{@code > 1.2.0} is {@code [after 1.2.0, +inf)}.</li>
+ *     <li>{@code <= 1.2.0} is {@code [-inf, after 1.2.0)}.</li>
+ *     <li>{@code == 1.2.0} is {@code [before 1.2.0, after 1.2.0)}.</li>
+ *     <li>{@code == 1.2.*} is {@code [before 1.2.0-., before 1.3.0-.)}, where {@code 1.2.0-.} (a
+ *         pre-release with no identifiers) is the lowest version with core {@code 1.2.0}.</li>
+ * </ul>
+ * Precedence follows {@code compareTo}, so build metadata is ignored. Membership tests are a binary
+ * search over the intervals.
+ * </p>
+ */
+public final class VersionRangeSet {
+
+    /** A position on the version line between versions, used as an interval endpoint. */
+    public static final class Cut implements Comparable<Cut> {
+        private static final int BELOW_ALL_KIND = -2, BEFORE = -1, AFTER = 1, ABOVE_ALL_KIND = 2;
+
+        public static final Cut BELOW_ALL = new Cut(null, BELOW_ALL_KIND);
+        public static final Cut ABOVE_ALL = new Cut(null, ABOVE_ALL_KIND);
+
+        private final SemanticVersion version;
+        private final int kind;
+
+        private Cut(SemanticVersion version, int kind) {
+            this.version = version;
+            this.kind = kind;
+        }
+
+        /** @return The cut just below {@code version}. */
+        public static Cut before(SemanticVersion version) {
+            return new Cut(version, BEFORE);
+        }
+
+        /** @return The cut just above {@code version}. */
+        public static Cut after(SemanticVersion version) {
+            return new Cut(version, AFTER);
+        }
+
+        /** @return The version this cut is next to, or {@code null} for the unbounded cuts. */
+        public SemanticVersion version() {
+            return version;
+        }
+
+        /** @return {@code true} if the cut is just before its version. */
+        public boolean isBefore() {
+            return kind == BEFORE;
+        }
+
+        /** @return {@code true} if {@code version} lies above this cut. */
+        boolean isBelow(SemanticVersion v) {
+            switch (kind) {
+                case BELOW_ALL_KIND: return true;
+                case ABOVE_ALL_KIND: return false;
+                case BEFORE:         return version.compareTo(v) <= 0;
+                default:             return version.compareTo(v) < 0;
+            }
+        }
+
+        @Override
+        public int compareTo(Cut other) {
+            if (kind == BELOW_ALL_KIND || kind == ABOVE_ALL_KIND
+                    || other.kind == BELOW_ALL_KIND || other.kind == ABOVE_ALL_KIND) {
+                return Integer.compare(kind == BELOW_ALL_KIND ? -1 : kind == ABOVE_ALL_KIND ? 1 : 0,
+                        other.kind == BELOW_ALL_KIND ? -1 : other.kind == ABOVE_ALL_KIND ? 1 : 0);
+            }
+            int cmp = version.compareTo(other.version);
+            return cmp != 0 ? cmp : Integer.compare(kind, other.kind);
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case BELOW_ALL_KIND: return "-inf";
+                case ABOVE_ALL_KIND: return "+inf";
+                case BEFORE:         return "before " + version;
+                default:             return "after " + version;
+            }
+        }
+    }
+
+    private static final VersionRangeSet EMPTY = new VersionRangeSet(new Cut[0], new Cut[0]);
+    private static final VersionRangeSet ALL = new VersionRangeSet(new Cut[] {Cut.BELOW_ALL}, new Cut[] {Cut.ABOVE_ALL});
+
+    private final Cut[] lowers;
+    private final Cut[] uppers;
+
+    private VersionRangeSet(Cut[] lowers, Cut[] uppers) {
+        this.lowers = lowers;
+        this.uppers = uppers;
+    }
+
+    /** @return The set containing no versions. */
+    public static VersionRangeSet empty() {
+        return EMPTY;
+    }
+
+    /** @return The set containing every version. */
+    public static VersionRangeSet all() {
+        return ALL;
+    }
+
+    /**
+     * @return The set {@code [lower, upper)}, or the empty set if {@code lower >= upper}.
+     */
+    public static VersionRangeSet range(Cut lower, Cut upper) {
+        return lower.compareTo(upper) < 0 ? new VersionRangeSet(new Cut[] {lower}, new Cut[] {upper}) : EMPTY;
+    }
+
+    /**
+     * Builds the set of versions satisfying {@code version <operator> value}.
+     * A wildcard value with {@code ==} or {@code !=} means {@link SemanticVersion#matchesWildcard}.
+     *
+     * @param operator The comparison operator.
+     * @param value    The version on the right-hand side.
+     * @return The matching set.
+     * @throws IllegalArgumentException if the value is a wildcard with a fixed part after a {@code *}
+     *         (e.g. {@code 1.*.3}), which is not a union of ranges, or a wildcard with an ordering operator.
+     */
+    public static VersionRangeSet of(Operator operator, SemanticVersion value) {
+        if (operator != Operator.EQUAL && operator != Operator.NOT_EQUAL && (value.getMajor() == SemanticVersion.WILDCARD
+                || value.getMinor() == SemanticVersion.WILDCARD || value.getPatch() == SemanticVersion.WILDCARD)) {
+            throw new IllegalArgumentException("Wildcard version cannot be ordered: " + operator.symbol() + " " + value);
+        }
+        switch (operator) {
+            case GREATER_THAN:          return range(Cut.after(value), Cut.ABOVE_ALL);
+            case GREATER_THAN_OR_EQUAL: return range(Cut.before(value), Cut.ABOVE_ALL);
+            case LESS_THAN:             return range(Cut.BELOW_ALL, Cut.before(value));
+            case LESS_THAN_OR_EQUAL:    return range(Cut.BELOW_ALL, Cut.after(value));
+            case EQUAL:                 return equalTo(value);
+            default:                    return equalTo(value).complement();
+        }
+    }
+
+    private static VersionRangeSet equalTo(SemanticVersion value) {
+        int major = value.getMajor(), minor = value.getMinor(), patch = value.getPatch();
+        if (major != SemanticVersion.WILDCARD && minor != SemanticVersion.WILDCARD && patch != SemanticVersion.WILDCARD) {
+            return range(Cut.before(value), Cut.after(value));
+        }
+        if (major == SemanticVersion.WILDCARD) {
+            if (minor != SemanticVersion.WILDCARD || patch != SemanticVersion.WILDCARD) throw notARange(value);
+            return ALL;
+        }
+        if (minor == SemanticVersion.WILDCARD) {
+            if (patch != SemanticVersion.WILDCARD) throw notARange(value);
+            return range(Cut.before(lowestOf(major, 0)),
+                    major == Integer.MAX_VALUE ? Cut.ABOVE_ALL : Cut.before(lowestOf(major + 1, 0)));
+        }
+        return range(Cut.before(lowestOf(major, minor)),
+                minor == Integer.MAX_VALUE ? Cut.before(lowestOf(major + 1, 0)) : Cut.before(lowestOf(major, minor + 1)));
+    }
+
+    /** @return The lowest version with core {@code major.minor.0}: a pre-release with no identifiers. */
+    private static SemanticVersion lowestOf(int major, int minor) {
+        return SemanticVersion.of(major + "." + minor + ".0-.");
+    }
+
+    private static IllegalArgumentException notARange(SemanticVersion pattern) {
+        return new IllegalArgumentException("Wildcard pattern is not a version range: " + pattern);
+    }
+
+    /** @return {@code true} if the set contains no versions. */
+    public boolean isEmpty() {
+        return lowers.length == 0;
+    }
+
+    /** @return {@code true} if the set contains every version. */
+    public boolean isAll() {
+        return lowers.length == 1 && lowers[0] == Cut.BELOW_ALL && uppers[0] == Cut.ABOVE_ALL;
+    }
+
+    /** @return The number of disjoint intervals. */
+    public int intervalCount() {
+        return lowers.length;
+    }
+
+    /** @return The lower cuts of the intervals, in ascending order. */
+    public List<Cut> lowerBounds() {
+        return Collections.unmodifiableList(Arrays.asList(lowers));
+    }
+
+    /** @return The upper cuts of the intervals, in ascending order. */
+    public List<Cut> upperBounds() {
+        return Collections.unmodifiableList(Arrays.asList(uppers));
+    }
+
+    /**
+     * Tests membership with a binary search over the intervals.
+     *
+     * @param version A concrete version (no wildcards).
+     * @return {@code true} if the version lies in one of the intervals.
+     */
+    public boolean contains(SemanticVersion version) {
+        // Find the last interval whose lower cut is below the version
+        int lo = 0, hi = lowers.length - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (lowers[mid].isBelow(version)) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found >= 0 && !uppers[found].isBelow(version);
+    }
+
+    /** @return The versions in both sets. */
+    public VersionRangeSet intersect(VersionRangeSet other) {
+        if (isEmpty() || other.isAll()) return this;
+        if (other.isEmpty() || isAll()) return other;
+
+        List<Cut> newLowers = new ArrayList<>();
+        List<Cut> newUppers = new ArrayList<>();
+        int i = 0, j = 0;
+        while (i < lowers.length && j < other.lowers.length) {
+            Cut lower = max(lowers[i], other.lowers[j]);
+            Cut upper = min(uppers[i], other.uppers[j]);
+            if (lower.compareTo(upper) < 0) {
+                newLowers.add(lower);
+                newUppers.add(upper);
+            }
+            if (uppers[i].compareTo(other.uppers[j]) < 0) i++; else j++;
+        }
+        return create(newLowers, newUppers);
+    }
+
+    /** @return The versions in either set. */
+    public VersionRangeSet union(VersionRangeSet other) {
+        if (isEmpty() || other.isAll()) return other;
+        if (other.isEmpty() || isAll()) return this;
+
+        List<Cut> newLowers = new ArrayList<>();
+        List<Cut> newUppers = new ArrayList<>();
+        int i = 0, j = 0;
+        while (i < lowers.length || j < other.lowers.length) {
+            Cut lower, upper;
+            if (j >= other.lowers.length || (i < lowers.length && lowers[i].compareTo(other.lowers[j]) <= 0)) {
+                lower = lowers[i];
+                upper = uppers[i++];
+            } else {
+                lower = other.lowers[j];
+                upper = other.uppers[j++];
+            }
+
+            int last = newUppers.size() - 1;
+            if (last >= 0 && lower.compareTo(newUppers.get(last)) <= 0) {
+                newUppers.set(last, max(newUppers.get(last), upper)); // Overlapping or adjacent
+            } else {
+                newLowers.add(lower);
+                newUppers.add(upper);
+            }
+        }
+        return create(newLowers, newUppers);
+    }
+
+    /** @return The versions not in this set. */
+    public VersionRangeSet complement() {
+        if (isEmpty()) return ALL;
+        if (isAll()) return EMPTY;
+
+        List<Cut> newLowers = new ArrayList<>();
+        List<Cut> newUppers = new ArrayList<>();
+        Cut previous = Cut.BELOW_ALL;
+        for (int i = 0; i < lowers.length; i++) {
+            if (previous.compareTo(lowers[i]) < 0) {
+                newLowers.add(previous);
+                newUppers.add(lowers[i]);
+            }
+            previous = uppers[i];
+        }
+        if (previous.compareTo(Cut.ABOVE_ALL) < 0) {
+            newLowers.add(previous);
+            newUppers.add(Cut.ABOVE_ALL);
+        }
+        return create(newLowers, newUppers);
+    }
+
+    private static VersionRangeSet create(List<Cut> lowers, List<Cut> uppers) {
+        if (lowers.isEmpty()) return EMPTY;
+        VersionRangeSet set = new VersionRangeSet(lowers.toArray(new Cut[0]), uppers.toArray(new Cut[0]));
+        return set.isAll() ? ALL : set;
+    }
+
+    private static Cut max(Cut a, Cut b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static Cut min(Cut a, Cut b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) return "{}";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lowers.length; i++) {
+            if (i > 0) sb.append(" U ");
+            sb.append('[').append(lowers[i]).append(", ").append(uppers[i]).append(')');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,161 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@code VersionRangeSet} against membership computed version by version.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Sets built from an operator contain exactly the versions the operator accepts.</li>
+ *     <li>{@code intersect}, {@code union} and {@code complement} match the boolean operations on membership,
+ *         and results are canonical: sorted, disjoint and non-adjacent intervals.</li>
+ *     <li>Wildcard ranges include their pre-releases, and inner wildcards and ordered wildcards are rejected.</li>
+ *     <li>Bounds sit exactly at the operator's value, down to pre-releases and the largest parts.</li>
+ * </ul>
+ * </p>
+ */
+public class VersionRangeSetTest {
+
+    private static final String[] VALUES = {"1.0.0", "1.2.0-rc.1", "1.2.0", "1.2.5+build", "1.5.3", "2.0.0",
+            "1.*", "1.2.*", "*"};
+
+    private final List<SemanticVersion> versions = probes();
+
+    private static List<SemanticVersion> probes() {
+        List<SemanticVersion> versions = new ArrayList<>();
+        String[] labels = {"", "-alpha", "-rc.1", "+build"};
+        for (int major = 0; major <= 3; major++) {
+            for (int minor = 0; minor <= 6; minor++) {
+                for (int patch : new int[] {0, 3, 5}) {
+                    for (String label : labels) {
+                        versions.add(new SemanticVersion(major + "." + minor + "." + patch + label));
+                    }
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static VersionRangeSet randomSet(Random random) {
+        String value = VALUES[random.nextInt(VALUES.length)];
+        Operator operator = value.contains("*") ? (random.nextBoolean() ? Operator.EQUAL : Operator.NOT_EQUAL)
+                : Operator.values()[random.nextInt(Operator.values().length)];
+        return VersionRangeSet.of(operator, new SemanticVersion(value));
+    }
+
+    private void assertCanonical(VersionRangeSet set) {
+        List<VersionRangeSet.Cut> lowers = set.lowerBounds(), uppers = set.upperBounds();
+        assertEquals(set.intervalCount(), lowers.size());
+        assertEquals(set.intervalCount(), uppers.size());
+        for (int i = 0; i < lowers.size(); i++) {
+            assertTrue(lowers.get(i).compareTo(uppers.get(i)) < 0, set.toString());
+            if (i > 0) assertTrue(uppers.get(i - 1).compareTo(lowers.get(i)) < 0, set.toString());
+        }
+    }
+
+    @Test
+    public void testOperatorSetsMatchOperator() {
+        for (String text : VALUES) {
+            SemanticVersion value = new SemanticVersion(text);
+            boolean wildcard = text.contains("*");
+            for (Operator operator : Operator.values()) {
+                if (wildcard && operator != Operator.EQUAL && operator != Operator.NOT_EQUAL) {
+                    assertThrows(IllegalArgumentException.class, () -> VersionRangeSet.of(operator, value));
+                    continue;
+                }
+                VersionRangeSet set = VersionRangeSet.of(operator, value);
+                assertCanonical(set);
+                for (SemanticVersion version : versions) {
+                    boolean expected = wildcard ? version.matchesWildcard(value) == (operator == Operator.EQUAL)
+                            : operator.test(version.compareTo(value));
+                    assertEquals(expected, set.contains(version), operator.symbol() + " " + value + " on " + version);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSetAlgebraMatchesMembership() {
+        Random random = new Random(1);
+        for (int round = 0; round < 300; round++) {
+            VersionRangeSet a = randomSet(random), b = randomSet(random);
+            if (random.nextBoolean()) a = a.union(randomSet(random));
+            if (random.nextBoolean()) b = b.intersect(randomSet(random).complement());
+
+            VersionRangeSet and = a.intersect(b), or = a.union(b), not = a.complement();
+            assertCanonical(and);
+            assertCanonical(or);
+            assertCanonical(not);
+            for (SemanticVersion version : versions) {
+                boolean inA = a.contains(version), inB = b.contains(version);
+                assertEquals(inA && inB, and.contains(version), a + " and " + b + " on " + version);
+                assertEquals(inA || inB, or.contains(version), a + " or " + b + " on " + version);
+                assertEquals(!inA, not.contains(version), "not " + a + " on " + version);
+            }
+            assertEquals(a.toString(), a.complement().complement().toString());
+        }
+    }
+
+    @Test
+    public void testBoundsAndEdgeCases() {
+        VersionRangeSet minor = VersionRangeSet.of(Operator.EQUAL, new SemanticVersion("1.2.*"));
+        assertEquals(1, minor.intervalCount());
+        assertTrue(minor.contains(new SemanticVersion("1.2.0-0")));
+        assertFalse(minor.contains(new SemanticVersion("1.3.0-0")));
+        assertFalse(minor.contains(new SemanticVersion("1.1.999")));
+
+        assertTrue(VersionRangeSet.of(Operator.EQUAL, new SemanticVersion("*")).isAll());
+        assertTrue(VersionRangeSet.empty().complement().isAll());
+        assertTrue(VersionRangeSet.all().complement().isEmpty());
+        VersionRangeSet.Cut cut = VersionRangeSet.Cut.before(new SemanticVersion("1.0.0"));
+        assertTrue(VersionRangeSet.range(cut, cut).isEmpty());
+
+        VersionRangeSet low = VersionRangeSet.of(Operator.LESS_THAN, new SemanticVersion("1.0.0"));
+        VersionRangeSet high = VersionRangeSet.of(Operator.GREATER_THAN_OR_EQUAL, new SemanticVersion("1.0.0"));
+        assertTrue(low.union(high).isAll(), "Adjacent intervals coalesce");
+        assertTrue(low.intersect(high).isEmpty());
+        assertEquals(2, VersionRangeSet.of(Operator.NOT_EQUAL, new SemanticVersion("1.0.0")).intervalCount());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> VersionRangeSet.of(Operator.EQUAL, new SemanticVersion("1.*.3")));
+        assertThrows(IllegalArgumentException.class,
+                () -> VersionRangeSet.of(Operator.NOT_EQUAL, new SemanticVersion("*.2.*")));
+    }
+
+    /**
+     * Tests membership right at and next to the bound of a single operator.
+     *
+     * @param operator  The operator symbol.
+     * @param value     The version on the right-hand side.
+     * @param version   The version tested.
+     * @param contained Whether the set contains it.
+     * @param intervals The number of intervals in the set.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        ">, 1.0.0, 1.0.0+build, false, 1",
+        ">, 1.0.0, 1.0.1-0, true, 1",
+        ">=, 1.0.0, 1.0.0-rc.1, false, 1",
+        "<, 1.0.0, 1.0.0-rc.1, true, 1",
+        "<=, 0.0.0, 0.0.0-0, true, 1",
+        "<, 0.0.0-0, 0.0.0-0, false, 1",
+        "!=, 1.0.0, 1.0.0+build, false, 2",
+        "==, 1.*, 1.0.0-0, true, 1",
+        "==, 1.*, 2.0.0-0, false, 1",
+        "!=, *, 0.0.0, false, 0",
+        "==, 2147483647.*, 2147483647.5.0, true, 1",
+        "==, 1.2147483647.*, 2.0.0-0, false, 1"
+    })
+    public void testOperatorBounds(String operator, String value, String version, boolean contained, int intervals) {
+        VersionRangeSet set = VersionRangeSet.of(Operator.of(operator), new SemanticVersion(value));
+        assertEquals(contained, set.contains(new SemanticVersion(version)));
+        assertEquals(intervals, set.intervalCount());
+        assertCanonical(set);
+    }
+}
@@ -8,6 +8,81 @@ public class Condition {
     private List<Condition> orConditions;
     private List<Condition> notConditions;
 
+    public Condition() {
+    }
+
+    /**
+     * Creates a leaf condition.
+     *
+     * @param criteria The criteria, written as {@code "<operator> <value>"}.
+     */
+    public Condition(String criteria) {
+        this(criteria, null, null, null);
+    }
+
+    /**
+     * Creates a condition with nested conditions.
+     *
+     * @param criteria      The criteria written as {@code "<operator> <value>"}, or {@code null}.
+     * @param andConditions Conditions that must all match, or {@code null}.
+     * @param orConditions  Conditions of which at least one must match, or {@code null}.
+     * @param notConditions Conditions of which none may match, or {@code null}.
+     */
+    public Condition(String criteria, List<Condition> andConditions, List<Condition> orConditions, List<Condition> notConditions) {
+        this.criteria = criteria != null ? new Criteria(criteria) : null;
+        this.andConditions = andConditions;
+        this.orConditions = orConditions;
+        this.notConditions = notConditions;
+    }
+
+    public Parameter parameter() {
+        return parameter;
+    }
+
+    public Criteria criteria() {
+        return criteria;
+    }
+
+    public List<Condition> andConditions() {
+        return andConditions;
+    }
+
+    public List<Condition> orConditions() {
+        return orConditions;
+    }
+
+    public List<Condition> notConditions() {
+        return notConditions;
+    }
+
+    /**
+     * Extracts the operator from criteria written as {@code "<operator> <value>"}.
+     *
+     * @return The operator, e.g. {@code ">="} for {@code ">= 1.8.0"}.
+     */
+    public String extractOperatorFromCriteria() {
+        String text = criteria.toString().trim();
+        return text.substring(0, operatorLength(text));
+    }
+
+    /**
+     * Extracts the value from criteria written as {@code "<operator> <value>"}.
+     *
+     * @return The value, e.g. {@code "1.8.0"} for {@code ">= 1.8.0"}.
+     */
+    public String extractValueFromCriteria() {
+        String text = criteria.toString().trim();
+        return text.substring(operatorLength(text)).trim();
+    }
+
+    private static int operatorLength(String text) {
+        int length = 0;
+        while (length < text.length() && "<>=!".indexOf(text.charAt(length)) >= 0) {
+            length++;
+        }
+        return length;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -1,5 +1,13 @@
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 public class SetIntersection {
     public static <T> Set<T> findIntersection(Set<T> set1, Set<T> set2) {
@@ -11,11 +19,267 @@ public class SetIntersection {
         return result;
     }
 
+    /**
+     * Counts the common elements without building the intersection. For approximate counts from
+     * small, mergeable summaries see {@link KmvSketch#intersectionEstimate} and {@link HyperLogLog}.
+     */
+    public static <T> long intersectionSize(Set<T> set1, Set<T> set2) {
+        if (set1.size() > set2.size()) {  // Optimize by iterating over the smaller set
+            return intersectionSize(set2, set1);
+        }
+        long count = 0;
+        for (T element : set1) {
+            if (set2.contains(element)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Intersects two sets of {@code int} keys without boxing.
+     * <p>
+     * If both arrays are sorted ascending, the smaller one is galloped through the larger one and
+     * the result is sorted. Otherwise the smaller one is loaded into an open-addressing hash table
+     * and the larger one probes it, so the result follows the order of the larger array.
+     * Duplicates in the inputs appear once in the result.
+     * </p>
+     */
+    public static int[] findIntersection(int[] set1, int[] set2) {
+        if (set1.length > set2.length) {  // Optimize by iterating over the smaller set
+            return findIntersection(set2, set1);
+        }
+        if (set1.length == 0) {
+            return new int[0];
+        }
+        return isSorted(set1) && isSorted(set2) ? gallopingIntersection(set1, set2) : hashIntersection(set1, set2);
+    }
+
+    /** The {@code long} counterpart of {@link #findIntersection(int[], int[])}. */
+    public static long[] findIntersection(long[] set1, long[] set2) {
+        if (set1.length > set2.length) {  // Optimize by iterating over the smaller set
+            return findIntersection(set2, set1);
+        }
+        if (set1.length == 0) {
+            return new long[0];
+        }
+        return isSorted(set1) && isSorted(set2) ? gallopingIntersection(set1, set2) : hashIntersection(set1, set2);
+    }
+
+    /**
+     * Intersects any number of sets without pairwise copies.
+     * <p>
+     * The sets are ordered by size. Each key of the smallest one is kept only if every other set
+     * contains it, and the checks stop at the first set that does not.
+     * </p>
+     */
+    public static <T> Set<T> findIntersection(List<? extends Set<T>> sets) {
+        if (sets.isEmpty()) {
+            throw new IllegalArgumentException("At least one set is required");
+        }
+        List<Set<T>> ordered = new ArrayList<>(sets);
+        ordered.sort(Comparator.comparingInt(Set::size));
+
+        Set<T> result = new HashSet<>();
+        Set<T> smallest = ordered.get(0);
+        List<Set<T>> others = ordered.subList(1, ordered.size());
+        for (T element : smallest) {
+            boolean inAll = true;
+            for (Set<T> other : others) {
+                if (!other.contains(element)) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) result.add(element);
+        }
+        return result;
+    }
+
+    /**
+     * Intersects any number of sets of {@code int} keys without boxing, on the common pool.
+     * <p>
+     * The sets are ordered by size and the smallest one is narrowed down by each of the others,
+     * stopping as soon as nothing is left. Each step gallops if both sides are sorted and probes a
+     * primitive hash table otherwise, split across the pool for large inputs. The result follows
+     * the order of the smallest set, with duplicates removed.
+     * </p>
+     */
+    public static int[] findIntersection(int[]... sets) {
+        return MultiWayIntersection.intersect(sets, ForkJoinPool.commonPool());
+    }
+
+    /** Like {@link #findIntersection(int[]...)}, running large steps on the given pool. */
+    public static int[] findIntersection(ForkJoinPool pool, int[]... sets) {
+        return MultiWayIntersection.intersect(sets, pool);
+    }
+
+    /**
+     * Intersects two compressed bitmaps container by container. Use
+     * {@link CompressedBitmap#andCardinality} when only the size of the result is needed.
+     */
+    public static CompressedBitmap findIntersection(CompressedBitmap set1, CompressedBitmap set2) {
+        return set1.and(set2);
+    }
+
+    /**
+     * Intersects sorted files without loading them, writing the common keys to {@code out}
+     * as they are found. See {@link SortedFileIntersection} for the supported formats.
+     *
+     * @return The number of keys written.
+     */
+    public static long findIntersection(List<Path> sortedFiles, SortedFileIntersection.Format format,
+                                        WritableByteChannel out) throws IOException {
+        return SortedFileIntersection.intersect(sortedFiles, format, out);
+    }
+
+    static boolean isSorted(int[] keys) {
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1] > keys[i]) return false;
+        }
+        return true;
+    }
+
+    static boolean isSorted(long[] keys) {
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1] > keys[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * For each key of the smaller array, doubles the step through the larger array until it
+     * passes the key, then binary searches the last step. Costs {@code O(m log(n / m))}.
+     */
+    private static int[] gallopingIntersection(int[] small, int[] large) {
+        int[] result = new int[small.length];
+        int count = 0, from = 0;
+        for (int i = 0; i < small.length && from < large.length; i++) {
+            int key = small[i];
+            if (i > 0 && key == small[i - 1]) continue;
+
+            int step = 1, hi = from;
+            while (hi < large.length && large[hi] < key) {
+                from = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(large, from, Math.min(hi + 1, large.length), key);
+            if (found >= 0) {
+                result[count++] = key;
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static long[] gallopingIntersection(long[] small, long[] large) {
+        long[] result = new long[small.length];
+        int count = 0, from = 0;
+        for (int i = 0; i < small.length && from < large.length; i++) {
+            long key = small[i];
+            if (i > 0 && key == small[i - 1]) continue;
+
+            int step = 1, hi = from;
+            while (hi < large.length && large[hi] < key) {
+                from = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(large, from, Math.min(hi + 1, large.length), key);
+            if (found >= 0) {
+                result[count++] = key;
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Loads the smaller array into a linear-probing table sized to at most half full, then probes
+     * it with the larger one. A slot is flagged as emitted on its first hit, so each common
+     * key is emitted once.
+     */
+    private static int[] hashIntersection(int[] small, int[] large) {
+        int capacity = tableCapacity(small.length);
+        int mask = capacity - 1, shift = Integer.numberOfLeadingZeros(mask);
+        int[] keys = new int[capacity];
+        boolean[] used = new boolean[capacity];
+
+        for (int key : small) {
+            int slot = (key * 0x9E3779B9) >>> shift & mask;
+            while (used[slot] && keys[slot] != key) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            used[slot] = true;
+        }
+
+        boolean[] emitted = new boolean[capacity];
+        int[] result = new int[small.length];
+        int count = 0;
+        for (int key : large) {
+            int slot = (key * 0x9E3779B9) >>> shift & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    if (!emitted[slot]) {
+                        emitted[slot] = true;
+                        result[count++] = key;
+                    }
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static long[] hashIntersection(long[] small, long[] large) {
+        int capacity = tableCapacity(small.length);
+        int mask = capacity - 1, shift = Long.numberOfLeadingZeros(mask);
+        long[] keys = new long[capacity];
+        boolean[] used = new boolean[capacity];
+
+        for (long key : small) {
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift) & mask;
+            while (used[slot] && keys[slot] != key) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            used[slot] = true;
+        }
+
+        boolean[] emitted = new boolean[capacity];
+        long[] result = new long[small.length];
+        int count = 0;
+        for (long key : large) {
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    if (!emitted[slot]) {
+                        emitted[slot] = true;
+                        result[count++] = key;
+                    }
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /** @return The smallest power of two that keeps {@code size} keys at most half full. */
+    private static int tableCapacity(int size) {
+        return Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+    }
+
     public static void main(String[] args) {
         Set<Integer> set1 = Set.of(1, 2, 3, 4, 5);
         Set<Integer> set2 = Set.of(3, 4, 5, 6, 7);
 
         Set<Integer> intersection = findIntersection(set1, set2);
         System.out.println("Intersection: " + intersection); // Output: [3, 4, 5]
+
+        int[] ids1 = {1, 2, 3, 4, 5};
+        int[] ids2 = {3, 4, 5, 6, 7};
+        System.out.println("Intersection: " + Arrays.toString(findIntersection(ids1, ids2))); // Output: [3, 4, 5]
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.example;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH comparison of operator-pair resolution in {@code preferLarger}.
+ * <p>
+ * Compares:
+ * <ul>
+ *     <li>The {@code OperatorPreference.LARGER} table lookup on resolved {@code Operator}s.</li>
+ *     <li>The previous chain of {@code operator1.equals(...) && operator2.equals(...)} branches,
+ *         including the {@code -zzzz} re-parse for {@code >=}.</li>
+ * </ul>
+ * Both walk the same randomly mixed operator pairs, so the branch predictor cannot learn the chain.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperatorPreferenceBenchmark {
+
+    private static final int PAIRS = 1024;
+    private static final String[] SYMBOLS = {">", ">=", "<", "<=", "==", "!="};
+
+    private String[] symbols1, symbols2, values1, values2;
+    private Operator[] operators1, operators2;
+    private SemanticVersion[] versions1, versions2;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        symbols1 = new String[PAIRS];
+        symbols2 = new String[PAIRS];
+        values1 = new String[PAIRS];
+        values2 = new String[PAIRS];
+        operators1 = new Operator[PAIRS];
+        operators2 = new Operator[PAIRS];
+        versions1 = new SemanticVersion[PAIRS];
+        versions2 = new SemanticVersion[PAIRS];
+
+        for (int i = 0; i < PAIRS; i++) {
+            symbols1[i] = SYMBOLS[random.nextInt(SYMBOLS.length)];
+            symbols2[i] = SYMBOLS[random.nextInt(SYMBOLS.length)];
+            values1[i] = "1." + random.nextInt(4) + ".0";
+            values2[i] = "1." + random.nextInt(4) + ".0";
+            operators1[i] = Operator.of(symbols1[i]);
+            operators2[i] = Operator.of(symbols2[i]);
+            versions1[i] = new SemanticVersion(values1[i]);
+            versions2[i] = new SemanticVersion(values2[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void decisionTable(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(OperatorPreference.LARGER.preferSecond(
+                    operators1[i], operators2[i], versions2[i].compareTo(versions1[i])));
+        }
+    }
+
+    /** Same strings as {@link #legacyStringChain}, through {@code ConditionPreference} as {@code preferLarger} does. */
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void decisionTableFromStrings(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(ConditionPreference.preferSecondLargerVersion(symbols1[i], values1[i], symbols2[i], values2[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void legacyStringChain(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(legacySecondIsLarger(symbols1[i], symbols2[i], values1[i], values2[i]));
+        }
+    }
+
+    /** The selection logic of {@code preferLarger} before it was table-driven. */
+    private static boolean legacySecondIsLarger(String operator1, String operator2, String value1Str, String value2Str) {
+        SemanticVersion value1 = new SemanticVersion(value1Str);
+        SemanticVersion value2 = new SemanticVersion(value2Str);
+
+        if (operator1.equals(">=")) {
+            value1 = new SemanticVersion(value1Str + "-zzzz");
+        }
+        if (operator2.equals(">=")) {
+            value2 = new SemanticVersion(value2Str + "-zzzz");
+        }
+
+        if (operator1.equals(">") && operator2.equals(">")) {
+            return value1.compareTo(value2) < 0;
+        } else if (operator1.equals(">") && operator2.equals(">=")) {
+            return value1.compareTo(value2) < 0;
+        } else if (operator1.equals(">=") && operator2.equals(">")) {
+            return value1.compareTo(value2) < 0;
+        } else if (operator1.equals(">=") && operator2.equals(">=")) {
+            return value1.compareTo(value2) < 0;
+        } else if (operator1.equals("==") && operator2.equals(">")) {
+            return value1.compareTo(value2) < 0;
+        } else if (operator1.equals("==") && operator2.equals("==")) {
+            return value1.compareTo(value2) < 0;
+        } else if (operator1.equals("!=") && operator2.equals("!=")) {
+            return value1.compareTo(value2) != 0;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH comparison of pre-release precedence checks in {@code SemanticVersion}.
+ * <p>
+ * Compares:
+ * <ul>
+ *     <li>{@code compareTo}, which walks identifiers tokenized once at construction.</li>
+ *     <li>The previous implementation, which re-ran {@code split("\\.")}, {@code matches("\\d+")}
+ *         and {@code Integer.parseInt} on every comparison.</li>
+ * </ul>
+ * </p>
+ * Run with {@code -prof gc} to see the allocation difference per sort.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreReleaseCompareBenchmark {
+
+    private static final String[] PRE_RELEASES = {
+        null, "alpha", "alpha.1", "alpha.beta", "beta", "beta.2", "beta.11", "rc.1", "rc.1.1", "0.3.7", "x.7.z.92"
+    };
+
+    @Param({"100000"})
+    private int size;
+
+    private SemanticVersion[] versions;
+    private SemanticVersion[] workArray;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        versions = new SemanticVersion[size];
+        for (int i = 0; i < size; i++) {
+            String preRelease = PRE_RELEASES[random.nextInt(PRE_RELEASES.length)];
+            // Few distinct cores so most comparisons reach the pre-release
+            versions[i] = new SemanticVersion("1." + random.nextInt(3) + ".0" + (preRelease != null ? "-" + preRelease : ""));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        workArray = Arrays.copyOf(versions, versions.length);
+    }
+
+    @Benchmark
+    public SemanticVersion[] sortPreTokenized() {
+        Arrays.sort(workArray);
+        return workArray;
+    }
+
+    @Benchmark
+    public SemanticVersion[] sortLegacySplit() {
+        Arrays.sort(workArray, LEGACY_ORDER);
+        return workArray;
+    }
+
+    private static final Comparator<SemanticVersion> LEGACY_ORDER = Comparator
+            .comparingInt(SemanticVersion::getMajor)
+            .thenComparingInt(SemanticVersion::getMinor)
+            .thenComparingInt(SemanticVersion::getPatch)
+            .thenComparing((v1, v2) -> legacyComparePreRelease(v1.getPreRelease(), v2.getPreRelease()));
+
+    /** The pre-release comparison as it was before identifiers were tokenized at construction. */
+    private static int legacyComparePreRelease(String pr1, String pr2) {
+        if (pr1 == null && pr2 == null) return 0; // Both are stable
+        if (pr1 == null) return 1;  // Stable > Pre-release
+        if (pr2 == null) return -1; // Pre-release < Stable
+
+        String[] parts1 = pr1.split("\\.");
+        String[] parts2 = pr2.split("\\.");
+
+        for (int i = 0; i < Math.max(parts1.length, parts2.length); i++) {
+            if (i >= parts1.length) return -1;
+            if (i >= parts2.length) return 1;
+
+            boolean isNumeric1 = parts1[i].matches("\\d+");
+            boolean isNumeric2 = parts2[i].matches("\\d+");
+
+            if (isNumeric1 && isNumeric2) {
+                int num1 = Integer.parseInt(parts1[i]);
+                int num2 = Integer.parseInt(parts2[i]);
+                if (num1 != num2) return Integer.compare(num1, num2);
+            } else {
+                int cmp = parts1[i].compareTo(parts2[i]);
+                if (cmp != 0) return cmp;
+            }
+        }
+        return 0;
+    }
+}
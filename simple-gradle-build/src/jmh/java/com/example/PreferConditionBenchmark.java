@@ -0,0 +1,75 @@
+package com.example;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH measurements of the condition selection in {@code preferLarger}, {@code preferSmaller}
+ * and {@code preferConditionForLargerValue}.
+ * <p>
+ * Each benchmark calls the {@code ConditionPreference} method that the condition method delegates
+ * to, from the criteria strings onwards: operators are resolved with {@code Operator.of}, values
+ * are parsed (versions through the shared cache, numbers with {@code Double.parseDouble}), and the
+ * pair is decided by {@code OperatorPreference}.
+ * Operators and values are randomly mixed so that no branch becomes predictable.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreferConditionBenchmark {
+
+    private static final int PAIRS = 1024;
+    private static final String[] SYMBOLS = {">", ">=", "<", "<=", "==", "!="};
+
+    private String[] symbols1, symbols2, versions1, versions2, numbers1, numbers2;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(13);
+        symbols1 = new String[PAIRS];
+        symbols2 = new String[PAIRS];
+        versions1 = new String[PAIRS];
+        versions2 = new String[PAIRS];
+        numbers1 = new String[PAIRS];
+        numbers2 = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            symbols1[i] = SYMBOLS[random.nextInt(SYMBOLS.length)];
+            symbols2[i] = SYMBOLS[random.nextInt(SYMBOLS.length)];
+            versions1[i] = "1." + random.nextInt(8) + "." + random.nextInt(4);
+            versions2[i] = "1." + random.nextInt(8) + "." + random.nextInt(4);
+            numbers1[i] = Integer.toString(random.nextInt(100)) + "." + random.nextInt(10);
+            numbers2[i] = Integer.toString(random.nextInt(100)) + "." + random.nextInt(10);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void preferLarger(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(ConditionPreference.preferSecondLargerVersion(symbols1[i], versions1[i], symbols2[i], versions2[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void preferSmaller(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(ConditionPreference.preferSecondSmallerVersion(symbols1[i], versions1[i], symbols2[i], versions2[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void preferConditionForLargerValue(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(ConditionPreference.preferSecondLargerNumber(symbols1[i], numbers1[i], symbols2[i], numbers2[i]));
+        }
+    }
+}
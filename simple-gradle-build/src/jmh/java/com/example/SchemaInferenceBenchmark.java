@@ -0,0 +1,104 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH measurements of {@code JsonSchemaGenerator} inference on a generated NDJSON corpus.
+ * <p>
+ * The corpus holds {@code files} files of 2,000 records each. Records have optional keys,
+ * mixed scalar types, nested objects and arrays of objects, so every fold path is taken.
+ * Measures one file through the pull parser, the whole corpus on the common pool, and the
+ * corpus with a 200-document reservoir.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaInferenceBenchmark {
+
+    private static final int RECORDS_PER_FILE = 2000;
+
+    @Param({"16"})
+    public int files;
+
+    private Path directory;
+    private List<Path> corpus;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("schema-benchmark");
+        corpus = new ArrayList<>();
+        Random random = new Random(19);
+        for (int f = 0; f < files; f++) {
+            Path file = directory.resolve("part-" + f + ".json");
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int r = 0; r < RECORDS_PER_FILE; r++) {
+                    out.write(record(random, f * RECORDS_PER_FILE + r));
+                    out.write('\n');
+                }
+            }
+            corpus.add(file);
+        }
+    }
+
+    private static String record(Random random, int id) {
+        StringBuilder out = new StringBuilder("{\"id\":").append(id)
+                .append(",\"name\":\"user-").append(id).append('"')
+                .append(",\"score\":").append(random.nextBoolean() ? random.nextInt(100) : random.nextDouble());
+        if (random.nextInt(4) != 0) {
+            out.append(",\"email\":").append(random.nextInt(10) == 0 ? "null" : "\"u" + id + "@example.com\"");
+        }
+        out.append(",\"address\":{\"city\":\"c").append(random.nextInt(50)).append("\",\"geo\":{\"lat\":")
+                .append(random.nextDouble()).append(",\"lng\":").append(random.nextDouble()).append("}}");
+        out.append(",\"orders\":[");
+        for (int i = random.nextInt(5); i > 0; i--) {
+            out.append("{\"sku\":\"s").append(random.nextInt(1000)).append("\",\"qty\":").append(random.nextInt(9))
+                    .append(",\"gift\":").append(random.nextBoolean()).append('}').append(i > 1 ? "," : "");
+        }
+        return out.append("]}").toString();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Object singleFile() throws IOException {
+        return JsonSchemaGenerator.inferFile(corpus.get(0));
+    }
+
+    @Benchmark
+    public Object corpusParallel() {
+        return JsonSchemaGenerator.inferFiles(corpus, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public Object corpusReservoir() throws IOException {
+        JsonSchemaGenerator.Sampling sampling = new JsonSchemaGenerator.Sampling();
+        sampling.maxDocuments = 200;
+        JsonSchemaGenerator.Sampler sampler = new JsonSchemaGenerator.Sampler(sampling);
+        for (Path file : corpus) {
+            sampler.sampleFile(file);
+        }
+        return sampler.result();
+    }
+}
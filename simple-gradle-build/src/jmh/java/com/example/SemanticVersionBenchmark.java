@@ -0,0 +1,78 @@
+package com.example;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH measurements of {@code SemanticVersion} parsing and ordering.
+ * <p>
+ * Measures:
+ * <ul>
+ *     <li>Parsing with the constructor, and through the shared cache with {@code SemanticVersion.of}.</li>
+ *     <li>{@code compareTo} on release versions, whose packed sort keys decide most comparisons,
+ *         and on pre-release versions, which fall back to identifier-by-identifier precedence.</li>
+ * </ul>
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SemanticVersionBenchmark {
+
+    private static final int VERSIONS = 1024;
+    private static final String[] PRE_RELEASES = {"alpha", "alpha.1", "beta.2", "beta.11", "rc.1", "0.3.7"};
+
+    @Param({"release", "prerelease"})
+    public String shape;
+
+    private String[] strings;
+    private SemanticVersion[] versions1, versions2;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        strings = new String[VERSIONS];
+        versions1 = new SemanticVersion[VERSIONS];
+        versions2 = new SemanticVersion[VERSIONS];
+        for (int i = 0; i < VERSIONS; i++) {
+            strings[i] = version(random);
+            versions1[i] = new SemanticVersion(strings[i]);
+            versions2[i] = new SemanticVersion(version(random));
+        }
+    }
+
+    private String version(Random random) {
+        String core = random.nextInt(3) + "." + random.nextInt(20) + "." + random.nextInt(100);
+        return shape.equals("release") ? core : core + "-" + PRE_RELEASES[random.nextInt(PRE_RELEASES.length)];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VERSIONS)
+    public void parse(Blackhole blackhole) {
+        for (String string : strings) {
+            blackhole.consume(new SemanticVersion(string));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VERSIONS)
+    public void parseCached(Blackhole blackhole) {
+        for (String string : strings) {
+            blackhole.consume(SemanticVersion.of(string));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VERSIONS)
+    public void compareTo(Blackhole blackhole) {
+        for (int i = 0; i < VERSIONS; i++) {
+            blackhole.consume(versions1[i].compareTo(versions2[i]));
+        }
+    }
+}
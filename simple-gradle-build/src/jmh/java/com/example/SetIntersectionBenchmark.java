@@ -0,0 +1,66 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH measurements of {@code SetIntersection.findIntersection} at several size ratios.
+ * <p>
+ * The larger input always holds {@code 1 << 16} keys and the smaller one {@code 1 / ratio} of
+ * that, half of them shared. Primitive inputs are either sorted, which selects galloping, or
+ * shuffled, which selects the hash table. The boxed {@code Set} overload is the baseline.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SetIntersectionBenchmark {
+
+    private static final int LARGE = 1 << 16;
+
+    @Param({"1", "16", "1024"})
+    public int ratio;
+
+    @Param({"true", "false"})
+    public boolean sorted;
+
+    private int[] small, large;
+    private Set<Integer> smallSet, largeSet;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        large = random.ints(0, LARGE * 4).distinct().limit(LARGE).toArray();
+        int smallSize = LARGE / ratio;
+        small = new int[smallSize];
+        for (int i = 0; i < smallSize; i++) {
+            small[i] = i % 2 == 0 ? large[random.nextInt(LARGE)] : LARGE * 4 + random.nextInt(LARGE);
+        }
+        if (sorted) {
+            Arrays.sort(small);
+            Arrays.sort(large);
+        }
+        smallSet = new HashSet<>();
+        largeSet = new HashSet<>();
+        for (int key : small) smallSet.add(key);
+        for (int key : large) largeSet.add(key);
+    }
+
+    @Benchmark
+    public int[] primitive() {
+        return SetIntersection.findIntersection(small, large);
+    }
+
+    @Benchmark
+    public Set<Integer> boxed() {
+        return SetIntersection.findIntersection(smallSet, largeSet);
+    }
+}